@@ -1,12 +1,11 @@
 package com.web3sosial.notificationservice.controller;
 
-import com.web3sosial.notificationservice.dto.NotificationDto;
 import com.web3sosial.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -16,13 +15,17 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     @GetMapping("/{walletAddress}")
-    public ResponseEntity<List<NotificationDto>> getNotifications(@PathVariable String walletAddress) {
-        return ResponseEntity.ok(notificationService.getNotifications(walletAddress));
+    public ResponseEntity<StreamingResponseBody> getNotifications(@PathVariable String walletAddress) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(notificationService.streamNotifications(walletAddress));
     }
 
     @GetMapping("/{walletAddress}/unread")
-    public ResponseEntity<List<NotificationDto>> getUnreadNotifications(@PathVariable String walletAddress) {
-        return ResponseEntity.ok(notificationService.getUnreadNotifications(walletAddress));
+    public ResponseEntity<StreamingResponseBody> getUnreadNotifications(@PathVariable String walletAddress) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(notificationService.streamUnreadNotifications(walletAddress));
     }
 
     @GetMapping("/{walletAddress}/count")
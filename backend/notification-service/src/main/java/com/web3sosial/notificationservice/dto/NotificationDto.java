@@ -4,6 +4,7 @@ import com.web3sosial.notificationservice.entity.NotificationType;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -16,6 +17,8 @@ public class NotificationDto {
     private NotificationType type;
     private String referenceId;
     private String message;
+    private Integer aggregateCount;
+    private List<String> sampleSenders;
     private Boolean isRead;
     private LocalDateTime createdAt;
 }
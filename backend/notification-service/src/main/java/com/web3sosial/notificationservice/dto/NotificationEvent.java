@@ -3,6 +3,8 @@ package com.web3sosial.notificationservice.dto;
 import com.web3sosial.notificationservice.entity.NotificationType;
 import lombok.*;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,4 +15,6 @@ public class NotificationEvent {
     private NotificationType type;
     private String referenceId;
     private String message;
+    private Integer count;
+    private List<String> sampleSenders;
 }
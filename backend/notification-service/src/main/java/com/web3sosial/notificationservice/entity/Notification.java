@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_created", columnList = "recipientAddress, createdAt DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +35,13 @@ public class Notification {
     @Column(columnDefinition = "TEXT")
     private String message;
 
+    // Birləşdirilmiş LIKE/COMMENT bildirişində neçə hadisə olduğu
+    @Column
+    private Integer aggregateCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String sampleSenders;
+
     @Column
     private Boolean isRead = false;
 
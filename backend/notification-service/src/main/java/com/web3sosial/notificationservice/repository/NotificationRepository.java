@@ -1,14 +1,31 @@
 package com.web3sosial.notificationservice.repository;
 
 import com.web3sosial.notificationservice.entity.Notification;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, String> {
-    List<Notification> findByRecipientAddressOrderByCreatedAtDesc(String recipientAddress);
+    // Kursorla oxunur: sətirlər 500-lük hissələrlə gəlir, siyahı yaddaşda yığılmır
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT n FROM Notification n WHERE n.recipientAddress = :recipientAddress ORDER BY n.createdAt DESC")
+    Stream<Notification> streamByRecipient(@Param("recipientAddress") String recipientAddress);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT n FROM Notification n WHERE n.recipientAddress = :recipientAddress AND n.isRead = false " +
+            "ORDER BY n.createdAt DESC")
+    Stream<Notification> streamUnreadByRecipient(@Param("recipientAddress") String recipientAddress);
+
     List<Notification> findByRecipientAddressAndIsReadFalse(String recipientAddress);
     Integer countByRecipientAddressAndIsReadFalse(String recipientAddress);
 }
@@ -6,15 +6,16 @@ import com.web3sosial.notificationservice.entity.Notification;
 import com.web3sosial.notificationservice.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
+    private final JsonStreamWriter jsonStreamWriter;
 
     public void createNotification(NotificationEvent event) {
         Notification notification = Notification.builder()
@@ -23,26 +24,20 @@ public class NotificationService {
                 .type(event.getType())
                 .referenceId(event.getReferenceId())
                 .message(event.getMessage())
+                .aggregateCount(event.getCount() == null ? 1 : event.getCount())
+                .sampleSenders(event.getSampleSenders() == null ? null : String.join(",", event.getSampleSenders()))
                 .isRead(false)
                 .build();
 
         notificationRepository.save(notification);
     }
 
-    public List<NotificationDto> getNotifications(String walletAddress) {
-        return notificationRepository
-                .findByRecipientAddressOrderByCreatedAtDesc(walletAddress)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    public StreamingResponseBody streamNotifications(String walletAddress) {
+        return jsonStreamWriter.array(() -> notificationRepository.streamByRecipient(walletAddress), this::mapToDto);
     }
 
-    public List<NotificationDto> getUnreadNotifications(String walletAddress) {
-        return notificationRepository
-                .findByRecipientAddressAndIsReadFalse(walletAddress)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    public StreamingResponseBody streamUnreadNotifications(String walletAddress) {
+        return jsonStreamWriter.array(() -> notificationRepository.streamUnreadByRecipient(walletAddress), this::mapToDto);
     }
 
     public Integer getUnreadCount(String walletAddress) {
@@ -71,6 +66,8 @@ public class NotificationService {
                 .type(n.getType())
                 .referenceId(n.getReferenceId())
                 .message(n.getMessage())
+                .aggregateCount(n.getAggregateCount())
+                .sampleSenders(n.getSampleSenders() == null ? List.of() : List.of(n.getSampleSenders().split(",")))
                 .isRead(n.getIsRead())
                 .createdAt(n.getCreatedAt())
                 .build();
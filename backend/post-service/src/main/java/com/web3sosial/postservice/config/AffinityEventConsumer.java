@@ -0,0 +1,58 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.CommentEvent;
+import com.web3sosial.postservice.dto.FollowEvent;
+import com.web3sosial.postservice.dto.LikeEvent;
+import com.web3sosial.postservice.service.AffinityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class AffinityEventConsumer extends BroadcastConsumer {
+
+    private static final String FOLLOW_EVENTS = "follow-events";
+
+    private final AffinityService affinityService;
+
+    // Hər instans öz affinity xəritələrini saxlayır; snapshot-dan və ya bazadan sonrası oxunur
+    @KafkaListener(topics = "like-events", groupId = "post-affinity-likes-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consumeLike(@Payload LikeEvent event,
+                            @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        if (Boolean.TRUE.equals(event.getLiked())) {
+            affinityService.recordLike(event.getWalletAddress(), event.getAuthorAddress(), timestamp);
+        } else if (event.getLikedAtMillis() != null) {
+            affinityService.recordUnlike(event.getWalletAddress(), event.getAuthorAddress(), event.getLikedAtMillis());
+        }
+    }
+
+    @KafkaListener(topics = "comment-events", groupId = "post-affinity-comments-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consumeComment(@Payload CommentEvent event,
+                               @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        affinityService.recordComment(event.getWalletAddress(), event.getAuthorAddress(), timestamp);
+    }
+
+    @KafkaListener(topics = FOLLOW_EVENTS, groupId = "post-affinity-follows-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consumeFollow(@Payload FollowEvent event,
+                              @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        affinityService.recordFollow(event.getFollowerAddress(), event.getFollowingAddress(),
+                Boolean.TRUE.equals(event.getFollowing()), timestamp);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return affinityService.replayFromMillis();
+    }
+
+    @Override
+    protected long replayFromMillis(String topic) {
+        return FOLLOW_EVENTS.equals(topic) ? affinityService.followReplayFromMillis() : replayFromMillis();
+    }
+}
@@ -1,6 +1,6 @@
 package com.web3sosial.postservice.config;
 
-import com.web3sosial.postservice.dto.NotificationEvent;
+import com.web3sosial.postservice.dto.PostCacheInvalidationEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -10,8 +10,14 @@ import org.springframework.kafka.core.ProducerFactory;
 public class KafkaProducerConfig {
 
     @Bean
-    public KafkaTemplate<String, NotificationEvent> kafkaTemplate(
-            ProducerFactory<String, NotificationEvent> producerFactory) {
+    public KafkaTemplate<String, Object> outboxKafkaTemplate(
+            ProducerFactory<String, Object> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public KafkaTemplate<String, PostCacheInvalidationEvent> cacheKafkaTemplate(
+            ProducerFactory<String, PostCacheInvalidationEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+}
@@ -0,0 +1,26 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.LikeEvent;
+import com.web3sosial.postservice.service.LikerIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class LikeEventConsumer extends BroadcastConsumer {
+
+    private final LikerIndexService likerIndexService;
+
+    // Hər instans öz qrupu ilə like hadisələrini alır; rebuild-dən əvvəlkilər bazadan gəlir
+    @KafkaListener(topics = "like-events", groupId = "post-likers-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(LikeEvent event) {
+        likerIndexService.apply(event);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return likerIndexService.replayFromMillis();
+    }
+}
@@ -0,0 +1,26 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.PostCacheInvalidationEvent;
+import com.web3sosial.postservice.service.PostCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PostCacheInvalidationConsumer extends BroadcastConsumer {
+
+    private final PostCacheService postCacheService;
+
+    // Hər instans öz keşini təmizləməlidir, ona görə qrup instansa görə unikaldır
+    @KafkaListener(topics = "post-cache-invalidation", groupId = "post-cache-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(PostCacheInvalidationEvent event) {
+        postCacheService.evictLocal(event.getPostIds());
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return postCacheService.replayFromMillis();
+    }
+}
@@ -0,0 +1,26 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.PostSearchEvent;
+import com.web3sosial.postservice.service.PostSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PostSearchEventConsumer extends BroadcastConsumer {
+
+    private final PostSearchService postSearchService;
+
+    // Hər instans öz indeksini saxlayır; tarixçə başlanğıcda bazadan/fayllardan yüklənir
+    @KafkaListener(topics = "post-search-events", groupId = "post-search-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(PostSearchEvent event) {
+        postSearchService.apply(event);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return postSearchService.replayFromMillis();
+    }
+}
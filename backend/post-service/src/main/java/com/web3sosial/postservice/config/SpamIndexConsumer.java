@@ -0,0 +1,32 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.PostSearchEvent;
+import com.web3sosial.postservice.service.SpamFilterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SpamIndexConsumer extends BroadcastConsumer {
+
+    private final SpamFilterService spamFilterService;
+
+    // Digər replikalarda yazılan postlar da təkrar indeksinə düşür; başlanğıcda son spam.window oxunur
+    @KafkaListener(topics = "post-search-events", groupId = "post-spam-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(@Payload PostSearchEvent event,
+                        @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        if (!Boolean.TRUE.equals(event.getDeleted())) {
+            spamFilterService.recordPublished(event.getPostId(), event.getWalletAddress(), event.getContent(), timestamp);
+        }
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return spamFilterService.replayFromMillis();
+    }
+}
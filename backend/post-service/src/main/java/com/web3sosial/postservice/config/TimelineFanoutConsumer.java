@@ -0,0 +1,23 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.TimelineFanoutEvent;
+import com.web3sosial.postservice.service.TimelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineFanoutConsumer {
+
+    private final TimelineService timelineService;
+
+    @KafkaListener(topics = "timeline-fanout", groupId = "post-timeline-group")
+    public void consume(TimelineFanoutEvent event) {
+        log.debug("Fan-out of post {} to {} timelines", event.getPostId(),
+                event.getRecipientAddresses() == null ? 0 : event.getRecipientAddresses().size());
+        timelineService.append(event);
+    }
+}
@@ -0,0 +1,41 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.CommentEvent;
+import com.web3sosial.postservice.dto.LikeEvent;
+import com.web3sosial.postservice.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TrendingEventConsumer extends BroadcastConsumer {
+
+    private final TrendingService trendingService;
+
+    // Hər instans son replay-horizon-u oxuyur: yazının vaxtı ilə xallar restartdan sonra da bərpa olunur
+    @KafkaListener(topics = "like-events", groupId = "post-trending-likes-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consumeLike(@Payload LikeEvent event,
+                            @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        // Unlike bəyənmənin çəkisini geri alır, like/unlike dövrü xalı şişirtmir
+        if (event.getLiked() != null) {
+            trendingService.recordLike(event.getPostId(), event.getLiked(), timestamp);
+        }
+    }
+
+    @KafkaListener(topics = "comment-events", groupId = "post-trending-comments-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consumeComment(@Payload CommentEvent event,
+                               @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        trendingService.recordComment(event.getPostId(), timestamp);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return trendingService.replayFromMillis();
+    }
+}
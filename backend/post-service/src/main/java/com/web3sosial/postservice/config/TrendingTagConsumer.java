@@ -0,0 +1,32 @@
+package com.web3sosial.postservice.config;
+
+import com.web3sosial.postservice.dto.PostSearchEvent;
+import com.web3sosial.postservice.service.TrendingTagService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TrendingTagConsumer extends BroadcastConsumer {
+
+    private final TrendingTagService trendingTagService;
+
+    // Yeni postların mətni artıq bu topic-dədir; hər instans teqləri özü sayır
+    @KafkaListener(topics = "post-search-events", groupId = "post-tags-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(@Payload PostSearchEvent event,
+                        @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        if (!Boolean.TRUE.equals(event.getDeleted()) && !Boolean.TRUE.equals(event.getFlagged())) {
+            trendingTagService.recordPost(event.getContent(), timestamp);
+        }
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return trendingTagService.replayFromMillis();
+    }
+}
@@ -1,17 +1,27 @@
 package com.web3sosial.postservice.controller;
 
+import com.web3sosial.postservice.dto.AuthorImpressionsDto;
+import com.web3sosial.postservice.dto.BatchPostRequest;
+import com.web3sosial.postservice.dto.BatchPostResponse;
 import com.web3sosial.postservice.dto.CommentDto;
 import com.web3sosial.postservice.dto.CreateCommentRequest;
 import com.web3sosial.postservice.dto.CreatePostRequest;
+import com.web3sosial.postservice.dto.CursorPage;
+import com.web3sosial.postservice.dto.ImpressionBatchRequest;
 import com.web3sosial.postservice.dto.PostDto;
+import com.web3sosial.postservice.dto.TagTrendDto;
+import com.web3sosial.postservice.service.ActivityRecord;
 import com.web3sosial.postservice.service.PostService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
+
 @RestController
 @RequestMapping("/api/posts")
 @RequiredArgsConstructor
@@ -25,18 +35,104 @@ public class PostController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PostDto>> getAllPosts() {
-        return ResponseEntity.ok(postService.getAllPosts());
+    public ResponseEntity<CursorPage<PostDto>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.getFeed(cursor, size, viewer));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPostResponse> getPosts(@RequestBody @Valid BatchPostRequest request) {
+        return ResponseEntity.ok(postService.getPosts(request.getIds(), request.getViewer()));
+    }
+
+    @PostMapping("/impressions")
+    public ResponseEntity<Void> recordImpressions(@RequestBody @Valid ImpressionBatchRequest request) {
+        postService.recordImpressions(request);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/activity")
+    public ResponseEntity<CursorPage<ActivityRecord>> getActivity(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getActivity(cursor, size));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostDto>> getTrending(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.getTrending(size, viewer));
+    }
+
+    @GetMapping("/trending/tags")
+    public ResponseEntity<List<TagTrendDto>> getTrendingTags(
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getTrendingTags(size));
+    }
+
+    @GetMapping("/tags/{tag}")
+    public ResponseEntity<CursorPage<PostDto>> getTagPosts(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.getTagPosts(tag, cursor, size, viewer));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<PostDto>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.searchPosts(q, size, viewer));
+    }
+
+    @GetMapping("/timeline/{walletAddress}")
+    public ResponseEntity<CursorPage<PostDto>> getTimeline(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getTimeline(walletAddress, cursor, size));
+    }
+
+    @GetMapping("/timeline/{walletAddress}/ranked")
+    public ResponseEntity<List<PostDto>> getRankedTimeline(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getRankedTimeline(walletAddress, size));
     }
 
     @GetMapping("/{postId}")
-    public ResponseEntity<PostDto> getPost(@PathVariable String postId) {
-        return ResponseEntity.ok(postService.getPost(postId));
+    public ResponseEntity<PostDto> getPost(
+            @PathVariable String postId,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.getPost(postId, viewer));
     }
 
     @GetMapping("/user/{walletAddress}")
-    public ResponseEntity<List<PostDto>> getUserPosts(@PathVariable String walletAddress) {
-        return ResponseEntity.ok(postService.getUserPosts(walletAddress));
+    public ResponseEntity<CursorPage<PostDto>> getUserPosts(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String viewer) {
+        return ResponseEntity.ok(postService.getUserPosts(walletAddress, cursor, size, viewer));
+    }
+
+    @GetMapping("/user/{walletAddress}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserPosts(@PathVariable String walletAddress) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(postService.exportUserPosts(walletAddress));
+    }
+
+    @GetMapping("/user/{walletAddress}/impressions")
+    public ResponseEntity<AuthorImpressionsDto> getAuthorImpressions(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) Integer days) {
+        return ResponseEntity.ok(postService.getAuthorImpressions(walletAddress, days));
     }
 
     @DeleteMapping("/{postId}/{walletAddress}")
@@ -55,8 +151,19 @@ public class PostController {
     }
 
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentDto>> getComments(@PathVariable String postId) {
-        return ResponseEntity.ok(postService.getComments(postId));
+    public ResponseEntity<CursorPage<CommentDto>> getComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getComments(postId, cursor, size));
+    }
+
+    @GetMapping("/comments/{commentId}/replies")
+    public ResponseEntity<CursorPage<CommentDto>> getReplies(
+            @PathVariable String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(postService.getReplies(commentId, cursor, size));
     }
 
     @PostMapping("/{postId}/like/{walletAddress}")
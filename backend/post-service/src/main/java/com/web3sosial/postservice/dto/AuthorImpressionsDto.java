@@ -0,0 +1,21 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorImpressionsDto {
+    private String walletAddress;
+    // Gün → həmin gün müəllifin postlarına baxan unikal istifadəçilər (təxmini)
+    private Map<LocalDate, Long> daily;
+    // Bütün aralıq üzrə unikal baxanlar; günlərin cəmi deyil, sketch-lərin birləşməsidir
+    private Long uniqueViewers;
+}
@@ -0,0 +1,19 @@
+package com.web3sosial.postservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPostRequest {
+    @NotEmpty
+    @Size(max = 100)
+    private List<String> ids;
+    private String viewer;
+}
@@ -0,0 +1,17 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchPostResponse {
+    private List<PostDto> posts;
+    private List<String> missingIds;
+}
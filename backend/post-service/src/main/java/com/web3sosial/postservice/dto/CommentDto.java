@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -14,8 +15,13 @@ import java.time.LocalDateTime;
 public class CommentDto {
     private String id;
     private String postId;
+    private String parentCommentId;
     private String walletAddress;
     private String content;
     private Integer likesCount;
     private LocalDateTime createdAt;
+    private Integer repliesCount;
+    // Yalnız yuxarı səviyyəli şərhlərdə: ilk K cavab və qalanları üçün kursor
+    private List<CommentDto> replies;
+    private String repliesCursor;
 }
\ No newline at end of file
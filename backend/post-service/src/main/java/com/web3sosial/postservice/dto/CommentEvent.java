@@ -0,0 +1,20 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentEvent {
+    private String postId;
+    private String authorAddress;
+    private String commentId;
+    private String walletAddress;
+    private LocalDateTime createdAt;
+}
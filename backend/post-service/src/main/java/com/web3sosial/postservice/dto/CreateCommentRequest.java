@@ -13,4 +13,6 @@ public class CreateCommentRequest {
     private String walletAddress;
     @NotBlank
     private String content;
+    // Boşdursa yuxarı səviyyəli şərh yaradılır
+    private String parentCommentId;
 }
\ No newline at end of file
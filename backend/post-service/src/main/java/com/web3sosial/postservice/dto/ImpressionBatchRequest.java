@@ -0,0 +1,21 @@
+package com.web3sosial.postservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImpressionBatchRequest {
+    @NotBlank
+    private String viewer;
+    @NotEmpty
+    @Size(max = 500)
+    private List<String> postIds;
+}
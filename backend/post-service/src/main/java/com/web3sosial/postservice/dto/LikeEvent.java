@@ -0,0 +1,19 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LikeEvent {
+    private String postId;
+    private String authorAddress;
+    private String walletAddress;
+    private Boolean liked;
+    // Yalnız unlike-da: silinən like-ın yaradılma vaxtı, affinity onun töhfəsini geri çıxır
+    private Long likedAtMillis;
+}
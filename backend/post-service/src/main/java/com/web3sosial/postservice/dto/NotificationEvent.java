@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,4 +17,6 @@ public class NotificationEvent {
     private String type;
     private String referenceId;
     private String message;
+    private Integer count;
+    private List<String> sampleSenders;
 }
\ No newline at end of file
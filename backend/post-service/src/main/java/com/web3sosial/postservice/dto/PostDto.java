@@ -22,5 +22,8 @@ public class PostDto {
     private Integer likesCount;
     private Integer commentsCount;
     private Integer repostsCount;
+    // HyperLogLog təxmini, ~1% xəta ilə
+    private Long uniqueViews;
     private LocalDateTime createdAt;
+    private Boolean likedByViewer;
 }
\ No newline at end of file
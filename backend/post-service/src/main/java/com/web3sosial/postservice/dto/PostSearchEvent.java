@@ -0,0 +1,22 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostSearchEvent {
+    private String postId;
+    private String walletAddress;
+    private String content;
+    private LocalDateTime createdAt;
+    private Boolean deleted;
+    // İşarələnmiş postlar axtarışa düşmür, yalnız spam indeksinə lazımdır
+    private Boolean flagged;
+}
@@ -0,0 +1,16 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagTrendDto {
+    private String tag;
+    // Count-min sketch təxmini, həqiqi saydan az olmur
+    private Long count;
+}
@@ -0,0 +1,20 @@
+package com.web3sosial.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineFanoutEvent {
+    private String postId;
+    private String authorAddress;
+    private LocalDateTime createdAt;
+    private List<String> recipientAddresses;
+}
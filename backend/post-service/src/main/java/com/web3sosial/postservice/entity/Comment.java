@@ -10,7 +10,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_post", columnList = "postId"),
+        @Index(name = "idx_comments_parent", columnList = "parentCommentId, createdAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +27,10 @@ public class Comment {
     @Column(nullable = false)
     private String postId;
 
+    // null: yuxarı səviyyəli şərh, əks halda cavab verilən şərhin id-si
+    @Column
+    private String parentCommentId;
+
     @Column(nullable = false)
     private String walletAddress;
 
@@ -33,6 +40,10 @@ public class Comment {
     @Column
     private Integer likesCount = 0;
 
+    @Column
+    @Builder.Default
+    private Integer repliesCount = 0;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 }
\ No newline at end of file
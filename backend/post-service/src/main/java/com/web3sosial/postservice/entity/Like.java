@@ -10,7 +10,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "likes")
+@Table(name = "likes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_likes_post_wallet", columnNames = {"postId", "walletAddress"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,42 @@
+package com.web3sosial.postservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    // Kafka açarı: eyni aggregate-in hadisələri eyni partition-a və sıraya düşür
+    @Column(nullable = false)
+    private String aggregateKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    // Birləşdirilən bildirişlərin qrupu; digər hadisələrdə null-dur və gözləmədən göndərilir
+    private String coalesceKey;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
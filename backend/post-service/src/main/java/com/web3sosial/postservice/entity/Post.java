@@ -6,12 +6,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_feed", columnList = "isDeleted, createdAt DESC, id DESC"),
+        @Index(name = "idx_posts_author_feed", columnList = "walletAddress, createdAt DESC, id DESC")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,10 +51,21 @@ public class Post {
     @Column
     private Integer repostsCount = 0;
 
+    // Yalnız ImpressionService flush-ı yazır
+    @Column(insertable = false, updatable = false)
+    private Long uniqueViews;
+
     @Column
     private Boolean isDeleted = false;
 
+    // Təkrar/spam filtri tərəfindən işarələnib
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean flagged = false;
+
+    // Partition açarıdır, sonradan dəyişdirilmir
     @CreationTimestamp
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
@@ -0,0 +1,36 @@
+package com.web3sosial.postservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "post_hashtags",
+        indexes = {
+                @Index(name = "idx_post_hashtags_tag_feed", columnList = "tag, createdAt DESC, postId DESC"),
+                @Index(name = "idx_post_hashtags_post", columnList = "postId")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostHashtag {
+
+    // postId + ":" + tag
+    @Id
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String tag;
+
+    @Column(nullable = false)
+    private String postId;
+
+    // Postun yaradılma vaxtı, teq səhifəsi bu sıra ilə oxunur
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.web3sosial.postservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "timeline_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_timeline_owner_post", columnNames = {"ownerAddress", "postId"}),
+        indexes = @Index(name = "idx_timeline_owner_feed", columnList = "ownerAddress, createdAt DESC, postId DESC"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineEntry {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String ownerAddress;
+
+    @Column(nullable = false)
+    private String postId;
+
+    @Column(nullable = false)
+    private String authorAddress;
+
+    // Postun yaradılma vaxtı (entry-nin yox), timeline bu sıra ilə oxunur
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,13 +1,60 @@
 package com.web3sosial.postservice.repository;
 
 import com.web3sosial.postservice.entity.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
-    List<Comment> findByPostIdOrderByCreatedAtDesc(String postId);
     Integer countByPostId(String postId);
-}
\ No newline at end of file
+
+    // Yuxarı səviyyəli şərhlər: idx_comments_post_top ilə, yenidən köhnəyə
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId AND c.parentCommentId IS NULL " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelFirstPage(@Param("postId") String postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId AND c.parentCommentId IS NULL " +
+            "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelAfter(@Param("postId") String postId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") String id,
+                                    Pageable pageable);
+
+    // Cavablar söhbət kimi köhnədən yeniyə oxunur
+    @Query("SELECT c FROM Comment c WHERE c.parentCommentId = :parentId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesFirstPage(@Param("parentId") String parentId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c WHERE c.parentCommentId = :parentId " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesAfter(@Param("parentId") String parentId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") String id,
+                                   Pageable pageable);
+
+    /**
+     * First {@code limit} replies of every given parent in one round trip: the lateral
+     * subquery reads each parent's slice of idx_comments_parent and stops after
+     * {@code limit} rows, however long the thread is.
+     */
+    @Query(value = "SELECT r.* FROM comments p CROSS JOIN LATERAL (" +
+            "SELECT c.* FROM comments c WHERE c.parent_comment_id = p.id " +
+            "ORDER BY c.created_at, c.id LIMIT :limit) r " +
+            "WHERE p.id IN (:parentIds)", nativeQuery = true)
+    List<Comment> findFirstRepliesOf(@Param("parentIds") Collection<String> parentIds,
+                                     @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.repliesCount = COALESCE(c.repliesCount, 0) + 1 WHERE c.id = :id")
+    int incrementRepliesCount(@Param("id") String id);
+}
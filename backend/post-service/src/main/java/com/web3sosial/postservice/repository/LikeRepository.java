@@ -2,13 +2,32 @@ package com.web3sosial.postservice.repository;
 
 import com.web3sosial.postservice.entity.Like;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, String> {
     boolean existsByPostIdAndWalletAddress(String postId, String walletAddress);
-    Optional<Like> findByPostIdAndWalletAddress(String postId, String walletAddress);
+
+    // Tək statement: uk_likes_post_wallet pozulanda heç nə yazılmır və 0 qayıdır
+    @Modifying
+    @Query(value = "INSERT INTO likes (id, post_id, wallet_address, created_at) " +
+            "VALUES (:id, :postId, :walletAddress, now()) ON CONFLICT (post_id, wallet_address) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("postId") String postId,
+                       @Param("walletAddress") String walletAddress);
+
+    @Query("SELECT l.createdAt FROM Like l WHERE l.postId = :postId AND l.walletAddress = :walletAddress")
+    Optional<LocalDateTime> findCreatedAt(@Param("postId") String postId, @Param("walletAddress") String walletAddress);
+
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.postId = :postId AND l.walletAddress = :walletAddress")
+    int deletePair(@Param("postId") String postId, @Param("walletAddress") String walletAddress);
     Integer countByPostId(String postId);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.web3sosial.postservice.repository;
+
+import com.web3sosial.postservice.entity.PostHashtag;
+import com.web3sosial.postservice.service.PageCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PostHashtagRepository extends JpaRepository<PostHashtag, String> {
+
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(h.createdAt, h.postId) " +
+            "FROM PostHashtag h WHERE h.tag = :tag " +
+            "ORDER BY h.createdAt DESC, h.postId DESC")
+    List<PageCursor> findFirstPage(@Param("tag") String tag, Pageable pageable);
+
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(h.createdAt, h.postId) " +
+            "FROM PostHashtag h WHERE h.tag = :tag " +
+            "AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.postId < :id)) " +
+            "ORDER BY h.createdAt DESC, h.postId DESC")
+    List<PageCursor> findPageAfter(@Param("tag") String tag,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") String id,
+                                   Pageable pageable);
+}
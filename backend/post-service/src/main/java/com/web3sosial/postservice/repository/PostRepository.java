@@ -1,16 +1,90 @@
 package com.web3sosial.postservice.repository;
 
 import com.web3sosial.postservice.entity.Post;
-import org.springframework.data.domain.Page;
+import com.web3sosial.postservice.service.PageCursor;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * posts is range-partitioned by month on created_at. Feed and timeline queries carry a
+ * {@code [since, until)} window so only the partitions it covers are scanned; per-author
+ * lists read every partition through idx_posts_author_feed in one query, which stops as
+ * soon as the page is full.
+ */
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
-    List<Post> findByWalletAddressAndIsDeletedFalseOrderByCreatedAtDesc(String walletAddress);
-    List<Post> findByIsDeletedFalseOrderByCreatedAtDesc();
-    Page<Post> findByIsDeletedFalse(Pageable pageable);
-}
\ No newline at end of file
+
+    // Keyset feed: idx_posts_feed (is_deleted, created_at DESC, id DESC) ilə oxunur; işarələnmiş postlar filtrlənir
+    @Query("SELECT p FROM Post p WHERE p.isDeleted = false AND p.flagged = false " +
+            "AND p.createdAt >= :since AND p.createdAt < :until " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeedFirstPage(@Param("since") LocalDateTime since,
+                                 @Param("until") LocalDateTime until,
+                                 Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.isDeleted = false AND p.flagged = false " +
+            "AND p.createdAt >= :since AND p.createdAt < :until " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeedAfter(@Param("since") LocalDateTime since,
+                             @Param("until") LocalDateTime until,
+                             @Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") String id,
+                             Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.walletAddress = :walletAddress AND p.isDeleted = false " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findUserPostsFirstPage(@Param("walletAddress") String walletAddress,
+                                      Pageable pageable);
+
+    // Kursordan yuxarı partition-lar created_at <= :createdAt ilə kəsilir
+    @Query("SELECT p FROM Post p WHERE p.walletAddress = :walletAddress AND p.isDeleted = false " +
+            "AND p.createdAt <= :createdAt " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findUserPostsAfter(@Param("walletAddress") String walletAddress,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") String id,
+                                  Pageable pageable);
+
+    // Export: bütün partition-lar oxunur, amma sətirlər kursorla gəlir və yaddaşda yığılmır
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Post p WHERE p.walletAddress = :walletAddress AND p.isDeleted = false " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<Post> streamUserPosts(@Param("walletAddress") String walletAddress);
+
+    // Hybrid timeline: çox izləyicisi olan müəlliflərin postları oxuma zamanı birləşdirilir
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(p.createdAt, p.id) " +
+            "FROM Post p WHERE p.isDeleted = false AND p.flagged = false " +
+            "AND p.walletAddress IN :authors AND p.createdAt >= :since AND p.createdAt < :until " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PageCursor> findAuthorsFirstPage(@Param("authors") Collection<String> authors,
+                                          @Param("since") LocalDateTime since,
+                                          @Param("until") LocalDateTime until,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(p.createdAt, p.id) " +
+            "FROM Post p WHERE p.isDeleted = false AND p.flagged = false " +
+            "AND p.walletAddress IN :authors AND p.createdAt >= :since AND p.createdAt < :until " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PageCursor> findAuthorsPageAfter(@Param("authors") Collection<String> authors,
+                                          @Param("since") LocalDateTime since,
+                                          @Param("until") LocalDateTime until,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") String id,
+                                          Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.web3sosial.postservice.repository;
+
+import com.web3sosial.postservice.entity.TimelineEntry;
+import com.web3sosial.postservice.service.PageCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, String> {
+
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(t.createdAt, t.postId) " +
+            "FROM TimelineEntry t WHERE t.ownerAddress = :owner " +
+            "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<PageCursor> findFirstPage(@Param("owner") String owner, Pageable pageable);
+
+    @Query("SELECT new com.web3sosial.postservice.service.PageCursor(t.createdAt, t.postId) " +
+            "FROM TimelineEntry t WHERE t.ownerAddress = :owner " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :id)) " +
+            "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<PageCursor> findPageAfter(@Param("owner") String owner,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") String id,
+                                   Pageable pageable);
+}
@@ -0,0 +1,255 @@
+package com.web3sosial.postservice.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One rolling file of the activity log, mapped read-write at its full size. Records are
+ * laid out back to back:
+ * <pre>
+ * length, crc32, type, timestampMillis, { fieldLength (0xFFFF = null), utf8 }×3
+ * </pre>
+ * where length and crc cover everything after the crc. A sidecar index maps a record's
+ * offset (relative to the segment's base offset) to its file position, one entry per
+ * {@code indexIntervalBytes} of log, so a read from any offset scans at most one interval.
+ *
+ * <p>A single writer appends; readers may run concurrently and only see records below the
+ * published {@link #size}.
+ */
+final class ActivityLogSegment {
+
+    static final int HEADER_BYTES = 8;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final int NULL_FIELD = 0xFFFF;
+
+    private final long baseOffset;
+    private final Path logPath;
+    private final Path indexPath;
+    private final MappedByteBuffer log;
+    private final MappedByteBuffer index;
+    private final int indexIntervalBytes;
+
+    private volatile int indexEntries;
+    private int lastIndexedPosition;
+    private volatile int size;
+    private volatile long nextOffset;
+
+    private ActivityLogSegment(long baseOffset, Path logPath, Path indexPath,
+                               MappedByteBuffer log, MappedByteBuffer index, int indexIntervalBytes) {
+        this.baseOffset = baseOffset;
+        this.logPath = logPath;
+        this.indexPath = indexPath;
+        this.log = log;
+        this.index = index;
+        this.indexIntervalBytes = indexIntervalBytes;
+    }
+
+    /**
+     * Maps (creating if needed) the segment starting at {@code baseOffset} and finds the end
+     * of its valid records: the scan starts at the last index entry and stops at the first
+     * empty or torn record, which is cleared so later appends are not mistaken for it.
+     */
+    static ActivityLogSegment open(Path directory, long baseOffset, int segmentBytes, int indexIntervalBytes)
+            throws IOException {
+        Path logPath = directory.resolve(fileName(baseOffset, ".log"));
+        Path indexPath = directory.resolve(fileName(baseOffset, ".idx"));
+        int indexBytes = (segmentBytes / indexIntervalBytes + 1) * INDEX_ENTRY_BYTES;
+        ActivityLogSegment segment = new ActivityLogSegment(baseOffset, logPath, indexPath,
+                map(logPath, segmentBytes), map(indexPath, indexBytes), indexIntervalBytes);
+        segment.recover();
+        return segment;
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Writes one record and returns its offset, or -1 when it does not fit and the log has
+     * to roll. The length is written last so a crash mid-write leaves no valid header.
+     */
+    long append(byte type, long timestampMillis, String[] fields) {
+        byte[][] encoded = new byte[fields.length][];
+        int length = 1 + 8;
+        for (int i = 0; i < fields.length; i++) {
+            encoded[i] = fields[i] == null ? null : fields[i].getBytes(StandardCharsets.UTF_8);
+            if (encoded[i] != null && encoded[i].length >= NULL_FIELD) {
+                throw new IllegalArgumentException("Activity field too long");
+            }
+            length += 2 + (encoded[i] == null ? 0 : encoded[i].length);
+        }
+        int position = size;
+        if (position + HEADER_BYTES + length > log.capacity()) {
+            return -1;
+        }
+
+        ByteBuffer out = log.duplicate();
+        out.position(position + HEADER_BYTES);
+        out.put(type);
+        out.putLong(timestampMillis);
+        for (byte[] field : encoded) {
+            if (field == null) {
+                out.putShort((short) NULL_FIELD);
+            } else {
+                out.putShort((short) field.length);
+                out.put(field);
+            }
+        }
+        log.putInt(position + 4, crc(position + HEADER_BYTES, length));
+        log.putInt(position, length);
+
+        long offset = nextOffset;
+        if (position - lastIndexedPosition >= indexIntervalBytes
+                && (indexEntries + 1) * INDEX_ENTRY_BYTES <= index.capacity()) {
+            int entry = indexEntries * INDEX_ENTRY_BYTES;
+            index.putInt(entry, (int) (offset - baseOffset));
+            index.putInt(entry + 4, position);
+            lastIndexedPosition = position;
+            indexEntries++;
+        }
+        size = position + HEADER_BYTES + length;
+        nextOffset = offset + 1;
+        return offset;
+    }
+
+    /**
+     * Visits up to {@code maxRecords} records from {@code fromOffset} on and returns the
+     * offset after the last one visited.
+     */
+    long read(long fromOffset, int maxRecords, Consumer<ActivityRecord> visitor) {
+        int limit = size;
+        ByteBuffer in = log.duplicate();
+
+        // İndeksdə fromOffset-dən böyük olmayan ən son giriş
+        long offset = baseOffset;
+        int position = 0;
+        int low = 0;
+        int high = indexEntries - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long entryOffset = baseOffset + index.getInt(mid * INDEX_ENTRY_BYTES);
+            if (entryOffset <= fromOffset) {
+                offset = entryOffset;
+                position = index.getInt(mid * INDEX_ENTRY_BYTES + 4);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        int visited = 0;
+        while (position < limit && visited < maxRecords) {
+            int length = in.getInt(position);
+            if (offset >= fromOffset) {
+                visitor.accept(decode(in, offset, position + HEADER_BYTES));
+                visited++;
+            }
+            position += HEADER_BYTES + length;
+            offset++;
+        }
+        return Math.max(offset, fromOffset);
+    }
+
+    void force() {
+        log.force();
+        index.force();
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(logPath);
+        Files.deleteIfExists(indexPath);
+    }
+
+    static long parseBaseOffset(Path logFile) {
+        String name = logFile.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".log".length()));
+    }
+
+    private void recover() {
+        int entries = 0;
+        while ((entries + 1) * INDEX_ENTRY_BYTES <= index.capacity()
+                && index.getInt(entries * INDEX_ENTRY_BYTES + 4) > 0) {
+            entries++;
+        }
+        long offset = baseOffset;
+        int position = 0;
+        if (entries > 0) {
+            offset = baseOffset + index.getInt((entries - 1) * INDEX_ENTRY_BYTES);
+            position = index.getInt((entries - 1) * INDEX_ENTRY_BYTES + 4);
+        }
+        while (position + HEADER_BYTES <= log.capacity()) {
+            int length = log.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > log.capacity()
+                    || log.getInt(position + 4) != crc(position + HEADER_BYTES, length)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+            offset++;
+        }
+        if (position + HEADER_BYTES <= log.capacity()) {
+            log.putInt(position, 0);
+        }
+        indexEntries = entries;
+        lastIndexedPosition = entries > 0 ? index.getInt((entries - 1) * INDEX_ENTRY_BYTES + 4) : 0;
+        size = position;
+        nextOffset = offset;
+    }
+
+    private ActivityRecord decode(ByteBuffer in, long offset, int position) {
+        ByteBuffer record = in.duplicate();
+        record.position(position);
+        ActivityRecord.Type type = ActivityRecord.Type.fromCode(record.get());
+        long timestamp = record.getLong();
+        String actor = readField(record);
+        String target = readField(record);
+        String reference = readField(record);
+        return new ActivityRecord(offset, type, timestamp, actor, target, reference);
+    }
+
+    private int crc(int position, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = log.duplicate();
+        slice.position(position).limit(position + length);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    private static String readField(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_FIELD) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer map(Path path, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mövcud fayl yaradıldığı ölçüdə map olunur, konfiqurasiya sonradan dəyişsə belə
+            long length = channel.size() > 0 ? channel.size() : bytes;
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    private static String fileName(long baseOffset, String suffix) {
+        return String.format("%020d%s", baseOffset, suffix);
+    }
+}
@@ -0,0 +1,41 @@
+package com.web3sosial.postservice.service;
+
+/**
+ * One entry of the {@link ActivityLogService} log. {@code actor} is the wallet that acted,
+ * {@code target} what it acted on and {@code reference} an optional related id; see
+ * {@link Type} for what each holds.
+ */
+public record ActivityRecord(long offset, Type type, long timestampMillis,
+                             String actor, String target, String reference) {
+
+    /** Record types; the code is what is stored on disk and must never be reused. */
+    public enum Type {
+        // target = postId
+        POST_CREATED(1),
+        POST_DELETED(2),
+        // target = postId, reference = post müəllifi
+        LIKE(3),
+        UNLIKE(4),
+        // target = postId, reference = commentId
+        COMMENT(5);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        static Type fromCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown activity type " + code);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.web3sosial.postservice.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * One viewer's affinity towards authors: an open-addressing map from author key to a
+ * decayed interaction score plus a follow flag, held in parallel primitive arrays. Scores
+ * are stored relative to {@link #referenceMillis()}, like {@link TrendingService}. Not
+ * thread-safe; {@link AffinityService} locks on the instance.
+ */
+final class AffinityMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private float[] scores;
+    private boolean[] follows;
+    private int size;
+    private long referenceMillis;
+
+    AffinityMap(long referenceMillis) {
+        this.referenceMillis = referenceMillis;
+        allocate(MIN_CAPACITY);
+    }
+
+    long referenceMillis() {
+        return referenceMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Slot of {@code author}, or -1. Author keys are never 0. */
+    int find(long author) {
+        int mask = keys.length - 1;
+        for (int slot = mix(author) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == author) {
+                return slot;
+            }
+            if (keys[slot] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    float scoreAt(int slot) {
+        return scores[slot];
+    }
+
+    boolean followsAt(int slot) {
+        return follows[slot];
+    }
+
+    void addScore(long author, float delta) {
+        int slot = slotFor(author);
+        scores[slot] = Math.max(0, scores[slot] + delta);
+    }
+
+    void setFollow(long author, boolean follow) {
+        int slot = slotFor(author);
+        follows[slot] = follow;
+    }
+
+    /**
+     * Multiplies every score by {@code factor}, moves the reference time and drops authors
+     * that are not followed and whose score fell below {@code minScore}.
+     */
+    void rescale(float factor, long newReferenceMillis, float minScore) {
+        long[] oldKeys = keys;
+        float[] oldScores = scores;
+        boolean[] oldFollows = follows;
+        int kept = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0 && (oldFollows[i] || oldScores[i] * factor >= minScore)) {
+                kept++;
+            }
+        }
+        allocate(capacityFor(kept));
+        for (int i = 0; i < oldKeys.length; i++) {
+            float score = oldScores[i] * factor;
+            if (oldKeys[i] != 0 && (oldFollows[i] || score >= minScore)) {
+                int slot = slotFor(oldKeys[i]);
+                scores[slot] = score < minScore ? 0 : score;
+                follows[slot] = oldFollows[i];
+            }
+        }
+        referenceMillis = newReferenceMillis;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(referenceMillis);
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                out.writeLong(keys[i]);
+                out.writeFloat(scores[i]);
+                out.writeBoolean(follows[i]);
+            }
+        }
+    }
+
+    static AffinityMap readFrom(DataInputStream in) throws IOException {
+        AffinityMap map = new AffinityMap(in.readLong());
+        int entries = in.readInt();
+        map.allocate(capacityFor(entries));
+        for (int i = 0; i < entries; i++) {
+            int slot = map.slotFor(in.readLong());
+            map.scores[slot] = in.readFloat();
+            map.follows[slot] = in.readBoolean();
+        }
+        return map;
+    }
+
+    private int slotFor(long author) {
+        int mask = keys.length - 1;
+        int slot = mix(author) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == author) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Doluluq 1/2-ni keçəndə böyüdülür ki, axtarış zəncirləri qısa qalsın
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            return slotFor(author);
+        }
+        keys[slot] = author;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        float[] oldScores = scores;
+        boolean[] oldFollows = follows;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotFor(oldKeys[i]);
+                scores[slot] = oldScores[i];
+                follows[slot] = oldFollows[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        scores = new float[capacity];
+        follows = new boolean[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2 + 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
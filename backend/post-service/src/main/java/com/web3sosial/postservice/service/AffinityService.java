@@ -0,0 +1,366 @@
+package com.web3sosial.postservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Viewer → author affinity used to rank a feed. Every like or comment a viewer gives an
+ * author adds its weight, decayed with {@code affinity.half-life} the same way as
+ * {@link TrendingService}; following an author adds a constant {@code affinity.follow-weight}.
+ * Each viewer has an {@link AffinityMap} of primitive arrays, so a ranking pass does no
+ * allocation per candidate beyond one {@code long[]}.
+ *
+ * <p>Scores are fed from {@code like-events}, {@code comment-events} and
+ * {@code follow-events} on every replica and written to {@code affinity.snapshot-file}
+ * every {@code affinity.snapshot-interval-ms}. A restart loads a snapshot younger than
+ * {@code affinity.snapshot-max-age} and replays the topics from shortly before it; events
+ * in that margin may count twice, which only nudges scores. Without a usable snapshot
+ * likes and comments of the last {@code affinity.rebuild-horizon} are re-read from the
+ * database, and follows are replayed from as far back as {@code follow-events} retains.
+ */
+@Service
+@Slf4j
+public class AffinityService {
+
+    // float üçün e^20 ≈ 5e8 hələ təhlükəsizdir
+    private static final double RESCALE_EXPONENT = 20;
+
+    private final double lambdaPerMilli;
+    private final double recencyLambdaPerMilli;
+    private final float likeWeight;
+    private final float commentWeight;
+    private final float followWeight;
+    private final int maxAuthors;
+    private final float minScore;
+
+    private static final String LIKES_SINCE =
+            "SELECT l.wallet_address, p.wallet_address, l.created_at FROM likes l JOIN posts p ON p.id = l.post_id " +
+            "WHERE l.created_at >= ? AND l.created_at < ?";
+    private static final String COMMENTS_SINCE =
+            "SELECT c.wallet_address, p.wallet_address, c.created_at FROM comments c JOIN posts p ON p.id = c.post_id " +
+            "WHERE c.created_at >= ? AND c.created_at < ?";
+    private static final long REBUILD_STEP_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path snapshotFile;
+    private final long rebuildHorizonMillis;
+    private final long replayMarginMillis;
+    private final long replayFromMillis;
+    private final boolean loadedSnapshot;
+    private volatile boolean ready;
+
+    private final ConcurrentHashMap<String, AffinityMap> viewers = new ConcurrentHashMap<>();
+
+    public AffinityService(JdbcTemplate jdbcTemplate,
+                           @Value("${affinity.snapshot-file:data/affinity.snap}") String snapshotFile,
+                           @Value("${affinity.snapshot-max-age:1d}") Duration snapshotMaxAge,
+                           @Value("${affinity.rebuild-horizon:56d}") Duration rebuildHorizon,
+                           @Value("${broadcast.replay-margin:5m}") Duration replayMargin,
+                           @Value("${affinity.half-life:14d}") Duration halfLife,
+                           @Value("${affinity.recency-half-life:6h}") Duration recencyHalfLife,
+                           @Value("${affinity.like-weight:1.0}") float likeWeight,
+                           @Value("${affinity.comment-weight:3.0}") float commentWeight,
+                           @Value("${affinity.follow-weight:2.0}") float followWeight,
+                           @Value("${affinity.max-authors-per-viewer:1000}") int maxAuthors,
+                           @Value("${affinity.min-score:0.01}") float minScore) {
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.recencyLambdaPerMilli = Math.log(2) / recencyHalfLife.toMillis();
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.followWeight = followWeight;
+        this.maxAuthors = maxAuthors;
+        this.minScore = minScore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.rebuildHorizonMillis = rebuildHorizon.toMillis();
+        this.replayMarginMillis = replayMargin.toMillis();
+
+        // Snapshot consumer-lər başlamazdan əvvəl yüklənir ki, canlı hadisələr onun üstünə gəlsin
+        long now = System.currentTimeMillis();
+        long snapshotMillis = loadSnapshot(now - snapshotMaxAge.toMillis());
+        this.loadedSnapshot = snapshotMillis > 0;
+        this.replayFromMillis = loadedSnapshot ? snapshotMillis : now;
+        this.ready = loadedSnapshot;
+    }
+
+    /** Like and comment events from this time on are replayed from the topics. */
+    public long replayFromMillis() {
+        return replayFromMillis;
+    }
+
+    /** Follows are not in this database, so without a snapshot the whole topic is replayed. */
+    public long followReplayFromMillis() {
+        return loadedSnapshot ? replayFromMillis : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (loadedSnapshot) {
+            return;
+        }
+        Thread rebuild = new Thread(this::rebuildFromDatabase, "affinity-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    public void recordLike(String viewer, String author, long timestampMillis) {
+        addScore(viewer, author, likeWeight, timestampMillis);
+    }
+
+    /**
+     * Takes back what the like made at {@code likedAtMillis} still contributes: the same
+     * weight at the same time, so both decay alike and cancel exactly. Other likes and
+     * comments for the author are left alone; the score never drops below zero.
+     */
+    public void recordUnlike(String viewer, String author, long likedAtMillis) {
+        addScore(viewer, author, -likeWeight, likedAtMillis);
+    }
+
+    public void recordComment(String viewer, String author, long timestampMillis) {
+        addScore(viewer, author, commentWeight, timestampMillis);
+    }
+
+    public void recordFollow(String viewer, String author, boolean following, long timestampMillis) {
+        if (viewer == null || author == null || viewer.equals(author)) {
+            return;
+        }
+        long key = authorKey(author);
+        viewers.compute(viewer, (k, map) -> {
+            if (map == null) {
+                if (!following) {
+                    return null;
+                }
+                map = new AffinityMap(timestampMillis);
+            }
+            synchronized (map) {
+                map.setFollow(key, following);
+            }
+            return map;
+        });
+    }
+
+    /**
+     * Orders {@code count} candidates for {@code viewer}: each scores
+     * {@code recency × (1 + affinity)}, where recency halves every
+     * {@code affinity.recency-half-life}. Returns candidate indices, best first; ties keep
+     * the input order.
+     */
+    public int[] rank(String viewer, long[] authorKeys, long[] createdAtMillis, int count, long nowMillis) {
+        long[] packed = new long[count];
+        AffinityMap map = viewer == null ? null : viewers.get(viewer);
+        if (map == null) {
+            for (int i = 0; i < count; i++) {
+                packed[i] = pack(recency(createdAtMillis[i], nowMillis), i, count);
+            }
+        } else {
+            synchronized (map) {
+                float decay = (float) Math.exp(-lambdaPerMilli * (nowMillis - map.referenceMillis()));
+                for (int i = 0; i < count; i++) {
+                    float affinity = 0;
+                    int slot = map.find(authorKeys[i]);
+                    if (slot >= 0) {
+                        affinity = Math.max(0, map.scoreAt(slot) * decay) + (map.followsAt(slot) ? followWeight : 0);
+                    }
+                    packed[i] = pack(recency(createdAtMillis[i], nowMillis) * (1 + affinity), i, count);
+                }
+            }
+        }
+        // Mənfi olmayan float-ların bitləri sıranı saxlayır (xallar ona görə sıfırda kəsilir);
+        // aşağı 32 bit indeksdir
+        Arrays.sort(packed);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = count - 1 - (int) packed[count - 1 - i];
+        }
+        return order;
+    }
+
+    public static long authorKey(String walletAddress) {
+        long hash = HyperLogLog.hash64(walletAddress.getBytes(StandardCharsets.UTF_8));
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Moves every viewer's reference time to now, dropping authors that have decayed below
+     * {@code affinity.min-score} and viewers left with nobody.
+     */
+    @Scheduled(fixedDelayString = "${affinity.snapshot-interval-ms:600000}",
+            initialDelayString = "${affinity.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        // Yarımçıq rebuild snapshot-a düşsə, növbəti restart köhnə xalları itirər
+        if (!ready) {
+            return;
+        }
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            log.warn("Affinity snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${affinity.sweep-interval-ms:3600000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        AtomicInteger dropped = new AtomicInteger();
+        for (String viewer : viewers.keySet()) {
+            viewers.computeIfPresent(viewer, (k, map) -> {
+                synchronized (map) {
+                    rescale(map, now);
+                    if (map.size() == 0) {
+                        dropped.incrementAndGet();
+                        return null;
+                    }
+                    return map;
+                }
+            });
+        }
+        if (dropped.get() > 0) {
+            log.debug("Affinity sweep dropped {} viewers, {} left", dropped.get(), viewers.size());
+        }
+    }
+
+    private void addScore(String viewer, String author, float weight, long timestampMillis) {
+        if (viewer == null || author == null || viewer.equals(author)) {
+            return;
+        }
+        long key = authorKey(author);
+        viewers.compute(viewer, (k, map) -> {
+            if (map == null) {
+                if (weight <= 0) {
+                    return null;
+                }
+                map = new AffinityMap(timestampMillis);
+            }
+            synchronized (map) {
+                // Limit dolanda yeni müəlliflər qəbul edilmir; mövcud olanlar yenilənir
+                if (map.find(key) < 0 && (weight <= 0 || map.size() >= maxAuthors)) {
+                    return map;
+                }
+                if (lambdaPerMilli * (timestampMillis - map.referenceMillis()) > RESCALE_EXPONENT) {
+                    rescale(map, timestampMillis);
+                }
+                map.addScore(key, (float) (weight * Math.exp(lambdaPerMilli * (timestampMillis - map.referenceMillis()))));
+            }
+            return map;
+        });
+    }
+
+    /**
+     * Adds likes and comments from {@code affinity.rebuild-horizon} ago up to shortly before
+     * the topics are replayed from, one day per query. Scores are sums, so live events can
+     * be applied meanwhile.
+     */
+    private void rebuildFromDatabase() {
+        long started = System.currentTimeMillis();
+        long until = replayFromMillis - replayMarginMillis;
+        long rows = 0;
+        try {
+            for (long from = until - rebuildHorizonMillis; from < until; from += REBUILD_STEP_MILLIS) {
+                Timestamp lower = new Timestamp(from);
+                Timestamp upper = new Timestamp(Math.min(from + REBUILD_STEP_MILLIS, until));
+                rows += rebuild(LIKES_SINCE, likeWeight, lower, upper);
+                rows += rebuild(COMMENTS_SINCE, commentWeight, lower, upper);
+            }
+        } catch (RuntimeException e) {
+            log.error("Affinity rebuild failed, scores only cover events since startup", e);
+            return;
+        }
+        ready = true;
+        log.info("Affinity rebuilt from {} likes and comments in {} ms", rows, System.currentTimeMillis() - started);
+    }
+
+    private long rebuild(String sql, float weight, Timestamp from, Timestamp until) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(sql, rs -> {
+            addScore(rs.getString(1), rs.getString(2), weight, rs.getTimestamp(3).getTime());
+            rows[0]++;
+        }, from, until);
+        return rows[0];
+    }
+
+    /** Loads the snapshot if it was written after {@code minTimestampMillis}; returns its time, or 0. */
+    private long loadSnapshot(long minTimestampMillis) {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            long timestamp = in.readLong();
+            if (timestamp < minTimestampMillis) {
+                return 0;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                viewers.put(in.readUTF(), AffinityMap.readFrom(in));
+            }
+            return timestamp;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Affinity snapshot could not be read, rebuilding: {}", e.getMessage());
+            viewers.clear();
+            return 0;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        long started = System.currentTimeMillis();
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = directory.resolve(snapshotFile.getFileName() + ".tmp");
+        int written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeLong(started);
+            // Say əvvəldə yazılır, ona görə yazarkən əlavə olunan viewer-lər növbəti snapshot-a qalır
+            Map<String, AffinityMap> current = Map.copyOf(viewers);
+            out.writeInt(current.size());
+            for (Map.Entry<String, AffinityMap> entry : current.entrySet()) {
+                out.writeUTF(entry.getKey());
+                synchronized (entry.getValue()) {
+                    entry.getValue().writeTo(out);
+                }
+                written++;
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Affinity snapshot of {} viewers written in {} ms", written, System.currentTimeMillis() - started);
+    }
+
+    private void rescale(AffinityMap map, long newReferenceMillis) {
+        float factor = (float) Math.exp(-lambdaPerMilli * (newReferenceMillis - map.referenceMillis()));
+        map.rescale(factor, newReferenceMillis, minScore);
+    }
+
+    private float recency(long createdAtMillis, long nowMillis) {
+        return (float) Math.exp(-recencyLambdaPerMilli * Math.max(0, nowMillis - createdAtMillis));
+    }
+
+    private static long pack(float score, int index, int count) {
+        return (long) Float.floatToIntBits(score) << 32 | (count - 1 - index);
+    }
+}
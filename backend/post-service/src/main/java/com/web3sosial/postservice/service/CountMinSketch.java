@@ -0,0 +1,75 @@
+package com.web3sosial.postservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed-size frequency sketch: estimates never undercount and overcount by at most
+ * {@code e/width} of the total with probability {@code 1 - e^-depth}. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[][] counts;
+
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[depth][width];
+    }
+
+    void add(String item, long count) {
+        long hash = hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counts[row][index(h1, h2, row)] += count;
+        }
+    }
+
+    long estimate(String item) {
+        long hash = hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row][index(h1, h2, row)]);
+        }
+        return min;
+    }
+
+    void subtract(CountMinSketch other) {
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                counts[row][col] -= other.counts[row][col];
+            }
+        }
+    }
+
+    void clear() {
+        for (long[] row : counts) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // Kirsch–Mitzenmacher: iki hash-dan depth sayda indeks
+    private int index(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return Math.floorMod(combined, width);
+    }
+
+    private static long hash64(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
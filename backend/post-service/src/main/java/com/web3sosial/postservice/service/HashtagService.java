@@ -0,0 +1,57 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.entity.Post;
+import com.web3sosial.postservice.repository.PostHashtagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hashtag → post posting list backing tag pages. Rows are written in the post's
+ * transaction and carry the post's createdAt, so a tag page is one keyset range read.
+ */
+@Service
+@RequiredArgsConstructor
+public class HashtagService {
+
+    private static final Locale AZ = Locale.forLanguageTag("az");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostHashtagRepository postHashtagRepository;
+
+    public void index(Post post, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(post.getCreatedAt());
+        List<Object[]> rows = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            rows.add(new Object[]{post.getId() + ":" + tag, tag, post.getId(), createdAt});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO post_hashtags (id, tag, post_id, created_at) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (id) DO NOTHING",
+                rows);
+    }
+
+    public List<PageCursor> read(String tag, PageCursor after, int limit) {
+        String normalized = normalize(tag);
+        Pageable page = PageRequest.of(0, limit);
+        return after == null
+                ? postHashtagRepository.findFirstPage(normalized, page)
+                : postHashtagRepository.findPageAfter(normalized, after.createdAt(), after.id(), page);
+    }
+
+    static String normalize(String tag) {
+        String trimmed = tag.startsWith("#") ? tag.substring(1) : tag;
+        return trimmed.toLowerCase(AZ);
+    }
+}
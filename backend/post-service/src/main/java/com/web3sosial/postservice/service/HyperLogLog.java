@@ -0,0 +1,242 @@
+package com.web3sosial.postservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter. Small sketches are kept sparse (sorted index/rank pairs)
+ * and switch to one register per bucket once that becomes smaller; serialized dense
+ * sketches pack registers into 6 bits. At the default precision of 13 the standard error
+ * is about 1.1% and the serialized size at most 6 KB. Not thread-safe.
+ */
+final class HyperLogLog {
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    private final int precision;
+    private final int registerCount;
+    // Sparse: (index << 8 | rank), index üzrə sıralı
+    private int[] sparse = new int[0];
+    private byte[] dense;
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+    }
+
+    void add(String value) {
+        addHash(hash64(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(index, rank);
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        if (other.dense != null) {
+            for (int i = 0; i < registerCount; i++) {
+                if (other.dense[i] != 0) {
+                    set(i, other.dense[i]);
+                }
+            }
+        } else {
+            for (int entry : other.sparse) {
+                set(entry >>> 8, entry & 0xFF);
+            }
+        }
+    }
+
+    long estimate() {
+        if (dense == null) {
+            // Az elementdə linear counting dəqiqdir
+            return Math.round(linearCounting(registerCount - sparse.length));
+        }
+        // Ertl (2017) təkmilləşdirilmiş estimator: keçid zonasında bias cədvəli tələb etmir
+        int maxRank = 64 - precision;
+        int[] histogram = new int[maxRank + 2];
+        for (byte register : dense) {
+            histogram[register]++;
+        }
+        double z = registerCount * tau(1.0 - (double) histogram[maxRank + 1] / registerCount);
+        for (int k = maxRank; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += registerCount * sigma((double) histogram[0] / registerCount);
+        return Math.round(registerCount / (2 * Math.log(2)) * registerCount / z);
+    }
+
+    byte[] toBytes() {
+        if (dense == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(2 + sparse.length * 3);
+            out.write(FORMAT_SPARSE);
+            out.write(precision);
+            int previousIndex = 0;
+            for (int entry : sparse) {
+                int index = entry >>> 8;
+                writeVarInt(out, index - previousIndex);
+                out.write(entry & 0xFF);
+                previousIndex = index;
+            }
+            return out.toByteArray();
+        }
+        byte[] packed = new byte[2 + (registerCount * 6 + 7) / 8];
+        packed[0] = FORMAT_DENSE;
+        packed[1] = (byte) precision;
+        for (int i = 0; i < registerCount; i++) {
+            int bit = i * 6;
+            int value = dense[i] & 0x3F;
+            int position = 2 + bit / 8;
+            int shift = bit % 8;
+            packed[position] |= (byte) (value << shift);
+            if (shift > 2) {
+                packed[position + 1] |= (byte) (value >>> (8 - shift));
+            }
+        }
+        return packed;
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte format = in.get();
+        HyperLogLog sketch = new HyperLogLog(in.get());
+        if (format == FORMAT_SPARSE) {
+            int index = 0;
+            while (in.hasRemaining()) {
+                index += readVarInt(in);
+                sketch.set(index, in.get() & 0xFF);
+            }
+        } else if (format == FORMAT_DENSE) {
+            for (int i = 0; i < sketch.registerCount; i++) {
+                int bit = i * 6;
+                int position = 2 + bit / 8;
+                int shift = bit % 8;
+                int value = (bytes[position] & 0xFF) >>> shift;
+                if (shift > 2) {
+                    value |= (bytes[position + 1] & 0xFF) << (8 - shift);
+                }
+                value &= 0x3F;
+                if (value != 0) {
+                    sketch.set(i, value);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown sketch format " + format);
+        }
+        return sketch;
+    }
+
+    private void set(int index, int rank) {
+        if (dense != null) {
+            if (rank > dense[index]) {
+                dense[index] = (byte) rank;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparse, index << 8);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        // binarySearch rank=0 ilə axtarır; eyni indeksli element varsa ondan sonra gəlir
+        if (position < sparse.length && (sparse[position] >>> 8) == index) {
+            if (rank > (sparse[position] & 0xFF)) {
+                sparse[position] = index << 8 | rank;
+            }
+            return;
+        }
+        int[] grown = new int[sparse.length + 1];
+        System.arraycopy(sparse, 0, grown, 0, position);
+        grown[position] = index << 8 | rank;
+        System.arraycopy(sparse, position, grown, position + 1, sparse.length - position);
+        sparse = grown;
+
+        // Sparse cüt başına ~4 bayt tutur; dense-dən böyük olanda keçirik
+        if (sparse.length * 4 > registerCount) {
+            dense = new byte[registerCount];
+            for (int entry : sparse) {
+                dense[entry >>> 8] = (byte) (entry & 0xFF);
+            }
+            sparse = null;
+        }
+    }
+
+    private double linearCounting(int zeros) {
+        return registerCount * Math.log((double) registerCount / zeros);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long hash64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
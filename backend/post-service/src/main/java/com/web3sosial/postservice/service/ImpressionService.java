@@ -0,0 +1,291 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.AuthorImpressionsDto;
+import com.web3sosial.postservice.entity.Post;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique impression counting with HyperLogLog. Each post, and each author per day, has a
+ * sketch of the viewers that saw it. Request threads only add to in-memory sketches; a
+ * scheduled flush merges them into the stored sketches under row locks, writes the merged
+ * bytes back and copies the post estimate into {@code posts.unique_views} so reads never
+ * decode a sketch. Stored sketches are a few KB at most whatever the audience size.
+ *
+ * <p>A flush only changes view counts, so cached posts on this replica are updated in
+ * place instead of being invalidated; other replicas pick the new count up when their
+ * entries expire.
+ */
+@Service
+@Slf4j
+public class ImpressionService {
+
+    private static final String INSERT_POST_SKETCH =
+            "INSERT INTO post_impressions (post_id, sketch, updated_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (post_id) DO NOTHING";
+    private static final String LOCK_POST_SKETCHES =
+            "SELECT post_id, sketch FROM post_impressions WHERE post_id IN (:postIds) ORDER BY post_id FOR UPDATE";
+    private static final String UPDATE_POST_SKETCH =
+            "UPDATE post_impressions SET sketch = ?, updated_at = now() WHERE post_id = ?";
+    private static final String UPDATE_POST_VIEWS =
+            "UPDATE posts SET unique_views = ? WHERE id = ? AND created_at = ?";
+
+    private static final String INSERT_AUTHOR_SKETCH =
+            "INSERT INTO author_daily_impressions (author_address, day, sketch, updated_at) VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (author_address, day) DO NOTHING";
+    private static final String LOCK_AUTHOR_SKETCH =
+            "SELECT sketch FROM author_daily_impressions WHERE author_address = ? AND day = ? FOR UPDATE";
+    private static final String UPDATE_AUTHOR_SKETCH =
+            "UPDATE author_daily_impressions SET sketch = ?, updated_at = now() WHERE author_address = ? AND day = ?";
+    private static final String READ_AUTHOR_SKETCHES =
+            "SELECT day, sketch FROM author_daily_impressions WHERE author_address = ? AND day >= ?";
+
+    private final PostCacheService postCacheService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int precision;
+    private final int flushBatchSize;
+    private final int maxDays;
+
+    // Yazılar ConcurrentHashMap.compute daxilində olur; flush sketch-i remove ilə götürür
+    private final Map<String, HyperLogLog> pendingPosts = new ConcurrentHashMap<>();
+    private final Map<AuthorDay, HyperLogLog> pendingAuthors = new ConcurrentHashMap<>();
+
+    private final Counter impressionsRecorded;
+    private final Timer flushTimer;
+
+    public ImpressionService(PostCacheService postCacheService,
+                             JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${impressions.precision:13}") int precision,
+                             @Value("${impressions.flush-batch-size:500}") int flushBatchSize,
+                             @Value("${impressions.max-days:90}") int maxDays) {
+        this.postCacheService = postCacheService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.precision = precision;
+        this.flushBatchSize = flushBatchSize;
+        this.maxDays = maxDays;
+        // Yanlış precision ilk impression-da deyil, startda xəta versin
+        new HyperLogLog(precision);
+
+        this.impressionsRecorded = Counter.builder("impressions.recorded").register(meterRegistry);
+        this.flushTimer = Timer.builder("impressions.flush").register(meterRegistry);
+        meterRegistry.gaugeMapSize("impressions.pending", List.of(), pendingPosts);
+    }
+
+    /**
+     * Records that {@code viewer} saw each of {@code postIds}. Unknown or deleted posts and
+     * the author's own views are ignored.
+     */
+    public void record(String viewer, Collection<String> postIds) {
+        long viewerHash = HyperLogLog.hash64(viewer.getBytes(StandardCharsets.UTF_8));
+        LocalDate today = LocalDate.now();
+        Map<String, Post> posts = postCacheService.getAll(postIds.stream().distinct().toList());
+        for (Post post : posts.values()) {
+            if (Boolean.TRUE.equals(post.getIsDeleted()) || viewer.equals(post.getWalletAddress())) {
+                continue;
+            }
+            add(pendingPosts, post.getId(), viewerHash);
+            add(pendingAuthors, new AuthorDay(post.getWalletAddress(), today), viewerHash);
+            impressionsRecorded.increment();
+        }
+    }
+
+    /**
+     * Unique viewers of the author's posts for each of the last {@code days} days, plus the
+     * union over the whole range.
+     */
+    public AuthorImpressionsDto getAuthorImpressions(String walletAddress, int days) {
+        int range = Math.max(1, Math.min(days, maxDays));
+        LocalDate from = LocalDate.now().minusDays(range - 1L);
+
+        Map<LocalDate, HyperLogLog> sketches = new TreeMap<>();
+        jdbcTemplate.query(READ_AUTHOR_SKETCHES, rs -> {
+            sketches.put(rs.getDate("day").toLocalDate(), HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        }, walletAddress, Date.valueOf(from));
+        // Hələ flush olunmamış baxışlar da daxil edilir
+        for (LocalDate day = from; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            HyperLogLog local = snapshot(pendingAuthors, new AuthorDay(walletAddress, day));
+            if (local != null) {
+                sketches.merge(day, local, ImpressionService::union);
+            }
+        }
+
+        Map<LocalDate, Long> daily = new TreeMap<>();
+        HyperLogLog total = new HyperLogLog(precision);
+        sketches.forEach((day, sketch) -> {
+            daily.put(day, sketch.estimate());
+            total.merge(sketch);
+        });
+        return AuthorImpressionsDto.builder()
+                .walletAddress(walletAddress)
+                .daily(daily)
+                .uniqueViewers(total.estimate())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${impressions.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<String, HyperLogLog> posts = drain(pendingPosts, Comparator.naturalOrder());
+        Map<AuthorDay, HyperLogLog> authors = drain(pendingAuthors,
+                Comparator.comparing(AuthorDay::authorAddress).thenComparing(AuthorDay::day));
+        if (posts.isEmpty() && authors.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            flushPosts(posts);
+            flushAuthors(authors);
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushPosts(Map<String, HyperLogLog> drained) {
+        List<String> ids = new ArrayList<>(drained.keySet());
+        for (int start = 0; start < ids.size(); start += flushBatchSize) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + flushBatchSize));
+            try {
+                // created_at tranzaksiyadan əvvəl: UPDATE yalnız postun öz partition-una toxunsun
+                Map<String, Post> posts = postCacheService.getAll(chunk);
+                Map<String, Long> views = transactionTemplate.execute(status -> mergePostChunk(chunk, posts, drained));
+                postCacheService.updateUniqueViews(views);
+            } catch (DataAccessException e) {
+                log.warn("Impression flush of {} posts failed, retrying next cycle: {}", chunk.size(), e.getMessage());
+                chunk.forEach(id -> pendingPosts.merge(id, drained.get(id), ImpressionService::union));
+            }
+        }
+    }
+
+    private Map<String, Long> mergePostChunk(List<String> chunk, Map<String, Post> posts,
+                                             Map<String, HyperLogLog> drained) {
+        // Boş sətir əvvəlcə yaradılır ki, paralel flush-lar eyni sətri FOR UPDATE ilə kilidləsin
+        byte[] empty = new HyperLogLog(precision).toBytes();
+        jdbcTemplate.batchUpdate(INSERT_POST_SKETCH, chunk.stream()
+                .map(id -> new Object[]{id, empty})
+                .toList());
+
+        Map<String, HyperLogLog> merged = new HashMap<>();
+        namedParameterJdbcTemplate.query(LOCK_POST_SKETCHES, Map.of("postIds", chunk), rs -> {
+            merged.put(rs.getString("post_id"), HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        });
+
+        List<Object[]> sketchRows = new ArrayList<>(chunk.size());
+        List<Object[]> viewRows = new ArrayList<>(chunk.size());
+        Map<String, Long> views = new HashMap<>();
+        for (String id : chunk) {
+            HyperLogLog sketch = merged.computeIfAbsent(id, k -> new HyperLogLog(precision));
+            sketch.merge(drained.get(id));
+            long estimate = sketch.estimate();
+            sketchRows.add(new Object[]{sketch.toBytes(), id});
+            views.put(id, estimate);
+            Post post = posts.get(id);
+            // Silinmiş postun sətri yoxdur, yalnız sketch saxlanır
+            if (post != null && post.getCreatedAt() != null) {
+                viewRows.add(new Object[]{estimate, id, Timestamp.valueOf(post.getCreatedAt())});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPDATE_POST_SKETCH, sketchRows);
+        jdbcTemplate.batchUpdate(UPDATE_POST_VIEWS, viewRows);
+        return views;
+    }
+
+    private void flushAuthors(Map<AuthorDay, HyperLogLog> drained) {
+        List<AuthorDay> keys = new ArrayList<>(drained.keySet());
+        for (int start = 0; start < keys.size(); start += flushBatchSize) {
+            List<AuthorDay> chunk = keys.subList(start, Math.min(keys.size(), start + flushBatchSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeAuthorChunk(chunk, drained));
+            } catch (DataAccessException e) {
+                log.warn("Impression flush of {} author days failed, retrying next cycle: {}", chunk.size(), e.getMessage());
+                chunk.forEach(key -> pendingAuthors.merge(key, drained.get(key), ImpressionService::union));
+            }
+        }
+    }
+
+    private void mergeAuthorChunk(List<AuthorDay> chunk, Map<AuthorDay, HyperLogLog> drained) {
+        byte[] empty = new HyperLogLog(precision).toBytes();
+        jdbcTemplate.batchUpdate(INSERT_AUTHOR_SKETCH, chunk.stream()
+                .map(key -> new Object[]{key.authorAddress(), Date.valueOf(key.day()), empty})
+                .toList());
+
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (AuthorDay key : chunk) {
+            byte[] stored = jdbcTemplate.queryForObject(LOCK_AUTHOR_SKETCH, byte[].class,
+                    key.authorAddress(), Date.valueOf(key.day()));
+            HyperLogLog sketch = HyperLogLog.fromBytes(stored);
+            sketch.merge(drained.get(key));
+            rows.add(new Object[]{sketch.toBytes(), key.authorAddress(), Date.valueOf(key.day())});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_AUTHOR_SKETCH, rows);
+    }
+
+    private <K> void add(Map<K, HyperLogLog> pending, K key, long hash) {
+        pending.compute(key, (k, sketch) -> {
+            HyperLogLog target = sketch == null ? new HyperLogLog(precision) : sketch;
+            target.addHash(hash);
+            return target;
+        });
+    }
+
+    private <K> HyperLogLog snapshot(Map<K, HyperLogLog> pending, K key) {
+        HyperLogLog[] copy = new HyperLogLog[1];
+        pending.computeIfPresent(key, (k, sketch) -> {
+            copy[0] = new HyperLogLog(precision);
+            copy[0].merge(sketch);
+            return sketch;
+        });
+        return copy[0];
+    }
+
+    // Sıralı açarlar: replikalar arasında sətir kilidləri eyni ardıcıllıqla alınır
+    private static <K> Map<K, HyperLogLog> drain(Map<K, HyperLogLog> pending, Comparator<K> order) {
+        Map<K, HyperLogLog> drained = new TreeMap<>(order);
+        for (K key : pending.keySet()) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch != null) {
+                drained.put(key, sketch);
+            }
+        }
+        return drained;
+    }
+
+    private static HyperLogLog union(HyperLogLog left, HyperLogLog right) {
+        left.merge(right);
+        return left;
+    }
+
+    private record AuthorDay(String authorAddress, LocalDate day) {
+    }
+}
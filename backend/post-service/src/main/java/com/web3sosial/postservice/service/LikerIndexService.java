@@ -0,0 +1,163 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.LikeEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-post liker sets as compressed bitmaps over dense wallet ids. Rebuilt from the
+ * {@code likes} table at startup and kept current from {@code like-events}, which every
+ * replica consumes from the moment this bean was created; the rebuild starts later and
+ * covers everything before it. Until the rebuild finishes callers fall back to the database.
+ * {@link #recordLike} must run inside the transaction that writes the like row; the local
+ * index only changes once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LikerIndexService {
+
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxService outboxService;
+
+    private final Map<String, Integer> walletIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextWalletId = new AtomicInteger();
+    private final Map<String, RoaringBitmap> likers = new ConcurrentHashMap<>();
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    // Rebuild gedərkən gələn hadisələr, skan bitəndən sonra ardıcıl tətbiq olunur
+    private final List<LikeEvent> bufferedEvents = new ArrayList<>();
+    private volatile boolean ready;
+
+    /** Like events from this time on are replayed from {@code like-events}. */
+    public long replayFromMillis() {
+        return createdAtMillis;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isLiked(String postId, String walletAddress) {
+        RoaringBitmap bitmap = likers.get(postId);
+        Integer walletId = walletIds.get(walletAddress);
+        if (bitmap == null || walletId == null) {
+            return false;
+        }
+        synchronized (bitmap) {
+            return bitmap.contains(walletId);
+        }
+    }
+
+    /** {@code likedAt} is the removed like's creation time on an unlike, null on a like. */
+    public void recordLike(String postId, String authorAddress, String walletAddress, boolean liked,
+                           LocalDateTime likedAt) {
+        LikeEvent event = LikeEvent.builder()
+                .postId(postId)
+                .authorAddress(authorAddress)
+                .walletAddress(walletAddress)
+                .liked(liked)
+                .likedAtMillis(likedAt == null ? null : Timestamp.valueOf(likedAt).getTime())
+                .build();
+        outboxService.enqueue("like-events", postId, event);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(event);
+            }
+        });
+    }
+
+    public void apply(LikeEvent event) {
+        if (!ready) {
+            synchronized (bufferedEvents) {
+                if (!ready) {
+                    bufferedEvents.add(event);
+                    return;
+                }
+            }
+        }
+        set(event.getPostId(), event.getWalletAddress(), Boolean.TRUE.equals(event.getLiked()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread rebuild = new Thread(this::rebuild, "liker-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    void rebuild() {
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        String lastId = "";
+        try {
+            while (true) {
+                List<String[]> page = jdbcTemplate.query(
+                        "SELECT id, post_id, wallet_address FROM likes WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, i) -> new String[]{rs.getString(1), rs.getString(2), rs.getString(3)},
+                        lastId, REBUILD_PAGE_SIZE);
+                for (String[] row : page) {
+                    set(row[1], row[2], true);
+                }
+                rows += page.size();
+                if (page.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1)[0];
+            }
+        } catch (RuntimeException e) {
+            log.error("Liker index rebuild failed after {} rows, staying on database lookups", rows, e);
+            return;
+        }
+
+        likers.values().forEach(bitmap -> {
+            synchronized (bitmap) {
+                bitmap.runOptimize();
+            }
+        });
+
+        synchronized (bufferedEvents) {
+            bufferedEvents.forEach(e -> set(e.getPostId(), e.getWalletAddress(), Boolean.TRUE.equals(e.getLiked())));
+            bufferedEvents.clear();
+            ready = true;
+        }
+        log.info("Liker index rebuilt from {} likes ({} posts, {} wallets) in {} ms",
+                rows, likers.size(), walletIds.size(), System.currentTimeMillis() - started);
+    }
+
+    private void set(String postId, String walletAddress, boolean liked) {
+        if (liked) {
+            int walletId = walletIds.computeIfAbsent(walletAddress, k -> nextWalletId.getAndIncrement());
+            RoaringBitmap bitmap = likers.computeIfAbsent(postId, k -> new RoaringBitmap());
+            synchronized (bitmap) {
+                bitmap.add(walletId);
+            }
+        } else {
+            RoaringBitmap bitmap = likers.get(postId);
+            Integer walletId = walletIds.get(walletAddress);
+            if (bitmap != null && walletId != null) {
+                synchronized (bitmap) {
+                    bitmap.remove(walletId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.web3sosial.postservice.service;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable segment file read through a memory mapping. Layout:
+ * <pre>
+ * magic, version
+ * docCount, { docId, createdAtMillis, length, postId }*
+ * termCount, { term, postingsCount, { docId, tf }* }*
+ * </pre>
+ * The term dictionary is decoded onto the heap when the segment is opened; postings stay
+ * in the mapping and are read in place, so resident memory follows the query mix.
+ */
+final class MappedSearchSegment implements SearchSegment {
+
+    private static final int MAGIC = 0x50535347;
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int[] docIds;
+    private final String[] terms;
+    private final int[] postingOffsets;
+    private final int[] postingCounts;
+
+    private MappedSearchSegment(Path path, MappedByteBuffer buffer, int[] docIds,
+                                String[] terms, int[] postingOffsets, int[] postingCounts) {
+        this.path = path;
+        this.buffer = buffer;
+        this.docIds = docIds;
+        this.terms = terms;
+        this.postingOffsets = postingOffsets;
+        this.postingCounts = postingCounts;
+    }
+
+    /**
+     * Maps {@code path} and registers its docs in {@code docs} when one is given.
+     */
+    static MappedSearchSegment open(Path path, SearchDocTable docs) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            ByteBuffer in = mapped.duplicate();
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a search segment: " + path);
+            }
+            int docCount = in.getInt();
+            int[] docIds = new int[docCount];
+            for (int i = 0; i < docCount; i++) {
+                int docId = in.getInt();
+                long createdAt = in.getLong();
+                int length = in.getInt();
+                String postId = readString(in);
+                docIds[i] = docId;
+                if (docs != null) {
+                    docs.register(docId, postId, createdAt, length);
+                }
+            }
+            int termCount = in.getInt();
+            String[] terms = new String[termCount];
+            int[] offsets = new int[termCount];
+            int[] counts = new int[termCount];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = readString(in);
+                counts[i] = in.getInt();
+                offsets[i] = in.position();
+                in.position(in.position() + counts[i] * 8);
+            }
+            return new MappedSearchSegment(path, mapped, docIds, terms, offsets, counts);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt search segment: " + path, e);
+        }
+    }
+
+    /**
+     * Writes {@code source} to {@code path}, leaving out docs in {@code excluded}. The file
+     * is written next to the target and moved into place, so readers never see a partial
+     * segment.
+     */
+    static void write(Path path, SearchSegment source, RoaringBitmap excluded, SearchDocTable docs) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            int[] kept = Arrays.stream(source.docIds()).filter(docId -> !excluded.contains(docId)).toArray();
+            out.writeInt(kept.length);
+            for (int docId : kept) {
+                out.writeInt(docId);
+                out.writeLong(docs.createdAt(docId));
+                out.writeInt(docs.length(docId));
+                writeString(out, docs.postId(docId));
+            }
+
+            // Əvvəlcə silinməmiş postinq sayları hesablanır, çünki say postinqlərdən qabaq yazılır
+            List<String> keptTerms = new ArrayList<>();
+            List<Integer> keptCounts = new ArrayList<>();
+            for (String term : source.terms()) {
+                int[] count = new int[1];
+                source.forEachPosting(term, (docId, tf) -> {
+                    if (!excluded.contains(docId)) {
+                        count[0]++;
+                    }
+                });
+                if (count[0] > 0) {
+                    keptTerms.add(term);
+                    keptCounts.add(count[0]);
+                }
+            }
+
+            out.writeInt(keptTerms.size());
+            for (int i = 0; i < keptTerms.size(); i++) {
+                String term = keptTerms.get(i);
+                writeString(out, term);
+                out.writeInt(keptCounts.get(i));
+                IOException[] failure = new IOException[1];
+                source.forEachPosting(term, (docId, tf) -> {
+                    if (failure[0] != null || excluded.contains(docId)) {
+                        return;
+                    }
+                    try {
+                        out.writeInt(docId);
+                        out.writeInt(tf);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public int docFrequency(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index < 0 ? 0 : postingCounts[index];
+    }
+
+    @Override
+    public void forEachPosting(String term, PostingVisitor visitor) {
+        int index = Arrays.binarySearch(terms, term);
+        if (index < 0) {
+            return;
+        }
+        int position = postingOffsets[index];
+        int end = position + postingCounts[index] * 8;
+        // Mütləq indeksli oxuma: paralel axtarışlar buffer mövqeyini paylaşmır
+        for (; position < end; position += 8) {
+            visitor.visit(buffer.getInt(position), buffer.getInt(position + 4));
+        }
+    }
+
+    @Override
+    public void collectTermsWithPrefix(String prefix, Collection<String> out) {
+        int index = Arrays.binarySearch(terms, prefix);
+        for (int i = index < 0 ? -index - 1 : index; i < terms.length && terms[i].startsWith(prefix); i++) {
+            out.add(terms[i]);
+        }
+    }
+
+    @Override
+    public Iterable<String> terms() {
+        return Arrays.asList(terms);
+    }
+
+    @Override
+    public int[] docIds() {
+        return docIds.clone();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.web3sosial.postservice.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mutable in-heap segment that receives newly indexed posts until it is frozen and
+ * written out as a {@link MappedSearchSegment}.
+ */
+final class MemorySearchSegment implements SearchSegment {
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private int[] docIds = new int[64];
+    private int docCount;
+
+    void add(int docId, Map<String, Integer> termFrequencies) {
+        if (docCount == docIds.length) {
+            docIds = Arrays.copyOf(docIds, docCount * 2);
+        }
+        docIds[docCount++] = docId;
+        termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Postings()).add(docId, tf));
+    }
+
+    int size() {
+        return docCount;
+    }
+
+    boolean isEmpty() {
+        return docCount == 0;
+    }
+
+    @Override
+    public int docFrequency(String term) {
+        Postings list = postings.get(term);
+        return list == null ? 0 : list.size / 2;
+    }
+
+    @Override
+    public void forEachPosting(String term, PostingVisitor visitor) {
+        Postings list = postings.get(term);
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.size; i += 2) {
+            visitor.visit(list.data[i], list.data[i + 1]);
+        }
+    }
+
+    @Override
+    public void collectTermsWithPrefix(String prefix, Collection<String> out) {
+        for (String term : postings.tailMap(prefix, true).keySet()) {
+            if (!term.startsWith(prefix)) {
+                break;
+            }
+            out.add(term);
+        }
+    }
+
+    @Override
+    public Iterable<String> terms() {
+        return postings.keySet();
+    }
+
+    @Override
+    public int[] docIds() {
+        return Arrays.copyOf(docIds, docCount);
+    }
+
+    private static final class Postings {
+        // docId, tf cütləri ardıcıl saxlanılır
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int docId, int termFrequency) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = docId;
+            data[size++] = termFrequency;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.web3sosial.postservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * MinHash signature of the set of normalized search tokens in a post. The fraction of
+ * equal components of two signatures estimates the Jaccard similarity of their token
+ * sets, so a copy with a word or two changed, reordered or re-punctuated stays close
+ * while unrelated posts share almost nothing.
+ */
+final class MinHash {
+
+    static final int SIZE = 32;
+
+    private static final long[] SEEDS = new long[SIZE];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /** Signature of {@code text}, or {@code null} when it has fewer than {@code minTokens} distinct tokens. */
+    static int[] of(String text, int minTokens) {
+        Set<String> tokens = new HashSet<>(SearchTokenizer.tokenize(text));
+        if (tokens.size() < minTokens) {
+            return null;
+        }
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String token : tokens) {
+            long base = HyperLogLog.hash64(token.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < SIZE; i++) {
+                // Hər komponent ayrı hash funksiyasıdır: baza hash-i seed ilə qarışdırılır
+                int value = (int) (mix(base ^ SEEDS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b, int bOffset) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] == b[bOffset + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIZE;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,139 @@
+package com.web3sosial.postservice.service;
+
+/**
+ * Locality-sensitive index of recent {@link MinHash} signatures. Signatures are cut into
+ * ten bands of three components and every band is hashed onto a chain; a lookup only
+ * reads the entries that share a whole band with the query and then checks the full
+ * signature. A pair with Jaccard similarity s becomes a candidate with probability
+ * {@code 1 - (1 - s^3)^10}: about 0.91 at 0.6 and 0.99 at 0.7, against 0.24 at 0.3.
+ * The last two components only take part in the full check.
+ *
+ * <p>Entries live in a ring of fixed capacity and chains link by sequence number, newest
+ * first. An overwritten slot no longer carries the sequence a link points to, and since
+ * everything further down a chain is older it has been overwritten too, so expiry needs
+ * no unlinking. Timestamps, unlike sequences, are not ordered along a chain (replayed and
+ * live entries interleave), so an entry past the cutoff is skipped rather than ending the
+ * walk. Not thread-safe.
+ */
+final class NearDuplicateIndex {
+
+    private static final int BANDS = 10;
+    private static final int ROWS = MinHash.SIZE / BANDS;
+    private static final int HEAD_BITS = 16;
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final long[] sequences;
+    private final int[] signatures;
+    private final long[] timestamps;
+    private final long[] walletHashes;
+    private final long[] postHashes;
+    private final long[][] nextInBand;
+    private final long[][] heads = new long[BANDS][1 << HEAD_BITS];
+    private long lastSequence;
+
+    NearDuplicateIndex(int capacity) {
+        this.capacity = capacity;
+        this.sequences = new long[capacity];
+        this.signatures = new int[capacity * MinHash.SIZE];
+        this.timestamps = new long[capacity];
+        this.walletHashes = new long[capacity];
+        this.postHashes = new long[capacity];
+        this.nextInBand = new long[BANDS][capacity];
+    }
+
+    long add(int[] signature, long walletHash, long postHash, long timestampMillis) {
+        long sequence = ++lastSequence;
+        int slot = slot(sequence);
+        sequences[slot] = sequence;
+        System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+        timestamps[slot] = timestampMillis;
+        walletHashes[slot] = walletHash;
+        postHashes[slot] = postHash;
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signature, band);
+            nextInBand[band][slot] = heads[band][key];
+            heads[band][key] = sequence;
+        }
+        return sequence;
+    }
+
+    void setPostHash(long sequence, long postHash) {
+        int slot = slot(sequence);
+        if (sequences[slot] == sequence) {
+            postHashes[slot] = postHash;
+        }
+    }
+
+    /** Hides an entry from lookups; its chain links stay in place for older entries. */
+    void remove(long sequence) {
+        int slot = slot(sequence);
+        if (sequences[slot] == sequence) {
+            timestamps[slot] = REMOVED;
+        }
+    }
+
+    /**
+     * Visits entries newer than {@code cutoffMillis} whose estimated similarity to
+     * {@code signature} is at least {@code minSimilarity}, each at most once, reading at
+     * most {@code maxVisits} chain links.
+     */
+    void forEachMatch(int[] signature, double minSimilarity, long cutoffMillis, int maxVisits, MatchVisitor visitor) {
+        int visits = 0;
+        for (int band = 0; band < BANDS; band++) {
+            long sequence = heads[band][bandKey(signature, band)];
+            while (isLive(sequence) && visits++ < maxVisits) {
+                int slot = slot(sequence);
+                // Silinmiş və köhnə girişlər atlanır; zəncirin davamında daha yeni vaxtlı giriş ola bilər
+                if (timestamps[slot] == REMOVED || timestamps[slot] < cutoffMillis) {
+                    sequence = nextInBand[band][slot];
+                    continue;
+                }
+                int offset = slot * MinHash.SIZE;
+                // Eyni giriş bir neçə zəncirdə ola bilər; yalnız ilk tam üst-üstə düşən band-da sayılır
+                if (firstEqualBand(signature, offset) == band) {
+                    double similarity = MinHash.similarity(signature, signatures, offset);
+                    if (similarity >= minSimilarity) {
+                        visitor.visit(walletHashes[slot], postHashes[slot], similarity);
+                    }
+                }
+                sequence = nextInBand[band][slot];
+            }
+        }
+    }
+
+    private boolean isLive(long sequence) {
+        return sequence != 0 && sequences[slot(sequence)] == sequence;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private int firstEqualBand(int[] signature, int offset) {
+        for (int band = 0; band < BANDS; band++) {
+            boolean equal = true;
+            for (int row = band * ROWS; row < (band + 1) * ROWS && equal; row++) {
+                equal = signature[row] == signatures[offset + row];
+            }
+            if (equal) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private static int bandKey(int[] signature, int band) {
+        int hash = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = hash * 0x01000193 ^ signature[row];
+        }
+        hash ^= hash >>> HEAD_BITS;
+        return hash & ((1 << HEAD_BITS) - 1);
+    }
+
+    @FunctionalInterface
+    interface MatchVisitor {
+        void visit(long walletHash, long postHash, double similarity);
+    }
+}
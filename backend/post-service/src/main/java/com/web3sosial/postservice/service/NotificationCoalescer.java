@@ -0,0 +1,103 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.NotificationEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges LIKE/COMMENT notifications for the same (recipient, post, type) into one event
+ * carrying a count and a sample of senders. Each such outbox row is stored with its
+ * {@link #groupKey}; {@link OutboxRelay} holds a group until its oldest row is
+ * {@code notifications.coalesce.window-ms} old and then relays the whole group at once, so
+ * everything that arrived within the window collapses into one message. The aggregate
+ * takes the place of the first event of its group.
+ */
+@Component
+public class NotificationCoalescer {
+
+    static final String NOTIFICATIONS_TOPIC = "notifications";
+    private static final Set<String> COALESCED_TYPES = Set.of("LIKE", "COMMENT");
+
+    @Value("${notifications.coalesce.sample-size:3}")
+    private int sampleSize;
+
+    public List<OutboxMessage> coalesce(List<OutboxMessage> messages) {
+        List<OutboxMessage> result = new ArrayList<>(messages.size());
+        Map<String, Integer> groupSlots = new HashMap<>();
+        Map<String, List<NotificationEvent>> groups = new HashMap<>();
+
+        for (OutboxMessage message : messages) {
+            String groupKey = groupKey(message.topic(), message.event());
+            if (groupKey == null) {
+                result.add(message);
+                continue;
+            }
+
+            NotificationEvent event = (NotificationEvent) message.event();
+            List<NotificationEvent> group = groups.get(groupKey);
+            if (group == null) {
+                groupSlots.put(groupKey, result.size());
+                groups.put(groupKey, new ArrayList<>(List.of(event)));
+                result.add(message);
+            } else {
+                group.add(event);
+            }
+        }
+
+        groups.forEach((groupKey, group) -> {
+            if (group.size() > 1) {
+                int slot = groupSlots.get(groupKey);
+                OutboxMessage first = result.get(slot);
+                result.set(slot, new OutboxMessage(first.topic(), first.key(), merge(group)));
+            }
+        });
+        return result;
+    }
+
+    /** Group of an outbox event that may be merged with others, or null if it is sent as is. */
+    static String groupKey(String topic, Object event) {
+        if (!NOTIFICATIONS_TOPIC.equals(topic)
+                || !(event instanceof NotificationEvent notification)
+                || !COALESCED_TYPES.contains(notification.getType())) {
+            return null;
+        }
+        return notification.getRecipientAddress() + '|' + notification.getReferenceId() + '|' + notification.getType();
+    }
+
+    private NotificationEvent merge(List<NotificationEvent> group) {
+        NotificationEvent first = group.get(0);
+        Set<String> senders = new LinkedHashSet<>();
+        int count = 0;
+        for (NotificationEvent event : group) {
+            count += event.getCount() == null ? 1 : event.getCount();
+            if (event.getSampleSenders() != null) {
+                senders.addAll(event.getSampleSenders());
+            } else {
+                senders.add(event.getSenderAddress());
+            }
+        }
+
+        int others = senders.size() - 1;
+        String action = "LIKE".equals(first.getType()) ? "postunu bəyəndi" : "postuna şərh yazdı";
+        String message = others > 0
+                ? first.getSenderAddress() + " və daha " + others + " nəfər " + action
+                : first.getSenderAddress() + " " + action;
+
+        return NotificationEvent.builder()
+                .recipientAddress(first.getRecipientAddress())
+                .senderAddress(first.getSenderAddress())
+                .type(first.getType())
+                .referenceId(first.getReferenceId())
+                .message(message)
+                .count(count)
+                .sampleSenders(senders.stream().limit(sampleSize).toList())
+                .build();
+    }
+}
@@ -0,0 +1,4 @@
+package com.web3sosial.postservice.service;
+
+record OutboxMessage(String topic, String key, Object event) {
+}
@@ -0,0 +1,160 @@
+package com.web3sosial.postservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@code outbox_events} in id order and publishes each batch before deleting it.
+ * A single relay is active across replicas, which preserves per-aggregate ordering;
+ * delivery is at-least-once.
+ *
+ * <p>Reading, sending and deleting are separate short statements, so no connection, row
+ * lock or advisory lock is held while Kafka acknowledges. Instead the relay holds a lease
+ * in {@code outbox_relay_lease}, renewed every cycle for three send timeouts; another
+ * replica takes over only after it expires, by which time any send of the old holder has
+ * timed out. Rows with a coalesce key
+ * wait until the oldest row of their group is past the coalescing window and then go out
+ * together, merged by {@link NotificationCoalescer}.
+ *
+ * <p>A group is relayed in the position of its first row and is never split between
+ * batches, so a batch can run over {@code outbox.relay.batch-size} by the size of its last
+ * groups. While a group is held, later rows with the same topic and key are held with it,
+ * so nothing overtakes it on its partition.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final String ACQUIRE_LEASE =
+            "UPDATE outbox_relay_lease SET holder = ?, expires_at = now() + ? * interval '1 millisecond' " +
+            "WHERE id = 1 AND (holder = ? OR expires_at < now())";
+
+    // anchor: qrupun ilk sətrinin id-si (qrupsuz sətirdə öz id-si); batch anchor-lara görə kəsilir
+    private static final String SELECT_BATCH =
+            "WITH groups AS (" +
+            "SELECT coalesce_key, min(id) AS anchor, min(created_at) AS first_at FROM outbox_events " +
+            "WHERE coalesce_key IS NOT NULL GROUP BY coalesce_key), " +
+            "pending AS (" +
+            "SELECT o.id, o.topic, o.aggregate_key, o.event_type, o.payload, " +
+            "COALESCE(g.anchor, o.id) AS anchor, g.first_at " +
+            "FROM outbox_events o LEFT JOIN groups g ON g.coalesce_key = o.coalesce_key), " +
+            "held AS (" +
+            "SELECT topic, aggregate_key, min(anchor) AS first_held FROM pending " +
+            "WHERE first_at > ? GROUP BY topic, aggregate_key), " +
+            "eligible AS (" +
+            "SELECT p.* FROM pending p LEFT JOIN held h ON h.topic = p.topic AND h.aggregate_key = p.aggregate_key " +
+            "WHERE (p.first_at IS NULL OR p.first_at <= ?) AND (h.first_held IS NULL OR p.anchor < h.first_held)), " +
+            "anchors AS (SELECT DISTINCT anchor FROM eligible ORDER BY anchor LIMIT ?) " +
+            "SELECT e.id, e.topic, e.aggregate_key, e.event_type, e.payload " +
+            "FROM eligible e JOIN anchors a ON a.anchor = e.anchor ORDER BY e.anchor, e.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final KafkaTemplate<String, Object> outboxKafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final NotificationCoalescer notificationCoalescer;
+    private final String holder = UUID.randomUUID().toString();
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    @Value("${notifications.coalesce.window-ms:2000}")
+    private long coalesceWindowMillis;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms:200}")
+    public void relay() {
+        if (jdbcTemplate.update(ACQUIRE_LEASE, holder, 3 * sendTimeoutMillis, holder) != 1) {
+            return;
+        }
+
+        // Qrup ən köhnə sətri pəncərəni keçənə qədər gözləyir, sonra pəncərədə gələnlərin hamısı birlikdə gedir
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(coalesceWindowMillis)));
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH,
+                (rs, i) -> new OutboxRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5)),
+                cutoff, cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<OutboxMessage> messages = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            ids.add(row.id());
+            Object event = deserialize(row);
+            if (event != null) {
+                messages.add(new OutboxMessage(row.topic(), row.aggregateKey(), event));
+            }
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(messages.size());
+        for (OutboxMessage message : notificationCoalescer.coalesce(messages)) {
+            sends.add(outboxKafkaTemplate.send(message.topic(), message.key(), message.event()));
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Outbox relay interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Sətirlər silinmir, növbəti dövrdə yenidən göndərilir
+            log.warn("Outbox relay of {} events failed: {}", rows.size(), e.getMessage());
+            throw new RuntimeException("Outbox relay failed", e);
+        }
+
+        namedParameterJdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+        log.debug("Relayed {} outbox events as {} messages", rows.size(), sends.size());
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        // Növbəti replika icarənin bitməsini gözləməsin
+        try {
+            jdbcTemplate.update("UPDATE outbox_relay_lease SET expires_at = to_timestamp(0) WHERE id = 1 AND holder = ?",
+                    holder);
+        } catch (DataAccessException e) {
+            log.debug("Outbox relay lease not released: {}", e.getMessage());
+        }
+    }
+
+    private Object deserialize(OutboxRow row) {
+        try {
+            return objectMapper.readValue(row.payload(), Class.forName(row.eventType()));
+        } catch (Exception e) {
+            // Oxunmayan sətir relay-i bloklamasın deyə atılır
+            log.error("Dropping unreadable outbox event {} ({})", row.id(), row.eventType(), e);
+            return null;
+        }
+    }
+
+    private record OutboxRow(long id, String topic, String aggregateKey, String eventType, String payload) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.web3sosial.postservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web3sosial.postservice.entity.OutboxEvent;
+import com.web3sosial.postservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transactional outbox: events are stored in the same transaction as the domain change
+ * and published later by {@link OutboxRelay}, so request threads never wait on Kafka.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox event", e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .aggregateKey(key)
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .coalesceKey(NotificationCoalescer.groupKey(topic, event))
+                .build());
+    }
+}
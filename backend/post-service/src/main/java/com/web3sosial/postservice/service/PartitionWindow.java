@@ -0,0 +1,53 @@
+package com.web3sosial.postservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a newest-first page from the month-partitioned posts table in consecutive,
+ * non-overlapping {@code [since, until)} windows aligned to partition boundaries: the
+ * month of the cursor first, then windows of 1, 2, 4, ... months further back, each asked
+ * only for the rows still missing. The planner prunes every window to its own partitions,
+ * no row is read twice, and reading stops once the oldest attached partition is covered,
+ * so a short page costs one bounded query per window rather than a full scan.
+ */
+@Component
+@RequiredArgsConstructor
+class PartitionWindow {
+
+    // Kursorsuz ilk səhifənin yuxarı sərhədi; kursorla sərhəd onun created_at-ıdır (daxil)
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final LocalDateTime UNBOUNDED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final PostPartitionMaintenance partitions;
+
+    @FunctionalInterface
+    interface Query<T> {
+        List<T> fetch(LocalDateTime since, LocalDateTime until, int limit);
+    }
+
+    <T> List<T> read(PageCursor after, int limit, Query<T> query) {
+        LocalDateTime until = after == null ? OPEN_END : after.createdAt().plusNanos(1_000);
+        LocalDate month = (after == null ? LocalDate.now() : after.createdAt().toLocalDate()).withDayOfMonth(1);
+        LocalDate oldest = partitions.oldestMonth();
+
+        List<T> rows = new ArrayList<>(limit);
+        int months = 1;
+        while (true) {
+            boolean last = oldest == null || !month.isAfter(oldest);
+            LocalDateTime since = last ? UNBOUNDED : month.atStartOfDay();
+            rows.addAll(query.fetch(since, until, limit - rows.size()));
+            if (last || rows.size() >= limit) {
+                return rows;
+            }
+            until = since;
+            month = month.minusMonths(months);
+            months *= 2;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.web3sosial.postservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.web3sosial.postservice.dto.PostCacheInvalidationEvent;
+import com.web3sosial.postservice.entity.Post;
+import com.web3sosial.postservice.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache of post rows. Entries are evicted by size and age, and
+ * explicitly whenever the row changes; invalidations are broadcast on
+ * {@code post-cache-invalidation} so every replica drops its copy.
+ */
+@Service
+public class PostCacheService {
+
+    private final PostRepository postRepository;
+    private final KafkaTemplate<String, PostCacheInvalidationEvent> cacheKafkaTemplate;
+    private final Cache<String, Post> cache;
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    public PostCacheService(PostRepository postRepository,
+                            KafkaTemplate<String, PostCacheInvalidationEvent> cacheKafkaTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${post-cache.maximum-size:100000}") long maximumSize,
+                            @Value("${post-cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        this.postRepository = postRepository;
+        this.cacheKafkaTemplate = cacheKafkaTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts");
+    }
+
+    /** The cache starts empty, so only invalidations from its creation on matter. */
+    public long replayFromMillis() {
+        return createdAtMillis;
+    }
+
+    public Optional<Post> get(String postId) {
+        Post cached = cache.getIfPresent(postId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Post> loaded = postRepository.findById(postId);
+        loaded.ifPresent(post -> cache.put(postId, post));
+        return loaded;
+    }
+
+    /**
+     * Multi-get: cached rows are served from memory and the rest are loaded with a single
+     * {@code IN (...)} query. Ids that do not exist are simply absent from the result.
+     */
+    public Map<String, Post> getAll(Collection<String> postIds) {
+        Map<String, Post> found = new HashMap<>(cache.getAllPresent(postIds));
+        List<String> misses = postIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        if (!misses.isEmpty()) {
+            for (Post post : postRepository.findAllById(misses)) {
+                cache.put(post.getId(), post);
+                found.put(post.getId(), post);
+            }
+        }
+        return found;
+    }
+
+    public void invalidate(String postId) {
+        invalidate(List.of(postId));
+    }
+
+    /**
+     * Drops the posts here and on every replica. Inside a transaction this waits for the
+     * commit, otherwise a read in between would cache the old row again.
+     */
+    public void invalidate(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(postIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(ids);
+                }
+            });
+        } else {
+            invalidateNow(ids);
+        }
+    }
+
+    private void invalidateNow(List<String> postIds) {
+        evictLocal(postIds);
+        cacheKafkaTemplate.send("post-cache-invalidation", PostCacheInvalidationEvent.builder()
+                .postIds(postIds)
+                .build());
+    }
+
+    /**
+     * Sets {@code uniqueViews} on the posts this replica has cached. View counts change on
+     * every impression flush, so they are not broadcast; other replicas see them once
+     * their entries expire.
+     */
+    public void updateUniqueViews(Map<String, Long> views) {
+        if (views == null) {
+            return;
+        }
+        views.forEach((postId, count) -> cache.asMap().computeIfPresent(postId, (id, post) -> {
+            post.setUniqueViews(count);
+            return post;
+        }));
+    }
+
+    public void evictLocal(Collection<String> postIds) {
+        if (postIds != null) {
+            cache.invalidateAll(postIds);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.entity.Post;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind like/comment counters. Request threads only add to per-post
+ * {@link LongAdder}s; a scheduled flush turns the accumulated deltas into one JDBC batch
+ * of {@code likes_count = likes_count + ?} updates, so no request ever rewrites the row.
+ *
+ * <p>Deltas live in a generation that the flush swaps out. Writers announce themselves
+ * on a striped counter of the generation they write to, and the flush waits for the
+ * old generation to go quiet before draining it, so no increment is ever lost. A
+ * drained delta leaves the pending view in the same step that hands it to the batch, so
+ * reads never count it twice; until the batch commits they may briefly miss it.
+ *
+ * <p>posts is partitioned by created_at, so rows whose post is known carry its created_at
+ * and the update touches a single partition; only posts the cache cannot resolve fall back
+ * to an id-only update.
+ *
+ * <p>Called inside a transaction, {@link #addLikes} and {@link #addComments} only take
+ * effect once it commits, so a rolled-back like or comment never reaches the counters.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterService {
+
+    private static final String FLUSH_SQL =
+            "UPDATE posts SET likes_count = COALESCE(likes_count, 0) + ?, " +
+            "comments_count = COALESCE(comments_count, 0) + ? WHERE id = ? AND created_at = ?";
+    private static final String FLUSH_BY_ID_SQL =
+            "UPDATE posts SET likes_count = COALESCE(likes_count, 0) + ?, " +
+            "comments_count = COALESCE(comments_count, 0) + ? WHERE id = ?";
+
+    private static final int WRITER_STRIPES = 64;
+    // Hər stripe ayrı cache line-da olsun deyə 8 long aralıq
+    private static final int STRIPE_PADDING = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCacheService postCacheService;
+
+    private volatile Generation active = new Generation();
+    private volatile Generation draining = new Generation();
+
+    public void addLikes(String postId, long delta) {
+        addAfterCommit(postId, delta, 0);
+    }
+
+    public void addComments(String postId, long delta) {
+        addAfterCommit(postId, 0, delta);
+    }
+
+    public int pendingLikes(String postId) {
+        return (int) pending(postId, 0);
+    }
+
+    public int pendingComments(String postId) {
+        return (int) pending(postId, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:500}")
+    public synchronized void flush() {
+        Generation old = active;
+        draining = old;
+        active = new Generation();
+        old.awaitQuiescence();
+
+        // Sıralı id-lər: replikalar arasında sətir kilidləri eyni ardıcıllıqla alınır
+        Map<String, long[]> drained = new TreeMap<>();
+        old.deltas.forEach((postId, delta) -> {
+            long likes = delta.likes.sum();
+            long comments = delta.comments.sum();
+            if (likes != 0 || comments != 0) {
+                drained.put(postId, new long[]{likes, comments});
+            }
+        });
+        // Delta pending-dən batch-a verildiyi anda çıxır: DB yazısı ilə birlikdə iki dəfə sayılmasın
+        draining = new Generation();
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Post> posts = postCacheService.getAll(drained.keySet());
+            List<Object[]> pruned = new ArrayList<>(drained.size());
+            List<Object[]> byId = new ArrayList<>();
+            drained.forEach((postId, d) -> {
+                Post post = posts.get(postId);
+                if (post != null && post.getCreatedAt() != null) {
+                    pruned.add(new Object[]{d[0], d[1], postId, Timestamp.valueOf(post.getCreatedAt())});
+                } else {
+                    byId.add(new Object[]{d[0], d[1], postId});
+                }
+            });
+            if (!pruned.isEmpty()) {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, pruned);
+            }
+            if (!byId.isEmpty()) {
+                jdbcTemplate.batchUpdate(FLUSH_BY_ID_SQL, byId);
+            }
+            // Keşdəki sətirlər köhnə sayğacları saxlayır, bütün replikalarda atılır
+            postCacheService.invalidate(drained.keySet());
+        } catch (DataAccessException e) {
+            log.warn("Counter flush of {} posts failed, retrying next cycle: {}", drained.size(), e.getMessage());
+            drained.forEach((postId, d) -> add(postId, d[0], d[1]));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void addAfterCommit(String postId, long likes, long comments) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(postId, likes, comments);
+                }
+            });
+        } else {
+            add(postId, likes, comments);
+        }
+    }
+
+    private void add(String postId, long likes, long comments) {
+        int stripe = (int) (Thread.currentThread().getId() & (WRITER_STRIPES - 1)) * STRIPE_PADDING;
+        while (true) {
+            Generation generation = active;
+            generation.writers.incrementAndGet(stripe);
+            try {
+                // Flush bu arada nəsli dəyişibsə, yenisinə yazırıq
+                if (generation != active) {
+                    continue;
+                }
+                Delta delta = generation.deltas.computeIfAbsent(postId, k -> new Delta());
+                delta.likes.add(likes);
+                delta.comments.add(comments);
+                return;
+            } finally {
+                generation.writers.decrementAndGet(stripe);
+            }
+        }
+    }
+
+    private long pending(String postId, int index) {
+        return active.pending(postId, index) + draining.pending(postId, index);
+    }
+
+    private static final class Generation {
+        final Map<String, Delta> deltas = new ConcurrentHashMap<>();
+        final AtomicLongArray writers = new AtomicLongArray(WRITER_STRIPES * STRIPE_PADDING);
+
+        long pending(String postId, int index) {
+            Delta delta = deltas.get(postId);
+            if (delta == null) return 0;
+            return index == 0 ? delta.likes.sum() : delta.comments.sum();
+        }
+
+        void awaitQuiescence() {
+            for (int stripe = 0; stripe < writers.length(); stripe += STRIPE_PADDING) {
+                while (writers.get(stripe) != 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    private static final class Delta {
+        final LongAdder likes = new LongAdder();
+        final LongAdder comments = new LongAdder();
+    }
+}
@@ -0,0 +1,63 @@
+package com.web3sosial.postservice.service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls #hashtags and @mentions out of post text. Tags are lower-cased with the
+ * Azerbaijani locale; a mention is either a wallet address ({@code @0x...}) or a username.
+ * Both are capped per post so a single post cannot fan out unbounded writes.
+ */
+final class PostEntityExtractor {
+
+    static final int MAX_HASHTAGS = 10;
+    static final int MAX_MENTIONS = 10;
+
+    private static final Locale AZ = Locale.forLanguageTag("az");
+    private static final Pattern HASHTAG = Pattern.compile("(?<![\\p{L}\\p{N}_#])#([\\p{L}\\p{N}_]{1,64})");
+    private static final Pattern MENTION = Pattern.compile(
+            "(?<![\\p{L}\\p{N}_@.])@(0x[0-9a-fA-F]{40}(?![0-9a-fA-F])|[A-Za-z0-9_.]{3,32})");
+    private static final Pattern HAS_LETTER = Pattern.compile("\\p{L}");
+
+    private PostEntityExtractor() {
+    }
+
+    static Entities extract(String content) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        Set<String> wallets = new LinkedHashSet<>();
+        Set<String> usernames = new LinkedHashSet<>();
+        if (content == null || content.isEmpty()) {
+            return new Entities(hashtags, wallets, usernames);
+        }
+
+        Matcher tags = HASHTAG.matcher(content);
+        while (tags.find() && hashtags.size() < MAX_HASHTAGS) {
+            String tag = tags.group(1);
+            // #2024 kimi yalnız rəqəmdən ibarət teqlər nəzərə alınmır
+            if (HAS_LETTER.matcher(tag).find()) {
+                hashtags.add(tag.toLowerCase(AZ));
+            }
+        }
+
+        Matcher mentions = MENTION.matcher(content);
+        while (mentions.find() && wallets.size() + usernames.size() < MAX_MENTIONS) {
+            String mention = mentions.group(1);
+            if (mention.startsWith("0x") && mention.length() == 42) {
+                wallets.add(mention);
+            } else {
+                // Cümlə sonundakı nöqtə istifadəçi adına aid deyil
+                String username = mention.replaceAll("\\.+$", "");
+                if (username.length() >= 3 && !username.startsWith("0x")) {
+                    usernames.add(username);
+                }
+            }
+        }
+        return new Entities(hashtags, wallets, usernames);
+    }
+
+    record Entities(Set<String> hashtags, Set<String> walletMentions, Set<String> usernameMentions) {
+    }
+}
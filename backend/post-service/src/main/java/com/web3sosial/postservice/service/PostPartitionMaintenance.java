@@ -0,0 +1,107 @@
+package com.web3sosial.postservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of {@code posts} ahead of the clock and, when
+ * {@code posts.partitions.detach-after-months} is positive, detaches partitions older than
+ * that horizon into standalone {@code posts_archive_YYYY_MM} tables. Detaching is a
+ * metadata change, so retention never runs a bulk DELETE against the live table. It also
+ * tracks the oldest attached partition, so {@link PartitionWindow} knows when a read has
+ * covered the whole table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostPartitionMaintenance {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM_dd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${posts.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${posts.partitions.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    private volatile LocalDate oldestMonth;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${posts.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = currentMonth.plusMonths(i);
+            try {
+                jdbcTemplate.queryForObject("SELECT create_posts_partition(?)", String.class, Date.valueOf(month));
+            } catch (DataAccessException e) {
+                // Başqa replika eyni anda yarada bilər, növbəti dövrdə yenidən yoxlanılır
+                log.warn("Could not create posts partition for {}: {}", month, e.getMessage());
+            }
+        }
+        try {
+            if (detachAfterMonths > 0) {
+                detachOlderThan(currentMonth.minusMonths(detachAfterMonths));
+            }
+            List<String> partitions = partitions();
+            if (!partitions.isEmpty()) {
+                oldestMonth = LocalDate.parse(partitions.get(0).substring("posts_p".length()) + "_01", MONTH);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not list posts partitions: {}", e.getMessage());
+        }
+    }
+
+    /** First day of the oldest attached partition's month, or null until it is known. */
+    public LocalDate oldestMonth() {
+        return oldestMonth;
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'posts' AND c.relname LIKE 'posts\\_p%' ORDER BY c.relname",
+                String.class);
+    }
+
+    private void detachOlderThan(LocalDate cutoff) {
+        List<String> partitions = partitions();
+
+        String cutoffName = "posts_p" + cutoff.format(SUFFIX);
+        for (String partition : partitions) {
+            // Ad formatı posts_pYYYY_MM olduğu üçün leksik müqayisə tarix sırasına uyğundur
+            if (partition.compareTo(cutoffName) >= 0) {
+                continue;
+            }
+            String archive = "posts_archive_" + partition.substring("posts_p".length());
+            try {
+                jdbcTemplate.execute("ALTER TABLE posts DETACH PARTITION " + partition);
+                jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + archive);
+                log.info("Detached posts partition {} as {}", partition, archive);
+            } catch (DataAccessException e) {
+                log.warn("Could not detach posts partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.web3sosial.postservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background cascade for soft-deleted posts. Posts with {@code is_deleted} and no
+ * {@code purged_at} are claimed in chunks; their comments and likes are then deleted, or
+ * moved to {@code *_archive} tables, in bounded batches with a pause between batches so
+ * the purge never holds long locks or saturates the database. The post row itself stays
+ * as a tombstone with {@code purged_at} set.
+ */
+@Service
+@Slf4j
+public class PostPurgeService {
+
+    private static final long PURGE_LOCK_KEY = 0x706f73747075L;
+
+    // Hər sorğu silinən sətirlərin sayını qaytarır: arxivdə INSERT sayı ON CONFLICT ilə azala bilər
+    private static final String DELETE_COMMENTS =
+            "WITH moved AS (DELETE FROM comments WHERE id IN (" +
+            "SELECT id FROM comments WHERE post_id IN (:postIds) LIMIT :batchSize) RETURNING id) " +
+            "SELECT count(*) FROM moved";
+    private static final String ARCHIVE_COMMENTS =
+            "WITH moved AS (DELETE FROM comments WHERE id IN (" +
+            "SELECT id FROM comments WHERE post_id IN (:postIds) LIMIT :batchSize) " +
+            "RETURNING id, post_id, parent_comment_id, wallet_address, content, likes_count, replies_count, created_at), " +
+            "archived AS (INSERT INTO comments_archive (id, post_id, parent_comment_id, wallet_address, content, likes_count, " +
+            "replies_count, created_at, archived_at) " +
+            "SELECT id, post_id, parent_comment_id, wallet_address, content, likes_count, replies_count, created_at, now() " +
+            "FROM moved " +
+            "ON CONFLICT (id) DO NOTHING) " +
+            "SELECT count(*) FROM moved";
+    private static final String DELETE_LIKES =
+            "WITH moved AS (DELETE FROM likes WHERE id IN (" +
+            "SELECT id FROM likes WHERE post_id IN (:postIds) LIMIT :batchSize) RETURNING id) " +
+            "SELECT count(*) FROM moved";
+    private static final String ARCHIVE_LIKES =
+            "WITH moved AS (DELETE FROM likes WHERE id IN (" +
+            "SELECT id FROM likes WHERE post_id IN (:postIds) LIMIT :batchSize) " +
+            "RETURNING id, post_id, wallet_address, created_at), " +
+            "archived AS (INSERT INTO likes_archive (id, post_id, wallet_address, created_at, archived_at) " +
+            "SELECT id, post_id, wallet_address, created_at, now() FROM moved " +
+            "ON CONFLICT (id) DO NOTHING) " +
+            "SELECT count(*) FROM moved";
+
+    // Teq siyahısı postdan törəmədir, arxivlənmir
+    private static final String DELETE_HASHTAGS =
+            "WITH moved AS (DELETE FROM post_hashtags WHERE id IN (" +
+            "SELECT id FROM post_hashtags WHERE post_id IN (:postIds) LIMIT :batchSize) RETURNING id) " +
+            "SELECT count(*) FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean archive;
+    private final int postChunkSize;
+    private final int batchSize;
+    private final long throttleMillis;
+
+    private final Counter postsPurged;
+    private final Counter commentsPurged;
+    private final Counter likesPurged;
+    private final Counter hashtagsPurged;
+    private final Timer batchTimer;
+    private final AtomicLong pendingPosts = new AtomicLong();
+
+    public PostPurgeService(JdbcTemplate jdbcTemplate,
+                            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${posts.purge.mode:delete}") String mode,
+                            @Value("${posts.purge.post-chunk-size:100}") int postChunkSize,
+                            @Value("${posts.purge.batch-size:1000}") int batchSize,
+                            @Value("${posts.purge.throttle-ms:50}") long throttleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archive = "archive".equalsIgnoreCase(mode);
+        this.postChunkSize = postChunkSize;
+        this.batchSize = batchSize;
+        this.throttleMillis = throttleMillis;
+
+        String modeTag = archive ? "archive" : "delete";
+        this.postsPurged = Counter.builder("posts.purge.posts")
+                .tag("mode", modeTag)
+                .register(meterRegistry);
+        this.commentsPurged = Counter.builder("posts.purge.rows")
+                .tag("table", "comments").tag("mode", modeTag)
+                .register(meterRegistry);
+        this.likesPurged = Counter.builder("posts.purge.rows")
+                .tag("table", "likes").tag("mode", modeTag)
+                .register(meterRegistry);
+        this.hashtagsPurged = Counter.builder("posts.purge.rows")
+                .tag("table", "post_hashtags").tag("mode", "delete")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("posts.purge.batch")
+                .register(meterRegistry);
+        meterRegistry.gauge("posts.purge.pending", pendingPosts);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.purge.interval-ms:30000}")
+    public void purge() {
+        try {
+            pendingPosts.set(countPending());
+            List<String> postIds;
+            while (!(postIds = nextChunk()).isEmpty()) {
+                if (!purgeRows(postIds, archive ? ARCHIVE_COMMENTS : DELETE_COMMENTS, commentsPurged)
+                        || !purgeRows(postIds, archive ? ARCHIVE_LIKES : DELETE_LIKES, likesPurged)
+                        || !purgeRows(postIds, DELETE_HASHTAGS, hashtagsPurged)
+                        || !markPurged(postIds)) {
+                    return;
+                }
+                pendingPosts.addAndGet(-postIds.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Post purge run aborted, will retry: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long countPending() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM posts WHERE is_deleted = TRUE AND purged_at IS NULL", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private List<String> nextChunk() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM posts WHERE is_deleted = TRUE AND purged_at IS NULL " +
+                "ORDER BY created_at, id LIMIT ?",
+                String.class, postChunkSize);
+    }
+
+    /**
+     * Deletes or archives rows of one table for a chunk of posts until none remain. Each
+     * batch is its own short transaction; returns false if another replica holds the purge.
+     */
+    private boolean purgeRows(List<String> postIds, String sql, Counter purged) throws InterruptedException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("postIds", postIds)
+                .addValue("batchSize", batchSize);
+        while (true) {
+            Timer.Sample sample = Timer.start();
+            Long affected = transactionTemplate.execute(status -> {
+                if (!tryLock()) {
+                    return null;
+                }
+                return namedParameterJdbcTemplate.queryForObject(sql, params, Long.class);
+            });
+            sample.stop(batchTimer);
+            if (affected == null) {
+                return false;
+            }
+            purged.increment(affected);
+            if (affected < batchSize) {
+                return true;
+            }
+            // Batch-lar arasında fasilə, canlı sorğulara yer qalsın
+            Thread.sleep(throttleMillis);
+        }
+    }
+
+    private boolean markPurged(List<String> postIds) {
+        Boolean marked = transactionTemplate.execute(status -> {
+            if (!tryLock()) {
+                return false;
+            }
+            namedParameterJdbcTemplate.update(
+                    "UPDATE posts SET purged_at = now() WHERE id IN (:postIds) AND is_deleted = TRUE",
+                    new MapSqlParameterSource("postIds", postIds));
+            return true;
+        });
+        if (Boolean.TRUE.equals(marked)) {
+            postsPurged.increment(postIds.size());
+            return true;
+        }
+        return false;
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, PURGE_LOCK_KEY));
+    }
+}
@@ -0,0 +1,719 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.PostSearchEvent;
+import com.web3sosial.postservice.entity.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over post content with BM25 ranking. New posts go into an
+ * in-heap segment that is periodically written out as an immutable memory-mapped segment
+ * file; deletions are a doc-id bitmap applied at query time and dropped, together with
+ * their doc table entries, when segments are merged. Every replica keeps its own index,
+ * fed by {@code post-search-events} from the time this bean was created. On startup the
+ * index is reopened from disk and caught up from posts updated since the last flush, or
+ * rebuilt from the database if the files are missing or unreadable.
+ */
+@Service
+@Slf4j
+public class PostSearchService {
+
+    private static final String TOPIC = "post-search-events";
+    private static final String META_FILE = "search.meta";
+    private static final String DELETED_FILE = "deleted.bin";
+    private static final int REBUILD_PAGE_SIZE = 5_000;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int PREFIX_MIN_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final double PREFIX_WEIGHT = 0.7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxService outboxService;
+    private final Path directory;
+    private final int segmentMaxDocs;
+    private final int maxSegments;
+    private final long catchUpMarginMillis;
+    private final boolean rebuildOnStartup;
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object maintenanceMonitor = new Object();
+
+    // Aşağıdakılar lock altında dəyişir
+    private SearchDocTable docs = new SearchDocTable();
+    private RoaringBitmap deleted = new RoaringBitmap();
+    private List<SearchSegment> segments = List.of();
+    private MemorySearchSegment live = new MemorySearchSegment();
+    private long liveDocCount;
+    private long totalLength;
+    private boolean deletesDirty;
+    private int nextSegmentNumber;
+    private long persistedWatermark;
+
+    private final List<PostSearchEvent> bufferedEvents = new ArrayList<>();
+    private volatile boolean ready;
+
+    public PostSearchService(JdbcTemplate jdbcTemplate,
+                             OutboxService outboxService,
+                             @Value("${search.directory:data/search}") String directory,
+                             @Value("${search.segment-max-docs:50000}") int segmentMaxDocs,
+                             @Value("${search.max-segments:8}") int maxSegments,
+                             @Value("${search.catch-up-margin:10m}") Duration catchUpMargin,
+                             @Value("${search.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxService = outboxService;
+        this.directory = Paths.get(directory);
+        this.segmentMaxDocs = segmentMaxDocs;
+        this.maxSegments = maxSegments;
+        this.catchUpMarginMillis = catchUpMargin.toMillis();
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Events from this time on are replayed from {@code post-search-events}; everything
+     * earlier is covered by the catch-up or rebuild in {@link #open()}, which starts later.
+     */
+    public long replayFromMillis() {
+        return createdAtMillis;
+    }
+
+    /** Must run inside the transaction that inserts the post; applied locally on commit. */
+    public void recordCreated(Post post) {
+        PostSearchEvent event = PostSearchEvent.builder()
+                .postId(post.getId())
+                .walletAddress(post.getWalletAddress())
+                .content(post.getContent())
+                .createdAt(post.getCreatedAt())
+                .deleted(false)
+                .flagged(Boolean.TRUE.equals(post.getFlagged()))
+                .build();
+        outboxService.enqueue(TOPIC, post.getId(), event);
+        applyAfterCommit(event);
+    }
+
+    /** Must run inside the transaction that soft-deletes the post; applied locally on commit. */
+    public void recordDeleted(String postId) {
+        PostSearchEvent event = PostSearchEvent.builder()
+                .postId(postId)
+                .deleted(true)
+                .build();
+        outboxService.enqueue(TOPIC, postId, event);
+        applyAfterCommit(event);
+    }
+
+    public void apply(PostSearchEvent event) {
+        if (!ready) {
+            synchronized (bufferedEvents) {
+                if (!ready) {
+                    bufferedEvents.add(event);
+                    return;
+                }
+            }
+        }
+        applyNow(event);
+    }
+
+    /**
+     * Ids of the best {@code limit} posts for {@code query}, best first. Every query term
+     * contributes its BM25 score; the last term also matches as a prefix while the user is
+     * still typing it.
+     */
+    public List<String> search(String query, int limit) {
+        if (!ready) {
+            throw new RuntimeException("Search index is not ready");
+        }
+        List<String> tokens = query == null ? List.of() : SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, Double> queryTerms = new LinkedHashMap<>();
+        tokens.forEach(token -> queryTerms.put(token, 1.0));
+        String lastToken = tokens.get(tokens.size() - 1);
+        boolean expandLast = !Character.isWhitespace(query.charAt(query.length() - 1))
+                && lastToken.length() >= PREFIX_MIN_LENGTH;
+
+        lock.readLock().lock();
+        try {
+            List<SearchSegment> all = new ArrayList<>(segments);
+            all.add(live);
+
+            if (expandLast) {
+                Set<String> expansions = new TreeSet<>();
+                all.forEach(segment -> segment.collectTermsWithPrefix(lastToken, expansions));
+                expansions.stream()
+                        .limit(MAX_PREFIX_EXPANSIONS)
+                        .forEach(term -> queryTerms.putIfAbsent(term, PREFIX_WEIGHT));
+            }
+
+            double docCount = Math.max(liveDocCount, 1);
+            double averageLength = Math.max(totalLength / docCount, 1.0);
+            Map<Integer, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Double> queryTerm : queryTerms.entrySet()) {
+                String term = queryTerm.getKey();
+                int documentFrequency = 0;
+                for (SearchSegment segment : all) {
+                    documentFrequency += segment.docFrequency(term);
+                }
+                if (documentFrequency == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                double weight = queryTerm.getValue() * Math.max(idf, 0.01);
+                for (SearchSegment segment : all) {
+                    segment.forEachPosting(term, (docId, tf) -> {
+                        if (deleted.contains(docId)) {
+                            return;
+                        }
+                        double lengthNorm = 1 - B + B * docs.length(docId) / averageLength;
+                        scores.merge(docId, weight * tf * (K1 + 1) / (tf + K1 * lengthNorm), Double::sum);
+                    });
+                }
+            }
+
+            // Ən zəif nəticə başda olan K ölçülü heap; bərabər xalda yeni post üstündür
+            Comparator<Integer> order = Comparator.<Integer>comparingDouble(scores::get)
+                    .thenComparingLong(docs::createdAt);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, order);
+            for (Integer docId : scores.keySet()) {
+                top.offer(docId);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<String> postIds = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                postIds.add(docs.postId(top.poll()));
+            }
+            Collections.reverse(postIds);
+            return postIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openOnStartup() {
+        Thread open = new Thread(this::open, "post-search-open");
+        open.setDaemon(true);
+        open.start();
+    }
+
+    void open() {
+        long started = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            synchronized (maintenanceMonitor) {
+                if (rebuildOnStartup || !load()) {
+                    rebuildFromDatabase();
+                } else {
+                    catchUp(persistedWatermark);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Post search index could not be opened, search stays unavailable", e);
+            return;
+        }
+
+        synchronized (bufferedEvents) {
+            bufferedEvents.forEach(this::applyNow);
+            bufferedEvents.clear();
+            ready = true;
+        }
+        log.info("Post search index ready with {} posts in {} segments in {} ms",
+                liveDocCount, segments.size(), System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${search.flush-interval-ms:30000}")
+    public void flush() {
+        if (!ready) {
+            return;
+        }
+        synchronized (maintenanceMonitor) {
+            try {
+                flushLive(System.currentTimeMillis() - catchUpMarginMillis);
+                mergeIfNeeded();
+            } catch (IOException e) {
+                log.error("Post search index flush failed, unflushed posts stay in memory", e);
+            }
+        }
+    }
+
+    private void applyAfterCommit(PostSearchEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event);
+                }
+            });
+        } else {
+            apply(event);
+        }
+    }
+
+    private void applyNow(PostSearchEvent event) {
+        if (Boolean.TRUE.equals(event.getDeleted())) {
+            remove(event.getPostId());
+        } else if (!Boolean.TRUE.equals(event.getFlagged())) {
+            index(event.getPostId(), event.getContent(), toMillis(event.getCreatedAt()));
+        }
+    }
+
+    private void index(String postId, String content, long createdAtMillis) {
+        List<String> tokens = SearchTokenizer.tokenize(content);
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        tokens.forEach(token -> termFrequencies.merge(token, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            if (docs.docIdOf(postId) != null) {
+                return;
+            }
+            int docId = docs.add(postId, createdAtMillis, tokens.size());
+            live.add(docId, termFrequencies);
+            liveDocCount++;
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String postId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docs.docIdOf(postId);
+            if (docId == null) {
+                // Tombstone: gecikmiş yaradılma hadisəsi silinmiş postu geri qaytarmasın.
+                // createdAt silinmə vaxtıdır ki, merge onu catch-up-margin keçəndən sonra atsın
+                deleted.add(docs.add(postId, System.currentTimeMillis(), 0));
+                deletesDirty = true;
+                return;
+            }
+            if (deleted.checkedAdd(docId)) {
+                liveDocCount--;
+                totalLength -= docs.length(docId);
+                deletesDirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the live segment, and any earlier one whose write failed, as segment files and
+     * then persists the delete bitmap and {@code watermark}: on restart, posts updated at or
+     * after the watermark are re-read from the database.
+     */
+    private void flushLive(long watermark) throws IOException {
+        List<MemorySearchSegment> pending = new ArrayList<>();
+        List<SearchDocTable> pendingDocs = new ArrayList<>();
+        List<Integer> pendingNumbers = new ArrayList<>();
+        RoaringBitmap deletedSnapshot;
+        int nextDocId;
+
+        lock.writeLock().lock();
+        try {
+            if (!live.isEmpty()) {
+                segments = append(segments, live);
+                live = new MemorySearchSegment();
+            }
+            for (SearchSegment segment : segments) {
+                if (segment instanceof MemorySearchSegment memory) {
+                    pending.add(memory);
+                    pendingDocs.add(docs.subset(memory.docIds()));
+                    pendingNumbers.add(nextSegmentNumber++);
+                }
+            }
+            if (pending.isEmpty() && !deletesDirty) {
+                return;
+            }
+            deletedSnapshot = deleted.clone();
+            nextDocId = docs.nextDocId();
+            deletesDirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                Path path = segmentPath(pendingNumbers.get(i));
+                MappedSearchSegment.write(path, pending.get(i), new RoaringBitmap(), pendingDocs.get(i));
+                replace(List.of(pending.get(i)), MappedSearchSegment.open(path, null));
+            }
+            persistState(deletedSnapshot, nextDocId, watermark);
+        } catch (IOException e) {
+            lock.writeLock().lock();
+            try {
+                deletesDirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Once there are more than {@code search.max-segments} segment files they are merged into
+     * one, dropping deleted docs. Searches keep using the old segments until the swap; after
+     * it, deleted docs that no segment holds any more leave the bitmap and the doc table.
+     */
+    private void mergeIfNeeded() throws IOException {
+        List<MappedSearchSegment> toMerge = new ArrayList<>();
+        SearchDocTable mergeDocs;
+        RoaringBitmap deletedSnapshot;
+        int number;
+
+        lock.writeLock().lock();
+        try {
+            for (SearchSegment segment : segments) {
+                if (segment instanceof MappedSearchSegment mapped) {
+                    toMerge.add(mapped);
+                }
+            }
+            if (toMerge.size() <= maxSegments) {
+                return;
+            }
+            int[] docIds = toMerge.stream().flatMapToInt(segment -> Arrays.stream(segment.docIds())).toArray();
+            mergeDocs = docs.subset(docIds);
+            deletedSnapshot = deleted.clone();
+            number = nextSegmentNumber++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Path path = segmentPath(number);
+        MappedSearchSegment.write(path, new MergedView(toMerge), deletedSnapshot, mergeDocs);
+        replace(toMerge, MappedSearchSegment.open(path, null));
+
+        RoaringBitmap deletedNow;
+        int nextDocId;
+        int pruned;
+        lock.writeLock().lock();
+        try {
+            pruned = pruneDeleted(System.currentTimeMillis() - catchUpMarginMillis);
+            deletedNow = deleted.clone();
+            nextDocId = docs.nextDocId();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        persistState(deletedNow, nextDocId, persistedWatermark);
+        for (MappedSearchSegment segment : toMerge) {
+            Files.deleteIfExists(segment.path());
+        }
+        log.info("Merged {} post search segments into {}, pruned {} deleted docs",
+                toMerge.size(), path.getFileName(), pruned);
+    }
+
+    /**
+     * Forgets deleted docs that are in no segment, i.e. dropped by a merge or tombstones.
+     * Ones created (tombstones: deleted) after {@code cutoffMillis} are kept a while longer
+     * so a late create event for them is still ignored. Caller holds the write lock.
+     */
+    private int pruneDeleted(long cutoffMillis) {
+        RoaringBitmap present = new RoaringBitmap();
+        for (SearchSegment segment : segments) {
+            present.add(segment.docIds());
+        }
+        present.add(live.docIds());
+
+        RoaringBitmap stale = RoaringBitmap.andNot(deleted, present);
+        int pruned = 0;
+        for (int docId : stale) {
+            if (docs.createdAt(docId) < cutoffMillis) {
+                deleted.remove(docId);
+                docs.remove(docId);
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    private void persistState(RoaringBitmap deletedSnapshot, int nextDocId, long watermark) throws IOException {
+        List<String> names = new ArrayList<>();
+        int segmentNumber;
+        lock.readLock().lock();
+        try {
+            for (SearchSegment segment : segments) {
+                if (segment instanceof MappedSearchSegment mapped) {
+                    names.add(mapped.path().getFileName().toString());
+                }
+            }
+            segmentNumber = nextSegmentNumber;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path deletedTmp = directory.resolve(DELETED_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(deletedTmp))) {
+            deletedSnapshot.serialize(out);
+        }
+        Files.move(deletedTmp, directory.resolve(DELETED_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Properties meta = new Properties();
+        meta.setProperty("segments", String.join(",", names));
+        meta.setProperty("next-doc-id", Integer.toString(nextDocId));
+        meta.setProperty("next-segment", Integer.toString(segmentNumber));
+        meta.setProperty("watermark", Long.toString(watermark));
+        Path metaTmp = directory.resolve(META_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(metaTmp)) {
+            meta.store(out, null);
+        }
+        Files.move(metaTmp, directory.resolve(META_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        persistedWatermark = watermark;
+    }
+
+    private boolean load() {
+        Path metaPath = directory.resolve(META_FILE);
+        if (!Files.exists(metaPath)) {
+            return false;
+        }
+        try {
+            Properties meta = new Properties();
+            try (InputStream in = Files.newInputStream(metaPath)) {
+                meta.load(in);
+            }
+            List<String> names = Arrays.stream(meta.getProperty("segments", "").split(","))
+                    .filter(name -> !name.isBlank())
+                    .toList();
+
+            SearchDocTable loadedDocs = new SearchDocTable();
+            List<SearchSegment> loaded = new ArrayList<>();
+            for (String name : names) {
+                loaded.add(MappedSearchSegment.open(directory.resolve(name), loadedDocs));
+            }
+            loadedDocs.reserveUpTo(Integer.parseInt(meta.getProperty("next-doc-id", "0")));
+
+            RoaringBitmap loadedDeleted = new RoaringBitmap();
+            Path deletedPath = directory.resolve(DELETED_FILE);
+            if (Files.exists(deletedPath)) {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(deletedPath))) {
+                    loadedDeleted.deserialize(in);
+                }
+            }
+
+            long count = 0;
+            long length = 0;
+            RoaringBitmap present = new RoaringBitmap();
+            for (SearchSegment segment : loaded) {
+                for (int docId : segment.docIds()) {
+                    present.add(docId);
+                    if (!loadedDeleted.contains(docId)) {
+                        count++;
+                        length += loadedDocs.length(docId);
+                    }
+                }
+            }
+            // Seqmentlərdə olmayan bitlər (tombstone-lar) post id-siz qalır, saxlamağa dəyməz
+            loadedDeleted.and(present);
+
+            lock.writeLock().lock();
+            try {
+                docs = loadedDocs;
+                deleted = loadedDeleted;
+                segments = List.copyOf(loaded);
+                live = new MemorySearchSegment();
+                liveDocCount = count;
+                totalLength = length;
+                nextSegmentNumber = Integer.parseInt(meta.getProperty("next-segment", "0"));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            persistedWatermark = Long.parseLong(meta.getProperty("watermark", "0"));
+            deleteFilesExcept(Set.copyOf(names));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Post search index on disk is unusable, rebuilding from database", e);
+            return false;
+        }
+    }
+
+    private void rebuildFromDatabase() throws IOException {
+        long watermark = System.currentTimeMillis() - catchUpMarginMillis;
+        lock.writeLock().lock();
+        try {
+            docs = new SearchDocTable();
+            deleted = new RoaringBitmap();
+            segments = List.of();
+            live = new MemorySearchSegment();
+            liveDocCount = 0;
+            totalLength = 0;
+            deletesDirty = false;
+            nextSegmentNumber = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        deleteFilesExcept(Set.of());
+
+        long rows = 0;
+        String lastId = "";
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(
+                    "SELECT id, content, created_at FROM posts WHERE is_deleted = FALSE AND flagged = FALSE AND id > ? " +
+                    "ORDER BY id LIMIT ?",
+                    (rs, i) -> new Object[]{rs.getString(1), rs.getString(2), rs.getTimestamp(3)},
+                    lastId, REBUILD_PAGE_SIZE);
+            for (Object[] row : page) {
+                index((String) row[0], (String) row[1], toMillis((Timestamp) row[2]));
+            }
+            rows += page.size();
+            if (live.size() >= segmentMaxDocs) {
+                flushLive(watermark);
+            }
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+            lastId = (String) page.get(page.size() - 1)[0];
+        }
+        flushLive(watermark);
+        mergeIfNeeded();
+        log.info("Post search index rebuilt from {} posts", rows);
+    }
+
+    private void catchUp(long watermark) {
+        // idx_posts_updated_at ilə yalnız son flush-dan sonra dəyişən postlar oxunur
+        jdbcTemplate.query(
+                "SELECT id, content, created_at, is_deleted OR flagged FROM posts WHERE updated_at >= ?",
+                rs -> {
+                    String postId = rs.getString(1);
+                    if (rs.getBoolean(4)) {
+                        remove(postId);
+                    } else {
+                        index(postId, rs.getString(2), toMillis(rs.getTimestamp(3)));
+                    }
+                },
+                new Timestamp(watermark));
+    }
+
+    private void replace(Collection<? extends SearchSegment> old, SearchSegment replacement) {
+        lock.writeLock().lock();
+        try {
+            List<SearchSegment> updated = new ArrayList<>(segments.size());
+            boolean inserted = false;
+            for (SearchSegment segment : segments) {
+                if (!old.contains(segment)) {
+                    updated.add(segment);
+                } else if (!inserted) {
+                    updated.add(replacement);
+                    inserted = true;
+                }
+            }
+            segments = List.copyOf(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void deleteFilesExcept(Set<String> keep) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "seg-*")) {
+            for (Path file : files) {
+                if (!keep.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        if (keep.isEmpty()) {
+            Files.deleteIfExists(directory.resolve(DELETED_FILE));
+            Files.deleteIfExists(directory.resolve(META_FILE));
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("seg-%06d.idx", number));
+    }
+
+    private static List<SearchSegment> append(List<SearchSegment> list, SearchSegment segment) {
+        List<SearchSegment> copy = new ArrayList<>(list);
+        copy.add(segment);
+        return List.copyOf(copy);
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value == null ? System.currentTimeMillis() : value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long toMillis(Timestamp value) {
+        return value == null ? System.currentTimeMillis() : value.getTime();
+    }
+
+    /** Read-only union of segments, used as the source when merging them into one file. */
+    private static final class MergedView implements SearchSegment {
+
+        private final List<? extends SearchSegment> parts;
+
+        MergedView(List<? extends SearchSegment> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int docFrequency(String term) {
+            return parts.stream().mapToInt(part -> part.docFrequency(term)).sum();
+        }
+
+        @Override
+        public void forEachPosting(String term, PostingVisitor visitor) {
+            parts.forEach(part -> part.forEachPosting(term, visitor));
+        }
+
+        @Override
+        public void collectTermsWithPrefix(String prefix, Collection<String> out) {
+            parts.forEach(part -> part.collectTermsWithPrefix(prefix, out));
+        }
+
+        @Override
+        public Iterable<String> terms() {
+            TreeSet<String> terms = new TreeSet<>();
+            parts.forEach(part -> part.terms().forEach(terms::add));
+            return terms;
+        }
+
+        @Override
+        public int[] docIds() {
+            return parts.stream().flatMapToInt(part -> Arrays.stream(part.docIds())).toArray();
+        }
+    }
+}
@@ -2,16 +2,29 @@ package com.web3sosial.postservice.service;
 
 import com.web3sosial.postservice.dto.*;
 import com.web3sosial.postservice.entity.Comment;
-import com.web3sosial.postservice.entity.Like;
 import com.web3sosial.postservice.entity.Post;
 import com.web3sosial.postservice.repository.CommentRepository;
 import com.web3sosial.postservice.repository.LikeRepository;
 import com.web3sosial.postservice.repository.PostRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,9 +34,46 @@ public class PostService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final LikeRepository likeRepository;
-    private final KafkaTemplate<String, NotificationEvent> kafkaTemplate;
+    private final OutboxService outboxService;
+    private final TimelineService timelineService;
+    private final PostCounterService postCounterService;
+    private final LikerIndexService likerIndexService;
+    private final PostCacheService postCacheService;
+    private final PostSearchService postSearchService;
+    private final TrendingService trendingService;
+    private final HashtagService hashtagService;
+    private final TrendingTagService trendingTagService;
+    private final UserServiceClient userServiceClient;
+    private final ImpressionService impressionService;
+    private final SpamFilterService spamFilterService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final AffinityService affinityService;
+    private final ActivityLogService activityLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionWindow partitionWindow;
+
+    @Value("${comments.reply-preview-size:3}")
+    private int replyPreviewSize;
+
+    @Value("${affinity.candidate-window:500}")
+    private int rankingWindow;
 
     public PostDto createPost(CreatePostRequest request) {
+        // Username-lər tranzaksiyadan əvvəl həll olunur: REST çağırışı bağlantını tutmasın
+        PostEntityExtractor.Entities entities = PostEntityExtractor.extract(request.getContent());
+        Map<String, String> mentionedUsers = userServiceClient.resolveUsernames(entities.usernameMentions());
+        return transactionTemplate.execute(status -> createPost(request, entities, mentionedUsers));
+    }
+
+    private PostDto createPost(CreatePostRequest request, PostEntityExtractor.Entities entities,
+                               Map<String, String> mentionedUsers) {
+        SpamFilterService.Screening screening =
+                spamFilterService.screen(request.getWalletAddress(), request.getContent());
+        if (screening.verdict() == SpamFilterService.Verdict.REJECT) {
+            throw new RuntimeException("Duplicate post");
+        }
+        boolean flagged = screening.verdict() == SpamFilterService.Verdict.FLAG;
+
         Post post = Post.builder()
                 .walletAddress(request.getWalletAddress())
                 .content(request.getContent())
@@ -33,31 +83,238 @@ public class PostService {
                 .commentsCount(0)
                 .repostsCount(0)
                 .isDeleted(false)
+                .flagged(flagged)
                 .build();
 
-        return mapToDto(postRepository.save(post));
+        Post saved = postRepository.save(post);
+        spamFilterService.attach(screening, saved.getId());
+        activityLogService.append(ActivityRecord.Type.POST_CREATED, saved.getWalletAddress(), saved.getId(), null);
+        enqueuePostCount(saved, 1);
+        // İşarələnmiş post da yayımlanır ki, digər replikaların spam indeksi onu görsün; axtarışa düşmür
+        postSearchService.recordCreated(saved);
+        if (flagged) {
+            // İşarələnmiş post müəllifin profilində qalır, amma yayılmır
+            return mapToDto(saved);
+        }
+
+        // İzləyicilərin timeline-ına fan-out user-service tərəfindən edilir
+        outboxService.enqueue("post-events", saved.getWalletAddress(), PostCreatedEvent.builder()
+                .postId(saved.getId())
+                .authorAddress(saved.getWalletAddress())
+                .createdAt(saved.getCreatedAt())
+                .build());
+
+        hashtagService.index(saved, entities.hashtags());
+        notifyMentions(saved, entities.walletMentions(), mentionedUsers.values());
+
+        return mapToDto(saved);
     }
 
-    public PostDto getPost(String postId) {
-        Post post = postRepository.findById(postId)
+    // Profildəki postsCount user-service-də bu event-lərlə saxlanılır
+    private void enqueuePostCount(Post post, int delta) {
+        outboxService.enqueue("post-count-events", post.getWalletAddress(), PostCountEvent.builder()
+                .authorAddress(post.getWalletAddress())
+                .postId(post.getId())
+                .delta(delta)
+                .build());
+    }
+
+    private void notifyMentions(Post post, Collection<String> walletMentions, Collection<String> mentionedUsers) {
+        // Ünvanlar böyük-kiçik hərfə görə fərqli yazıla bilər (EIP-55), ona görə kiçik hərflə müqayisə edirik
+        Map<String, String> recipients = new LinkedHashMap<>();
+        walletMentions.forEach(wallet -> recipients.putIfAbsent(wallet.toLowerCase(Locale.ROOT), wallet));
+        mentionedUsers.forEach(wallet -> recipients.putIfAbsent(wallet.toLowerCase(Locale.ROOT), wallet));
+        recipients.remove(post.getWalletAddress().toLowerCase(Locale.ROOT));
+
+        for (String recipient : recipients.values()) {
+            outboxService.enqueue("notifications", recipient, NotificationEvent.builder()
+                    .recipientAddress(recipient)
+                    .senderAddress(post.getWalletAddress())
+                    .type("MENTION")
+                    .referenceId(post.getId())
+                    .message(post.getWalletAddress() + " səni postda qeyd etdi")
+                    .build());
+        }
+    }
+
+    public PostDto getPost(String postId, String viewer) {
+        Post post = postCacheService.get(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
-        return mapToDto(post);
+        return mapToDto(post, viewer);
+    }
+
+    public BatchPostResponse getPosts(List<String> ids, String viewer) {
+        List<String> uniqueIds = ids.stream().distinct().toList();
+        Map<String, Post> found = postCacheService.getAll(uniqueIds);
+
+        List<PostDto> posts = new ArrayList<>(uniqueIds.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : uniqueIds) {
+            Post post = found.get(id);
+            if (post == null || Boolean.TRUE.equals(post.getIsDeleted())) {
+                missingIds.add(id);
+            } else {
+                posts.add(mapToDto(post, viewer));
+            }
+        }
+
+        return BatchPostResponse.builder()
+                .posts(posts)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    public CursorPage<PostDto> getFeed(String cursor, Integer size, String viewer) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        // Bir artıq sətir oxuyuruq ki, növbəti səhifənin olub-olmadığını bilək
+        List<Post> rows = partitionWindow.read(after, pageSize + 1, (since, until, remaining) -> after == null
+                ? postRepository.findFeedFirstPage(since, until, PageRequest.of(0, remaining))
+                : postRepository.findFeedAfter(since, until, after.createdAt(), after.id(), PageRequest.of(0, remaining)));
+
+        return toPostPage(rows, pageSize, viewer);
+    }
+
+    public CursorPage<PostDto> getUserPosts(String walletAddress, String cursor, Integer size, String viewer) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Post> rows = after == null
+                ? postRepository.findUserPostsFirstPage(walletAddress, limit)
+                : postRepository.findUserPostsAfter(walletAddress, after.createdAt(), after.id(), limit);
+
+        return toPostPage(rows, pageSize, viewer);
+    }
+
+    private CursorPage<PostDto> toPostPage(List<Post> rows, int pageSize, String viewer) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Post> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Post last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPage.<PostDto>builder()
+                .items(page.stream().map(p -> mapToDto(p, viewer)).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    public List<PostDto> getAllPosts() {
-        return postRepository.findByIsDeletedFalseOrderByCreatedAtDesc()
-                .stream()
-                .map(this::mapToDto)
+    /**
+     * Ranked full-text search, answered by the in-process index; Postgres is only used to
+     * hydrate the matching rows (through the post cache).
+     */
+    public List<PostDto> searchPosts(String query, Integer size, String viewer) {
+        List<String> ids = postSearchService.search(query, PageCursor.clampPageSize(size));
+        Map<String, Post> found = postCacheService.getAll(ids);
+        return ids.stream()
+                .map(found::get)
+                .filter(post -> post != null && !Boolean.TRUE.equals(post.getIsDeleted()))
+                .map(post -> mapToDto(post, viewer))
                 .collect(Collectors.toList());
     }
 
-    public List<PostDto> getUserPosts(String walletAddress) {
-        return postRepository.findByWalletAddressAndIsDeletedFalseOrderByCreatedAtDesc(walletAddress)
-                .stream()
-                .map(this::mapToDto)
+    public List<PostDto> getTrending(Integer size, String viewer) {
+        List<String> ids = trendingService.top(PageCursor.clampPageSize(size));
+        Map<String, Post> found = postCacheService.getAll(ids);
+        // Spam kimi işarələnmiş postlar bəyənilsə də trend-ə düşmür
+        return ids.stream()
+                .map(found::get)
+                .filter(post -> post != null && !Boolean.TRUE.equals(post.getIsDeleted())
+                        && !Boolean.TRUE.equals(post.getFlagged()))
+                .map(post -> mapToDto(post, viewer))
                 .collect(Collectors.toList());
     }
 
+    public CursorPage<PostDto> getTimeline(String walletAddress, String cursor, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        List<PageCursor> refs = timelineService.read(walletAddress, PageCursor.decode(cursor), pageSize + 1);
+        return toRefPage(refs, pageSize, walletAddress);
+    }
+
+    /**
+     * Home timeline reordered for the viewer: the newest {@code affinity.candidate-window}
+     * entries are ranked by {@link AffinityService} and the best {@code size} returned.
+     */
+    public List<PostDto> getRankedTimeline(String walletAddress, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        List<PageCursor> refs = timelineService.read(walletAddress, null, rankingWindow);
+        Map<String, Post> found = postCacheService.getAll(refs.stream().map(PageCursor::id).toList());
+
+        List<Post> candidates = new ArrayList<>(refs.size());
+        for (PageCursor ref : refs) {
+            Post post = found.get(ref.id());
+            if (post != null && !Boolean.TRUE.equals(post.getIsDeleted()) && !Boolean.TRUE.equals(post.getFlagged())) {
+                candidates.add(post);
+            }
+        }
+        long[] authors = new long[candidates.size()];
+        long[] createdAt = new long[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            Post post = candidates.get(i);
+            authors[i] = AffinityService.authorKey(post.getWalletAddress());
+            createdAt[i] = post.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        int[] order = affinityService.rank(walletAddress, authors, createdAt, candidates.size(), System.currentTimeMillis());
+        List<PostDto> items = new ArrayList<>(Math.min(pageSize, order.length));
+        for (int i = 0; i < order.length && i < pageSize; i++) {
+            items.add(mapToDto(candidates.get(order[i]), walletAddress));
+        }
+        return items;
+    }
+
+    public CursorPage<PostDto> getTagPosts(String tag, String cursor, Integer size, String viewer) {
+        int pageSize = PageCursor.clampPageSize(size);
+        List<PageCursor> refs = hashtagService.read(tag, PageCursor.decode(cursor), pageSize + 1);
+        return toRefPage(refs, pageSize, viewer);
+    }
+
+    public List<TagTrendDto> getTrendingTags(Integer size) {
+        return trendingTagService.top(PageCursor.clampPageSize(size));
+    }
+
+    public StreamingResponseBody exportUserPosts(String walletAddress) {
+        return jsonStreamWriter.array(() -> postRepository.streamUserPosts(walletAddress), this::mapToDto);
+    }
+
+    public void recordImpressions(ImpressionBatchRequest request) {
+        impressionService.record(request.getViewer(), request.getPostIds());
+    }
+
+    public AuthorImpressionsDto getAuthorImpressions(String walletAddress, Integer days) {
+        return impressionService.getAuthorImpressions(walletAddress, days == null ? 7 : days);
+    }
+
+    public CursorPage<ActivityRecord> getActivity(String cursor, Integer size) {
+        return activityLogService.page(cursor, size);
+    }
+
+    private CursorPage<PostDto> toRefPage(List<PageCursor> refs, int pageSize, String viewer) {
+        boolean hasMore = refs.size() > pageSize;
+        List<PageCursor> page = hasMore ? refs.subList(0, pageSize) : refs;
+
+        Map<String, Post> posts = postCacheService.getAll(page.stream().map(PageCursor::id).toList());
+
+        // Silinmiş postlar timeline və teq siyahılarında qala bilər, onları burada atırıq
+        List<PostDto> items = page.stream()
+                .map(ref -> posts.get(ref.id()))
+                .filter(p -> p != null && !Boolean.TRUE.equals(p.getIsDeleted()))
+                .map(p -> mapToDto(p, viewer))
+                .collect(Collectors.toList());
+
+        return CursorPage.<PostDto>builder()
+                .items(items)
+                .nextCursor(hasMore ? page.get(page.size() - 1).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Transactional
     public void deletePost(String postId, String walletAddress) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -66,28 +323,49 @@ public class PostService {
             throw new RuntimeException("Unauthorized");
         }
 
+        if (Boolean.TRUE.equals(post.getIsDeleted())) {
+            return;
+        }
+
         post.setIsDeleted(true);
         postRepository.save(post);
+        enqueuePostCount(post, -1);
+        postSearchService.recordDeleted(postId);
+        postCacheService.invalidate(postId);
+        activityLogService.append(ActivityRecord.Type.POST_DELETED, walletAddress, postId, null);
     }
 
+    @Transactional
     public CommentDto addComment(String postId, CreateCommentRequest request) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
+        String parentId = null;
+        if (request.getParentCommentId() != null && !request.getParentCommentId().isBlank()) {
+            Comment parent = commentRepository.findById(request.getParentCommentId())
+                    .orElseThrow(() -> new RuntimeException("Parent comment not found"));
+            if (!postId.equals(parent.getPostId())) {
+                throw new RuntimeException("Parent comment belongs to another post");
+            }
+            // Yalnız bir səviyyə: cavaba cavab yuxarı səviyyəli şərhin altına düşür
+            parentId = parent.getParentCommentId() != null ? parent.getParentCommentId() : parent.getId();
+            commentRepository.incrementRepliesCount(parentId);
+        }
+
         Comment comment = Comment.builder()
                 .postId(postId)
+                .parentCommentId(parentId)
                 .walletAddress(request.getWalletAddress())
                 .content(request.getContent())
                 .likesCount(0)
+                .repliesCount(0)
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        activityLogService.append(ActivityRecord.Type.COMMENT, saved.getWalletAddress(), postId, saved.getId());
 
-        post.setCommentsCount(post.getCommentsCount() + 1);
-        postRepository.save(post);
-
-        // Kafka event göndər
-        kafkaTemplate.send("notifications", NotificationEvent.builder()
+        // Kafka event outbox vasitəsilə göndərilir
+        outboxService.enqueue("notifications", post.getWalletAddress(), NotificationEvent.builder()
                 .recipientAddress(post.getWalletAddress())
                 .senderAddress(request.getWalletAddress())
                 .type("COMMENT")
@@ -95,58 +373,149 @@ public class PostService {
                 .message(request.getWalletAddress() + " postuna şərh yazdı")
                 .build());
 
+        outboxService.enqueue("comment-events", postId, CommentEvent.builder()
+                .postId(postId)
+                .authorAddress(post.getWalletAddress())
+                .commentId(saved.getId())
+                .walletAddress(saved.getWalletAddress())
+                .createdAt(saved.getCreatedAt())
+                .build());
+
+        postCounterService.addComments(postId, 1);
+
         return mapToCommentDto(saved);
     }
 
-    public List<CommentDto> getComments(String postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtDesc(postId)
-                .stream()
-                .map(this::mapToCommentDto)
-                .collect(Collectors.toList());
+    /**
+     * One page of top-level comments, newest first, each carrying its first
+     * {@code comments.reply-preview-size} replies. Replies for the whole page are loaded
+     * with a single query rather than one per comment.
+     */
+    public CursorPage<CommentDto> getComments(String postId, String cursor, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Comment> rows = after == null
+                ? commentRepository.findTopLevelFirstPage(postId, limit)
+                : commentRepository.findTopLevelAfter(postId, after.createdAt(), after.id(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Comment> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<String> withReplies = page.stream()
+                .filter(c -> c.getRepliesCount() != null && c.getRepliesCount() > 0)
+                .map(Comment::getId)
+                .toList();
+        Map<String, List<CommentDto>> repliesByParent = withReplies.isEmpty()
+                ? Map.of()
+                : commentRepository.findFirstRepliesOf(withReplies, replyPreviewSize).stream()
+                        .sorted(Comparator.comparing(Comment::getCreatedAt).thenComparing(Comment::getId))
+                        .collect(Collectors.groupingBy(Comment::getParentCommentId,
+                                Collectors.mapping(this::mapToCommentDto, Collectors.toList())));
+
+        List<CommentDto> items = new ArrayList<>(page.size());
+        for (Comment comment : page) {
+            CommentDto dto = mapToCommentDto(comment);
+            List<CommentDto> replies = repliesByParent.getOrDefault(comment.getId(), List.of());
+            dto.setReplies(replies);
+            if (!replies.isEmpty() && dto.getRepliesCount() > replies.size()) {
+                CommentDto last = replies.get(replies.size() - 1);
+                dto.setRepliesCursor(new PageCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+            items.add(dto);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPage.<CommentDto>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    public void likePost(String postId, String walletAddress) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+    public CursorPage<CommentDto> getReplies(String commentId, String cursor, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Comment> rows = after == null
+                ? commentRepository.findRepliesFirstPage(commentId, limit)
+                : commentRepository.findRepliesAfter(commentId, after.createdAt(), after.id(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Comment> page = hasMore ? rows.subList(0, pageSize) : rows;
 
-        if (likeRepository.existsByPostIdAndWalletAddress(postId, walletAddress)) {
-            throw new RuntimeException("Already liked");
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
         }
 
-        Like like = Like.builder()
-                .postId(postId)
-                .walletAddress(walletAddress)
+        return CursorPage.<CommentDto>builder()
+                .items(page.stream().map(this::mapToCommentDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
+    }
 
-        likeRepository.save(like);
+    @Transactional
+    public void likePost(String postId, String walletAddress) {
+        Post post = postCacheService.get(postId)
+                .filter(p -> !Boolean.TRUE.equals(p.getIsDeleted()))
+                .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        post.setLikesCount(post.getLikesCount() + 1);
-        postRepository.save(post);
+        // İdempotent: təkrar like heç nəyi dəyişmir, sayğac və bildiriş yalnız yeni sətirdə
+        if (likeRepository.insertIfAbsent(UUID.randomUUID().toString(), postId, walletAddress) == 0) {
+            return;
+        }
 
-        // Kafka event göndər
-        kafkaTemplate.send("notifications", NotificationEvent.builder()
+        // Kafka event outbox vasitəsilə göndərilir
+        outboxService.enqueue("notifications", post.getWalletAddress(), NotificationEvent.builder()
                 .recipientAddress(post.getWalletAddress())
                 .senderAddress(walletAddress)
                 .type("LIKE")
                 .referenceId(postId)
                 .message(walletAddress + " postunu bəyəndi")
                 .build());
+
+        likerIndexService.recordLike(postId, post.getWalletAddress(), walletAddress, true, null);
+        postCounterService.addLikes(postId, 1);
+        activityLogService.append(ActivityRecord.Type.LIKE, walletAddress, postId, post.getWalletAddress());
     }
 
+    @Transactional
     public void unlikePost(String postId, String walletAddress) {
-        Like like = likeRepository.findByPostIdAndWalletAddress(postId, walletAddress)
-                .orElseThrow(() -> new RuntimeException("Not liked"));
-
-        likeRepository.delete(like);
+        // Like-ın vaxtı silinmədən oxunur: affinity məhz onun qalan töhfəsini ləğv edir
+        LocalDateTime likedAt = likeRepository.findCreatedAt(postId, walletAddress).orElse(null);
+        if (likeRepository.deletePair(postId, walletAddress) == 0) {
+            return;
+        }
 
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+        String authorAddress = postCacheService.get(postId).map(Post::getWalletAddress).orElse(null);
+        likerIndexService.recordLike(postId, authorAddress, walletAddress, false, likedAt);
+        postCounterService.addLikes(postId, -1);
+        activityLogService.append(ActivityRecord.Type.UNLIKE, walletAddress, postId, authorAddress);
+    }
 
-        post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-        postRepository.save(post);
+    private boolean isLikedBy(String postId, String walletAddress) {
+        // Bitmap hazır olana qədər (startup rebuild) bazaya baxırıq
+        if (likerIndexService.isReady()) {
+            return likerIndexService.isLiked(postId, walletAddress);
+        }
+        return likeRepository.existsByPostIdAndWalletAddress(postId, walletAddress);
     }
 
     private PostDto mapToDto(Post post) {
+        return mapToDto(post, null);
+    }
+
+    private PostDto mapToDto(Post post, String viewer) {
         return PostDto.builder()
                 .id(post.getId())
                 .walletAddress(post.getWalletAddress())
@@ -154,10 +523,12 @@ public class PostService {
                 .ipfsHash(post.getIpfsHash())
                 .mediaUrl(post.getMediaUrl())
                 .postType(post.getPostType())
-                .likesCount(post.getLikesCount())
-                .commentsCount(post.getCommentsCount())
+                .likesCount(post.getLikesCount() + postCounterService.pendingLikes(post.getId()))
+                .commentsCount(post.getCommentsCount() + postCounterService.pendingComments(post.getId()))
                 .repostsCount(post.getRepostsCount())
+                .uniqueViews(post.getUniqueViews() == null ? 0L : post.getUniqueViews())
                 .createdAt(post.getCreatedAt())
+                .likedByViewer(viewer == null ? null : isLikedBy(post.getId(), viewer))
                 .build();
     }
 
@@ -165,10 +536,12 @@ public class PostService {
         return CommentDto.builder()
                 .id(comment.getId())
                 .postId(comment.getPostId())
+                .parentCommentId(comment.getParentCommentId())
                 .walletAddress(comment.getWalletAddress())
                 .content(comment.getContent())
                 .likesCount(comment.getLikesCount())
                 .createdAt(comment.getCreatedAt())
+                .repliesCount(comment.getRepliesCount() == null ? 0 : comment.getRepliesCount())
                 .build();
     }
 }
\ No newline at end of file
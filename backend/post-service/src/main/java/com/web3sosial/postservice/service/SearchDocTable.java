@@ -0,0 +1,84 @@
+package com.web3sosial.postservice.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense doc id → (postId, createdAt, token count) table shared by all search segments.
+ * Not thread-safe; {@link PostSearchService} guards it with its index lock.
+ */
+final class SearchDocTable {
+
+    private final Map<String, Integer> docIdsByPost = new HashMap<>();
+    private String[] postIds = new String[1024];
+    private long[] createdAt = new long[1024];
+    private int[] lengths = new int[1024];
+    private int nextDocId;
+
+    int add(String postId, long createdAtMillis, int length) {
+        int docId = nextDocId;
+        register(docId, postId, createdAtMillis, length);
+        return docId;
+    }
+
+    void register(int docId, String postId, long createdAtMillis, int length) {
+        ensureCapacity(docId + 1);
+        postIds[docId] = postId;
+        createdAt[docId] = createdAtMillis;
+        lengths[docId] = length;
+        docIdsByPost.put(postId, docId);
+        nextDocId = Math.max(nextDocId, docId + 1);
+    }
+
+    /** Forgets {@code docId}; its id is not reused. */
+    void remove(int docId) {
+        String postId = postIds[docId];
+        if (postId != null) {
+            docIdsByPost.remove(postId, docId);
+            postIds[docId] = null;
+        }
+    }
+
+    Integer docIdOf(String postId) {
+        return docIdsByPost.get(postId);
+    }
+
+    String postId(int docId) {
+        return postIds[docId];
+    }
+
+    long createdAt(int docId) {
+        return createdAt[docId];
+    }
+
+    int length(int docId) {
+        return lengths[docId];
+    }
+
+    int nextDocId() {
+        return nextDocId;
+    }
+
+    void reserveUpTo(int docId) {
+        nextDocId = Math.max(nextDocId, docId);
+    }
+
+    /** Copy of the given docs, so a segment can be written without holding the index lock. */
+    SearchDocTable subset(int[] docIds) {
+        SearchDocTable copy = new SearchDocTable();
+        for (int docId : docIds) {
+            copy.register(docId, postIds[docId], createdAt[docId], lengths[docId]);
+        }
+        return copy;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > postIds.length) {
+            int capacity = Math.max(size, postIds.length * 2);
+            postIds = Arrays.copyOf(postIds, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.web3sosial.postservice.service;
+
+import java.util.Collection;
+
+/**
+ * Read side of one slice of the post search index: a term dictionary and, per term, a
+ * postings list of (docId, term frequency) pairs in ascending docId order.
+ */
+interface SearchSegment {
+
+    @FunctionalInterface
+    interface PostingVisitor {
+        void visit(int docId, int termFrequency);
+    }
+
+    int docFrequency(String term);
+
+    void forEachPosting(String term, PostingVisitor visitor);
+
+    void collectTermsWithPrefix(String prefix, Collection<String> out);
+
+    /** Terms in ascending order. */
+    Iterable<String> terms();
+
+    int[] docIds();
+}
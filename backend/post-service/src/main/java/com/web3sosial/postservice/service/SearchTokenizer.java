@@ -0,0 +1,72 @@
+package com.web3sosial.postservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits post text into index terms. Lower-casing uses the Azerbaijani locale so that
+ * I/İ map to ı/i, then Azerbaijani/Turkish letters are folded to their ASCII base
+ * (ə→e, ş→s, ı→i, ...) so queries typed without a local keyboard still match.
+ */
+final class SearchTokenizer {
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private static final Locale AZ = Locale.forLanguageTag("az");
+
+    // Qatlanmış formada saxlanılır
+    private static final Set<String> STOP_WORDS = Set.of(
+            "ve", "ile", "bu", "da", "de", "ki", "bir", "ne", "mi", "mu", "icin", "ucun",
+            "the", "and", "or", "of", "to", "in", "is", "it", "on", "for", "an");
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(AZ);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < lower.length(); ) {
+            int cp = lower.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                current.appendCodePoint(fold(cp));
+            } else {
+                emit(current, tokens);
+            }
+        }
+        emit(current, tokens);
+        return tokens;
+    }
+
+    private static void emit(StringBuilder current, List<String> tokens) {
+        int length = current.length();
+        if (length >= MIN_TOKEN_LENGTH && length <= MAX_TOKEN_LENGTH) {
+            String token = current.toString();
+            if (!STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        current.setLength(0);
+    }
+
+    private static int fold(int cp) {
+        return switch (cp) {
+            case 'ə', 'é', 'è', 'ê' -> 'e';
+            case 'ı', 'î', 'í' -> 'i';
+            case 'ş' -> 's';
+            case 'ç' -> 'c';
+            case 'ğ' -> 'g';
+            case 'ö', 'ó' -> 'o';
+            case 'ü', 'û', 'ú' -> 'u';
+            case 'â', 'á', 'à' -> 'a';
+            default -> cp;
+        };
+    }
+}
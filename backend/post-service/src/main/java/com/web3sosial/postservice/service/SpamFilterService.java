@@ -0,0 +1,166 @@
+package com.web3sosial.postservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Write-path near-duplicate filter. New post text is fingerprinted with {@link MinHash}
+ * and looked up in a {@link NearDuplicateIndex} of the posts seen during
+ * {@code spam.window}. A near-duplicate of the author's own recent post is rejected; one
+ * that matches posts from {@code spam.coordinated-wallets} other wallets is flagged.
+ * Posts written on other replicas, flagged ones included, reach the index through
+ * {@code post-search-events}, which is replayed for the last {@code spam.window} on startup.
+ */
+@Service
+@Slf4j
+public class SpamFilterService {
+
+    public enum Verdict { ACCEPT, FLAG, REJECT }
+
+    /** Outcome of {@link #screen}; {@code entry} is the index entry created for the post, 0 if none. */
+    public record Screening(Verdict verdict, long entry) {
+    }
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final double minSimilarity;
+    private final int minTokens;
+    private final int coordinatedWallets;
+    private final int maxVisits;
+    private final Verdict sameWalletVerdict;
+    private final Verdict coordinatedVerdict;
+    private final NearDuplicateIndex index;
+
+    private final Counter rejected;
+    private final Counter flagged;
+    private final long replayFromMillis;
+
+    public SpamFilterService(MeterRegistry meterRegistry,
+                             @Value("${spam.enabled:true}") boolean enabled,
+                             @Value("${spam.capacity:100000}") int capacity,
+                             @Value("${spam.window:24h}") Duration window,
+                             @Value("${spam.min-similarity:0.6}") double minSimilarity,
+                             @Value("${spam.min-tokens:5}") int minTokens,
+                             @Value("${spam.coordinated-wallets:3}") int coordinatedWallets,
+                             @Value("${spam.max-visits:256}") int maxVisits,
+                             @Value("${spam.same-wallet-action:reject}") String sameWalletAction,
+                             @Value("${spam.coordinated-action:flag}") String coordinatedAction) {
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.minSimilarity = minSimilarity;
+        this.minTokens = minTokens;
+        this.coordinatedWallets = coordinatedWallets;
+        this.maxVisits = maxVisits;
+        this.sameWalletVerdict = "flag".equalsIgnoreCase(sameWalletAction) ? Verdict.FLAG : Verdict.REJECT;
+        this.coordinatedVerdict = "reject".equalsIgnoreCase(coordinatedAction) ? Verdict.REJECT : Verdict.FLAG;
+        this.index = new NearDuplicateIndex(capacity);
+
+        this.rejected = Counter.builder("posts.spam").tag("verdict", "rejected").register(meterRegistry);
+        this.flagged = Counter.builder("posts.spam").tag("verdict", "flagged").register(meterRegistry);
+        this.replayFromMillis = System.currentTimeMillis() - windowMillis;
+    }
+
+    public long replayFromMillis() {
+        return replayFromMillis;
+    }
+
+    /**
+     * Checks a post about to be written. Unless it is rejected, the post is added to the
+     * index straight away so a burst of copies is caught before any of them commits; if
+     * the surrounding transaction rolls back, the entry is taken out again.
+     */
+    public synchronized Screening screen(String walletAddress, String content) {
+        int[] signature = enabled ? MinHash.of(content, minTokens) : null;
+        if (signature == null) {
+            return new Screening(Verdict.ACCEPT, 0);
+        }
+        long now = System.currentTimeMillis();
+        long walletHash = hash(walletAddress);
+
+        boolean[] sameWallet = new boolean[1];
+        Set<Long> otherWallets = new HashSet<>();
+        index.forEachMatch(signature, minSimilarity, now - windowMillis, maxVisits,
+                (candidateWallet, postHash, similarity) -> {
+                    if (candidateWallet == walletHash) {
+                        sameWallet[0] = true;
+                    } else {
+                        otherWallets.add(candidateWallet);
+                    }
+                });
+
+        Verdict verdict = Verdict.ACCEPT;
+        if (sameWallet[0]) {
+            verdict = sameWalletVerdict;
+        }
+        if (otherWallets.size() >= coordinatedWallets && coordinatedVerdict.compareTo(verdict) > 0) {
+            verdict = coordinatedVerdict;
+        }
+
+        if (verdict == Verdict.REJECT) {
+            rejected.increment();
+            log.debug("Rejected near-duplicate post from {}", walletAddress);
+            return new Screening(verdict, 0);
+        }
+        if (verdict == Verdict.FLAG) {
+            flagged.increment();
+        }
+        long entry = index.add(signature, walletHash, 0, now);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Yazılmayan post müəllifin təkrar cəhdini "Duplicate post" ilə bloklamasın
+                    if (status != STATUS_COMMITTED) {
+                        discard(entry);
+                    }
+                }
+            });
+        }
+        return new Screening(verdict, entry);
+    }
+
+    /** Ties the index entry created by {@link #screen} to the saved post id. */
+    public synchronized void attach(Screening screening, String postId) {
+        if (screening.entry() != 0) {
+            index.setPostHash(screening.entry(), hash(postId));
+        }
+    }
+
+    /**
+     * Adds a post published on any replica at {@code timestampMillis}, unless it is
+     * already outside the window or this replica already indexed it.
+     */
+    public synchronized void recordPublished(String postId, String walletAddress, String content, long timestampMillis) {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        int[] signature = enabled && walletAddress != null && timestampMillis >= cutoff
+                ? MinHash.of(content, minTokens) : null;
+        if (signature == null) {
+            return;
+        }
+        long postHash = hash(postId);
+        boolean[] known = new boolean[1];
+        index.forEachMatch(signature, 1.0, cutoff, maxVisits,
+                (candidateWallet, candidatePost, similarity) -> known[0] |= candidatePost == postHash);
+        if (!known[0]) {
+            index.add(signature, hash(walletAddress), postHash, timestampMillis);
+        }
+    }
+
+    private synchronized void discard(long entry) {
+        index.remove(entry);
+    }
+
+    private static long hash(String value) {
+        return HyperLogLog.hash64(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.TimelineFanoutEvent;
+import com.web3sosial.postservice.repository.PostRepository;
+import com.web3sosial.postservice.repository.TimelineEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Home timeline materialized per follower (fan-out on write). Posts of high-fanout
+ * authors are never pushed; they are merged in at read time instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO timeline_entries (id, owner_address, post_id, author_address, created_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (owner_address, post_id) DO NOTHING";
+
+    // Hər sahib üçün ən yeni maxEntries sətirdən artığını silir
+    private static final String TRIM_SQL =
+            "DELETE FROM timeline_entries te USING (" +
+            "  SELECT id FROM (" +
+            "    SELECT id, row_number() OVER (PARTITION BY owner_address ORDER BY created_at DESC, post_id DESC) AS rn" +
+            "    FROM timeline_entries WHERE owner_address IN (:owners)" +
+            "  ) ranked WHERE rn > :maxEntries" +
+            ") old WHERE te.id = old.id";
+
+    private static final Comparator<PageCursor> NEWEST_FIRST =
+            Comparator.comparing(PageCursor::createdAt).thenComparing(PageCursor::id).reversed();
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final UserServiceClient userServiceClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PartitionWindow partitionWindow;
+
+    @Value("${timeline.max-entries:800}")
+    private int maxEntries;
+
+    @Transactional
+    public void append(TimelineFanoutEvent event) {
+        List<String> recipients = event.getRecipientAddresses();
+        if (recipients == null || recipients.isEmpty()) {
+            return;
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(event.getCreatedAt());
+        List<Object[]> rows = new ArrayList<>(recipients.size());
+        for (String owner : recipients) {
+            rows.add(new Object[]{UUID.randomUUID().toString(), owner, event.getPostId(),
+                    event.getAuthorAddress(), createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, rows);
+
+        namedParameterJdbcTemplate.update(TRIM_SQL, new MapSqlParameterSource()
+                .addValue("owners", recipients)
+                .addValue("maxEntries", maxEntries));
+    }
+
+    /**
+     * Returns up to {@code limit} (createdAt, postId) keys, newest first: one range read of
+     * the materialized timeline merged with a keyset read over high-fanout authors.
+     */
+    public List<PageCursor> read(String walletAddress, PageCursor after, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+
+        List<PageCursor> pushed = after == null
+                ? timelineEntryRepository.findFirstPage(walletAddress, page)
+                : timelineEntryRepository.findPageAfter(walletAddress, after.createdAt(), after.id(), page);
+
+        List<String> highFanoutAuthors = userServiceClient.getHighFanoutFollowing(walletAddress);
+        if (highFanoutAuthors.isEmpty()) {
+            return pushed;
+        }
+
+        List<PageCursor> pulled = partitionWindow.read(after, limit, (since, until, remaining) -> after == null
+                ? postRepository.findAuthorsFirstPage(highFanoutAuthors, since, until, PageRequest.of(0, remaining))
+                : postRepository.findAuthorsPageAfter(highFanoutAuthors, since, until, after.createdAt(), after.id(),
+                        PageRequest.of(0, remaining)));
+
+        return merge(pushed, pulled, limit);
+    }
+
+    private List<PageCursor> merge(List<PageCursor> a, List<PageCursor> b, int limit) {
+        List<PageCursor> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            PageCursor next;
+            if (j >= b.size()) {
+                next = a.get(i++);
+            } else if (i >= a.size()) {
+                next = b.get(j++);
+            } else if (NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0) {
+                next = a.get(i++);
+            } else {
+                next = b.get(j++);
+            }
+            // Eyni post həm push, həm pull ilə gələ bilər (müəllif həddi keçəndə)
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).id().equals(next.id())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,124 @@
+package com.web3sosial.postservice.service;
+
+/**
+ * Open-addressing hash table from a post's UUID (as two longs) to a double score, so the
+ * scorer keeps no boxed keys or values per post. Not thread-safe.
+ */
+final class TrendingScoreTable {
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long mostSignificant, long leastSignificant, double score);
+    }
+
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] most;
+    private long[] least;
+    private double[] scores;
+    private boolean[] used;
+    private int size;
+
+    TrendingScoreTable(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Returns the score before the update, or 0 if the key was absent. */
+    double add(long mostSignificant, long leastSignificant, double delta) {
+        if (size + 1 > scores.length * MAX_LOAD) {
+            resize(scores.length * 2);
+        }
+        int slot = slotOf(mostSignificant, leastSignificant);
+        if (used[slot]) {
+            double previous = scores[slot];
+            scores[slot] = previous + delta;
+            return previous;
+        }
+        used[slot] = true;
+        most[slot] = mostSignificant;
+        least[slot] = leastSignificant;
+        scores[slot] = delta;
+        size++;
+        return 0;
+    }
+
+    double get(long mostSignificant, long leastSignificant) {
+        int slot = slotOf(mostSignificant, leastSignificant);
+        return used[slot] ? scores[slot] : 0;
+    }
+
+    void forEach(EntryVisitor visitor) {
+        for (int i = 0; i < scores.length; i++) {
+            if (used[i]) {
+                visitor.visit(most[i], least[i], scores[i]);
+            }
+        }
+    }
+
+    /** Multiplies every score by {@code factor} and drops entries that fall below {@code minScore}. */
+    void scaleAndPrune(double factor, double minScore) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        double[] oldScores = scores;
+        boolean[] oldUsed = used;
+        int kept = 0;
+        for (int i = 0; i < oldScores.length; i++) {
+            if (oldUsed[i] && oldScores[i] * factor >= minScore) {
+                kept++;
+            }
+        }
+        allocate(tableSizeFor(kept));
+        for (int i = 0; i < oldScores.length; i++) {
+            double scaled = oldScores[i] * factor;
+            if (oldUsed[i] && scaled >= minScore) {
+                add(oldMost[i], oldLeast[i], scaled);
+            }
+        }
+    }
+
+    private int slotOf(long mostSignificant, long leastSignificant) {
+        int mask = scores.length - 1;
+        int slot = mix(mostSignificant ^ Long.rotateLeft(leastSignificant, 32)) & mask;
+        while (used[slot] && (most[slot] != mostSignificant || least[slot] != leastSignificant)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        double[] oldScores = scores;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldScores.length; i++) {
+            if (oldUsed[i]) {
+                add(oldMost[i], oldLeast[i], oldScores[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        most = new long[capacity];
+        least = new long[capacity];
+        scores = new double[capacity];
+        used = new boolean[capacity];
+        size = 0;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
@@ -0,0 +1,167 @@
+package com.web3sosial.postservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Streaming trending ranking. Each like or comment adds its weight to the post's score,
+ * decayed exponentially with {@code trending.half-life}. Scores are kept relative to a
+ * reference time, {@code w * e^(λ(t - t0))}, so old scores never need touching: every score
+ * decays by the same factor, ranks only change when a post gets a new event, and the
+ * top-K set can be maintained exactly on each update. The reference time is moved forward
+ * periodically, which also drops posts whose score has decayed to nothing.
+ *
+ * <p>An unlike subtracts the like weight at its own time, never taking a score below zero,
+ * so liking and unliking in a loop nets at most one like. A post pushed down by an unlike
+ * keeps its top-K slot until it is displaced; posts outside the set re-enter on their next
+ * event.
+ *
+ * <p>Scores start empty and are rebuilt from the last {@code trending.replay-horizon} of
+ * like and comment events; anything older has decayed below {@code trending.min-score}.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    // e^50 ≈ 5e21: double dəqiqliyi üçün kifayət qədər uzaqdır
+    private static final double RESCALE_EXPONENT = 50;
+
+    private final double lambdaPerMilli;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final int capacity;
+    private final double minScore;
+    private final long replayFromMillis;
+
+    private final TrendingScoreTable scores = new TrendingScoreTable(1 << 16);
+    private final TreeSet<Entry> top = new TreeSet<>(Comparator.comparingDouble(Entry::score)
+            .thenComparingLong(Entry::most)
+            .thenComparingLong(Entry::least));
+    private long referenceMillis = System.currentTimeMillis();
+    private boolean dirty;
+
+    private volatile List<String> snapshot = List.of();
+
+    public TrendingService(@Value("${trending.half-life:6h}") Duration halfLife,
+                           @Value("${trending.like-weight:1.0}") double likeWeight,
+                           @Value("${trending.comment-weight:3.0}") double commentWeight,
+                           @Value("${trending.capacity:200}") int capacity,
+                           @Value("${trending.min-score:0.01}") double minScore,
+                           @Value("${trending.replay-horizon:48h}") Duration replayHorizon) {
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.capacity = capacity;
+        this.minScore = minScore;
+        this.replayFromMillis = referenceMillis - replayHorizon.toMillis();
+    }
+
+    public long replayFromMillis() {
+        return replayFromMillis;
+    }
+
+    public void recordLike(String postId, boolean liked, long timestampMillis) {
+        record(postId, liked ? likeWeight : -likeWeight, timestampMillis);
+    }
+
+    public void recordComment(String postId, long timestampMillis) {
+        record(postId, commentWeight, timestampMillis);
+    }
+
+    /** Up to {@code limit} trending post ids, hottest first, from the last published ranking. */
+    public List<String> top(int limit) {
+        List<String> current = snapshot;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    private synchronized void record(String postId, double weight, long timestampMillis) {
+        UUID key;
+        try {
+            key = UUID.fromString(postId);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return;
+        }
+        if (lambdaPerMilli * (timestampMillis - referenceMillis) > RESCALE_EXPONENT) {
+            rescale(timestampMillis);
+        }
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        double delta = weight * Math.exp(lambdaPerMilli * (timestampMillis - referenceMillis));
+        if (delta < 0) {
+            // Xal sıfırdan aşağı düşmür; olmayan posta unlike heç nə yazmır
+            double current = scores.get(most, least);
+            if (current <= 0) {
+                return;
+            }
+            delta = Math.max(delta, -current);
+        }
+        double previous = scores.add(most, least, delta);
+        double updated = previous + delta;
+
+        boolean wasTop = previous > 0 && top.remove(new Entry(most, least, previous));
+        if (updated <= 0) {
+            dirty |= wasTop;
+            return;
+        }
+        if (wasTop || top.size() < capacity || updated > top.first().score()) {
+            top.add(new Entry(most, least, updated));
+            if (top.size() > capacity) {
+                top.pollFirst();
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Publishes the current top-K for readers and moves the reference time forward once a
+     * half-life has passed, pruning posts that have decayed below {@code trending.min-score}.
+     */
+    @Scheduled(fixedDelayString = "${trending.refresh-interval-ms:1000}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        if (lambdaPerMilli * (now - referenceMillis) > Math.log(2)) {
+            rescale(now);
+        }
+        if (!dirty) {
+            return;
+        }
+        List<String> ranked = new ArrayList<>(top.size());
+        for (Entry entry : top.descendingSet()) {
+            ranked.add(new UUID(entry.most(), entry.least()).toString());
+        }
+        snapshot = List.copyOf(ranked);
+        dirty = false;
+    }
+
+    private void rescale(long newReferenceMillis) {
+        double factor = Math.exp(-lambdaPerMilli * (newReferenceMillis - referenceMillis));
+        int before = scores.size();
+        scores.scaleAndPrune(factor, minScore);
+        referenceMillis = newReferenceMillis;
+
+        // Bütün xallar eyni əmsalla dəyişdiyi üçün sıra qorunur, yalnız dəyərlər yenilənir
+        List<Entry> rescaled = new ArrayList<>(top.size());
+        for (Entry entry : top) {
+            double score = scores.get(entry.most(), entry.least());
+            if (score > 0) {
+                rescaled.add(new Entry(entry.most(), entry.least(), score));
+            }
+        }
+        top.clear();
+        top.addAll(rescaled);
+        dirty = true;
+        log.debug("Trending scores rescaled, {} of {} posts kept", scores.size(), before);
+    }
+
+    private record Entry(long most, long least, double score) {
+    }
+}
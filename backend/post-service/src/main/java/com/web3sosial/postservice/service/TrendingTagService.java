@@ -0,0 +1,126 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.TagTrendDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trending hashtags over a sliding window. The window is a ring of count-min sketches,
+ * one per bucket, plus a running sum of all of them; when a bucket expires it is
+ * subtracted from the sum and cleared. A bounded heavy-hitter table keeps the tags with
+ * the highest estimates. Memory is fixed by the sketch size and the table capacity,
+ * whatever the number of distinct tags. The window starts empty and is refilled from
+ * the last {@code trending-tags.window} of {@code post-search-events}.
+ */
+@Service
+public class TrendingTagService {
+
+    private final long bucketMillis;
+    private final long replayFromMillis;
+    private final int capacity;
+    private final CountMinSketch[] buckets;
+    private final CountMinSketch window;
+    private final Map<String, Long> heavyHitters = new HashMap<>();
+    private long currentBucket;
+
+    public TrendingTagService(@Value("${trending-tags.window:1h}") Duration window,
+                              @Value("${trending-tags.buckets:12}") int bucketCount,
+                              @Value("${trending-tags.sketch-depth:4}") int depth,
+                              @Value("${trending-tags.sketch-width:2048}") int width,
+                              @Value("${trending-tags.capacity:100}") int capacity) {
+        this.bucketMillis = Math.max(1, window.toMillis() / bucketCount);
+        this.capacity = capacity;
+        this.buckets = new CountMinSketch[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinSketch(depth, width);
+        }
+        this.window = new CountMinSketch(depth, width);
+        long now = System.currentTimeMillis();
+        this.currentBucket = now / bucketMillis;
+        this.replayFromMillis = now - window.toMillis();
+    }
+
+    public long replayFromMillis() {
+        return replayFromMillis;
+    }
+
+    public void recordPost(String content, long timestampMillis) {
+        Collection<String> tags = PostEntityExtractor.extract(content).hashtags();
+        if (!tags.isEmpty()) {
+            record(tags, timestampMillis);
+        }
+    }
+
+    private synchronized void record(Collection<String> tags, long timestampMillis) {
+        long bucket = timestampMillis / bucketMillis;
+        if (bucket > currentBucket) {
+            advanceTo(bucket);
+        }
+        // Pəncərədən kənarda qalan köhnə hadisələr (məs. topic replay) sayılmır
+        if (bucket <= currentBucket - buckets.length) {
+            return;
+        }
+        CountMinSketch slot = buckets[(int) Math.floorMod(bucket, (long) buckets.length)];
+        for (String tag : tags) {
+            slot.add(tag, 1);
+            window.add(tag, 1);
+            offer(tag, window.estimate(tag));
+        }
+    }
+
+    public synchronized List<TagTrendDto> top(int limit) {
+        return heavyHitters.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> TagTrendDto.builder().tag(e.getKey()).count(e.getValue()).build())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${trending-tags.advance-interval-ms:10000}")
+    public synchronized void advance() {
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        if (bucket > currentBucket) {
+            advanceTo(bucket);
+        }
+    }
+
+    private void advanceTo(long bucket) {
+        long steps = Math.min(bucket - currentBucket, buckets.length);
+        for (long i = 1; i <= steps; i++) {
+            CountMinSketch expired = buckets[(int) Math.floorMod(currentBucket + i, (long) buckets.length)];
+            window.subtract(expired);
+            expired.clear();
+        }
+        currentBucket = bucket;
+
+        // Qiymətlər köhnəlib, pəncərəyə görə yenidən hesablanır
+        heavyHitters.replaceAll((tag, count) -> window.estimate(tag));
+        heavyHitters.values().removeIf(count -> count <= 0);
+    }
+
+    private void offer(String tag, long estimate) {
+        if (heavyHitters.containsKey(tag) || heavyHitters.size() < capacity) {
+            heavyHitters.put(tag, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = null;
+        for (Map.Entry<String, Long> entry : heavyHitters.entrySet()) {
+            if (weakest == null || entry.getValue() < weakest.getValue()) {
+                weakest = entry;
+            }
+        }
+        if (weakest != null && estimate > weakest.getValue()) {
+            heavyHitters.remove(weakest.getKey());
+            heavyHitters.put(tag, estimate);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.web3sosial.postservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class UserServiceClient {
+
+    private static final int MAX_CACHED_VIEWERS = 50_000;
+
+    private final RestClient restClient;
+    private final long cacheTtlMillis;
+    private final Map<String, CachedFollowing> highFanoutCache = new ConcurrentHashMap<>();
+
+    public UserServiceClient(RestClient.Builder loadBalancedRestClientBuilder,
+                             @Value("${timeline.high-fanout-cache-ttl-ms:60000}") long cacheTtlMillis) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl("http://user-service").build();
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /**
+     * Accounts the viewer follows whose posts are not pushed into timelines. A failure
+     * degrades to an empty list so the materialized timeline is still served.
+     */
+    public List<String> getHighFanoutFollowing(String walletAddress) {
+        long now = System.currentTimeMillis();
+        CachedFollowing cached = highFanoutCache.get(walletAddress);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.addresses();
+        }
+
+        List<String> addresses;
+        try {
+            addresses = restClient.get()
+                    .uri("/api/users/{walletAddress}/following/high-fanout", walletAddress)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<String>>() {});
+        } catch (RestClientException e) {
+            log.warn("High-fanout following lookup failed for {}: {}", walletAddress, e.getMessage());
+            return cached != null ? cached.addresses() : List.of();
+        }
+        if (addresses == null) {
+            addresses = List.of();
+        }
+
+        if (highFanoutCache.size() >= MAX_CACHED_VIEWERS) {
+            highFanoutCache.values().removeIf(c -> c.expiresAt() <= now);
+        }
+        if (highFanoutCache.size() < MAX_CACHED_VIEWERS) {
+            highFanoutCache.put(walletAddress, new CachedFollowing(addresses, now + cacheTtlMillis));
+        }
+        return addresses;
+    }
+
+    /**
+     * Wallet addresses of the given usernames. Unknown names are absent; a failure
+     * resolves nothing, so username mentions are skipped rather than failing the post.
+     */
+    public Map<String, String> resolveUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<String, String> resolved = restClient.post()
+                    .uri("/api/users/usernames/resolve")
+                    .body(List.copyOf(usernames))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, String>>() {});
+            return resolved == null ? Map.of() : resolved;
+        } catch (RestClientException e) {
+            log.warn("Username resolution failed for {}: {}", usernames, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private record CachedFollowing(List<String> addresses, long expiresAt) {
+    }
+}
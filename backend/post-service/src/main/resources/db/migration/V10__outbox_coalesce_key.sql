@@ -0,0 +1,6 @@
+-- Birləşdirilən bildirişlər (alıcı|post|tip) açarı ilə saxlanılır; relay qrupu ən köhnə sətri
+-- pəncərəni keçəndə bütövlükdə göndərir
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS coalesce_key VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_coalesce ON outbox_events (coalesce_key, created_at)
+    WHERE coalesce_key IS NOT NULL;
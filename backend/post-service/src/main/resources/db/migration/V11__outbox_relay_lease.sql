@@ -0,0 +1,10 @@
+-- Relay sətirləri tranzaksiyadan kənarda göndərir; tək aktiv relay bu icarə sətri ilə seçilir
+CREATE TABLE IF NOT EXISTS outbox_relay_lease (
+    id         INT PRIMARY KEY,
+    holder     VARCHAR(64),
+    expires_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO outbox_relay_lease (id, holder, expires_at)
+VALUES (1, NULL, to_timestamp(0))
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,53 @@
+-- Hibernate ddl-auto ilə yaradılmış sxemin başlanğıc halı (mövcud bazalarda heç nə dəyişmir)
+
+CREATE TABLE IF NOT EXISTS posts (
+    id             VARCHAR(255) PRIMARY KEY,
+    wallet_address VARCHAR(255) NOT NULL,
+    content        TEXT,
+    ipfs_hash      VARCHAR(255),
+    media_url      VARCHAR(255),
+    post_type      VARCHAR(255) CHECK (post_type IN ('TEXT', 'IMAGE', 'VIDEO', 'NFT')),
+    likes_count    INTEGER,
+    comments_count INTEGER,
+    reposts_count  INTEGER,
+    is_deleted     BOOLEAN,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_posts_feed ON posts (is_deleted, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_author_feed ON posts (wallet_address, created_at DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id             VARCHAR(255) PRIMARY KEY,
+    post_id        VARCHAR(255) NOT NULL,
+    wallet_address VARCHAR(255) NOT NULL,
+    content        TEXT NOT NULL,
+    likes_count    INTEGER,
+    created_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+    id             VARCHAR(255) PRIMARY KEY,
+    post_id        VARCHAR(255) NOT NULL,
+    wallet_address VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS timeline_entries (
+    id             VARCHAR(255) PRIMARY KEY,
+    owner_address  VARCHAR(255) NOT NULL,
+    post_id        VARCHAR(255) NOT NULL,
+    author_address VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_timeline_owner_post ON timeline_entries (owner_address, post_id);
+CREATE INDEX IF NOT EXISTS idx_timeline_owner_feed ON timeline_entries (owner_address, created_at DESC, post_id DESC);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topic         VARCHAR(255) NOT NULL,
+    aggregate_key VARCHAR(255) NOT NULL,
+    event_type    VARCHAR(255) NOT NULL,
+    payload       TEXT NOT NULL,
+    created_at    TIMESTAMP(6)
+);
@@ -0,0 +1,61 @@
+-- posts cədvəli created_at üzrə aylıq range partition-lara keçirilir.
+-- Partition açarı primary key-in tərkibində olmalıdır, ona görə PK (id, created_at) olur.
+
+ALTER TABLE posts RENAME TO posts_legacy;
+ALTER INDEX IF EXISTS idx_posts_feed RENAME TO idx_posts_legacy_feed;
+ALTER INDEX IF EXISTS idx_posts_author_feed RENAME TO idx_posts_legacy_author_feed;
+
+CREATE TABLE posts (
+    id             VARCHAR(255) NOT NULL,
+    wallet_address VARCHAR(255) NOT NULL,
+    content        TEXT,
+    ipfs_hash      VARCHAR(255),
+    media_url      VARCHAR(255),
+    post_type      VARCHAR(255) CHECK (post_type IN ('TEXT', 'IMAGE', 'VIDEO', 'NFT')),
+    likes_count    INTEGER,
+    comments_count INTEGER,
+    reposts_count  INTEGER,
+    is_deleted     BOOLEAN,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_posts_feed ON posts (is_deleted, created_at DESC, id DESC);
+CREATE INDEX idx_posts_author_feed ON posts (wallet_address, created_at DESC, id DESC);
+
+-- Bir ay üçün partition yaradır (artıq varsa toxunmur), adı posts_pYYYY_MM olur
+CREATE OR REPLACE FUNCTION create_posts_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    start_ts       TIMESTAMP := date_trunc('month', month_start);
+    end_ts         TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT := 'posts_p' || to_char(date_trunc('month', month_start), 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF posts FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_ts, end_ts);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                       date_trunc('month', COALESCE((SELECT min(created_at) FROM posts_legacy), now())),
+                       date_trunc('month', now()) + INTERVAL '3 months',
+                       INTERVAL '1 month')::DATE
+    LOOP
+        PERFORM create_posts_partition(month_start);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO posts (id, wallet_address, content, ipfs_hash, media_url, post_type, likes_count,
+                   comments_count, reposts_count, is_deleted, created_at, updated_at)
+SELECT id, wallet_address, content, ipfs_hash, media_url, post_type, likes_count,
+       comments_count, reposts_count, is_deleted, COALESCE(created_at, updated_at, now()), updated_at
+FROM posts_legacy;
+
+DROP TABLE posts_legacy;
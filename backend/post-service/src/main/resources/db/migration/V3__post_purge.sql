@@ -0,0 +1,28 @@
+-- Silinmiş postların şərh və like-larının fonda təmizlənməsi üçün
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS purged_at TIMESTAMP(6);
+
+-- Yalnız hələ təmizlənməmiş silinmiş postlar indekslənir, ona görə indeks kiçik qalır
+CREATE INDEX IF NOT EXISTS idx_posts_purge_pending ON posts (created_at, id)
+    WHERE is_deleted = TRUE AND purged_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_comments_post ON comments (post_id);
+CREATE INDEX IF NOT EXISTS idx_likes_post ON likes (post_id);
+
+CREATE TABLE IF NOT EXISTS comments_archive (
+    id             VARCHAR(255) PRIMARY KEY,
+    post_id        VARCHAR(255) NOT NULL,
+    wallet_address VARCHAR(255) NOT NULL,
+    content        TEXT NOT NULL,
+    likes_count    INTEGER,
+    created_at     TIMESTAMP(6),
+    archived_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS likes_archive (
+    id             VARCHAR(255) PRIMARY KEY,
+    post_id        VARCHAR(255) NOT NULL,
+    wallet_address VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6),
+    archived_at    TIMESTAMP(6) NOT NULL
+);
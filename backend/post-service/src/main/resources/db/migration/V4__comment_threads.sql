@@ -0,0 +1,13 @@
+-- Bir səviyyəli cavablar: parent_comment_id və hər parent üçün cavab sayı
+
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS parent_comment_id VARCHAR(255);
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS replies_count INTEGER DEFAULT 0;
+
+-- Yuxarı səviyyəli şərhlərin keyset səhifələnməsi üçün
+CREATE INDEX IF NOT EXISTS idx_comments_post_top ON comments (post_id, created_at DESC, id DESC)
+    WHERE parent_comment_id IS NULL;
+-- Hər parent üçün ilk K cavab və cavabların səhifələnməsi üçün
+CREATE INDEX IF NOT EXISTS idx_comments_parent ON comments (parent_comment_id, created_at, id);
+
+ALTER TABLE comments_archive ADD COLUMN IF NOT EXISTS parent_comment_id VARCHAR(255);
+ALTER TABLE comments_archive ADD COLUMN IF NOT EXISTS replies_count INTEGER;
@@ -0,0 +1,2 @@
+-- Axtarış indeksi restartdan sonra yalnız son flush-dan bəri dəyişən postları oxuyur
+CREATE INDEX IF NOT EXISTS idx_posts_updated_at ON posts (updated_at);
@@ -0,0 +1,9 @@
+-- Hashtag → post siyahısı (teq səhifələri üçün)
+CREATE TABLE IF NOT EXISTS post_hashtags (
+    id         VARCHAR(255) PRIMARY KEY,
+    tag        VARCHAR(64)  NOT NULL,
+    post_id    VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_post_hashtags_tag_feed ON post_hashtags (tag, created_at DESC, post_id DESC);
+CREATE INDEX IF NOT EXISTS idx_post_hashtags_post ON post_hashtags (post_id);
@@ -0,0 +1,17 @@
+-- Unikal baxışlar: HyperLogLog sketch-ləri bayt massivi kimi saxlanılır
+CREATE TABLE IF NOT EXISTS post_impressions (
+    post_id    VARCHAR(255) PRIMARY KEY,
+    sketch     BYTEA        NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS author_daily_impressions (
+    author_address VARCHAR(255) NOT NULL,
+    day            DATE         NOT NULL,
+    sketch         BYTEA        NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (author_address, day)
+);
+
+-- Sketch-in son təxmini; feed oxunanda sketch açılmır
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS unique_views BIGINT NOT NULL DEFAULT 0;
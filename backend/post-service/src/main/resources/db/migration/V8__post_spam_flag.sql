@@ -0,0 +1,2 @@
+-- Koordinasiyalı təkrar kimi işarələnmiş postlar (fan-out, axtarış və teqlərə düşmür)
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS flagged BOOLEAN NOT NULL DEFAULT FALSE;
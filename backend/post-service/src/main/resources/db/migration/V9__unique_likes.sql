@@ -0,0 +1,16 @@
+-- Hər cüzdan bir postu bir dəfə bəyənə bilər; like yazışı ON CONFLICT DO NOTHING ilə tək statement-dir
+
+-- Yarışdan qalmış təkrar like-lar silinir, sayğac da düzəldilir
+WITH removed AS (
+    DELETE FROM likes a USING likes b
+    WHERE a.post_id = b.post_id AND a.wallet_address = b.wallet_address AND a.id > b.id
+    RETURNING a.post_id
+)
+UPDATE posts p SET likes_count = GREATEST(0, p.likes_count - r.duplicates)
+FROM (SELECT post_id, count(*) AS duplicates FROM removed GROUP BY post_id) r
+WHERE p.id = r.post_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_likes_post_wallet ON likes (post_id, wallet_address);
+
+-- (post_id) indeksi unikal indeksin prefiksidir
+DROP INDEX IF EXISTS idx_likes_post;
@@ -0,0 +1,64 @@
+package com.web3sosial.postservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Classes copied between services, which are built as separate images and cannot share a
+ * module. The copies must match this service's version apart from the service package
+ * ({@code com.web3sosial.<service>}). The check is skipped when the sibling services are
+ * not checked out next to this one.
+ */
+class SharedSourcesTest {
+
+    private static final Path BACKEND = Path.of("..");
+
+    private static final Pattern SERVICE_PACKAGE = Pattern.compile("com\\.web3sosial\\.\\w+service");
+
+    private static final String POST_SERVICE = "post-service/src/main/java/com/web3sosial/postservice";
+    private static final String USER_SERVICE = "user-service/src/main/java/com/web3sosial/userservice";
+    private static final String NOTIFICATION_SERVICE =
+            "notification-service/src/main/java/com/web3sosial/notificationservice";
+
+    @Test
+    void jsonStreamWriterCopiesAreIdentical() throws IOException {
+        assertIdentical("service/JsonStreamWriter.java", List.of(POST_SERVICE, USER_SERVICE, NOTIFICATION_SERVICE));
+    }
+
+    @Test
+    void activityLogCopiesAreIdentical() throws IOException {
+        assertIdentical("service/ActivityLogService.java", List.of(POST_SERVICE, USER_SERVICE));
+        assertIdentical("service/ActivityLogSegment.java", List.of(POST_SERVICE, USER_SERVICE));
+    }
+
+    @Test
+    void broadcastConsumerCopiesAreIdentical() throws IOException {
+        assertIdentical("config/BroadcastConsumer.java", List.of(POST_SERVICE, USER_SERVICE));
+        assertIdentical("config/KafkaConsumerConfig.java", List.of(POST_SERVICE, USER_SERVICE));
+    }
+
+    private static void assertIdentical(String file, List<String> services) throws IOException {
+        Path own = BACKEND.resolve(services.get(0)).resolve(file);
+        assumeTrue(Files.exists(own), "services are not checked out side by side");
+        List<String> expected = normalized(own);
+        for (String service : services.subList(1, services.size())) {
+            Path copy = BACKEND.resolve(service).resolve(file);
+            assumeTrue(Files.exists(copy), copy + " is not checked out");
+            assertThat(normalized(copy)).as("%s drifted from %s", copy, own).isEqualTo(expected);
+        }
+    }
+
+    private static List<String> normalized(Path path) throws IOException {
+        return Files.readAllLines(path).stream()
+                .map(line -> SERVICE_PACKAGE.matcher(line).replaceAll("com.web3sosial.service"))
+                .toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.web3sosial.postservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AffinityServiceTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private static final String AUTHOR = "0xauthor";
+    private static final String STRANGER = "0xstranger";
+
+    private AffinityService affinityService;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        // Snapshot faylı yoxdur, baza isə yalnız ApplicationReadyEvent-də oxunur
+        affinityService = new AffinityService(null, "target/affinity-service-test/affinity.snap", Duration.ofDays(1),
+                Duration.ofDays(56), Duration.ofMinutes(5), Duration.ofDays(14), Duration.ofHours(6),
+                1.0f, 3.0f, 2.0f, 1000, 0.01f);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void withoutAffinityNewestComesFirstAndTiesKeepInputOrder() {
+        long[] authors = keys(AUTHOR, STRANGER, AUTHOR, STRANGER);
+        long[] createdAt = {now - 30 * MINUTE, now - 10 * MINUTE, now - 10 * MINUTE, now - 50 * MINUTE};
+
+        assertThat(affinityService.rank(null, authors, createdAt, 4, now)).containsExactly(1, 2, 0, 3);
+        assertThat(affinityService.rank("0xnobody", authors, createdAt, 4, now)).containsExactly(1, 2, 0, 3);
+    }
+
+    @Test
+    void likedAuthorOutranksASlightlyNewerStranger() {
+        affinityService.recordLike("0xviewer", AUTHOR, now - DAY);
+
+        long[] authors = keys(STRANGER, AUTHOR);
+        long[] createdAt = {now, now - 60 * MINUTE};
+
+        assertThat(affinityService.rank("0xviewer", authors, createdAt, 2, now)).containsExactly(1, 0);
+        assertThat(affinityService.rank("0xother", authors, createdAt, 2, now)).containsExactly(0, 1);
+    }
+
+    @Test
+    void followedAuthorOutranksASlightlyNewerStranger() {
+        affinityService.recordFollow("0xviewer", AUTHOR, true, now - DAY);
+
+        long[] authors = keys(STRANGER, AUTHOR);
+        long[] createdAt = {now, now - 60 * MINUTE};
+
+        assertThat(affinityService.rank("0xviewer", authors, createdAt, 2, now)).containsExactly(1, 0);
+
+        affinityService.recordFollow("0xviewer", AUTHOR, false, now);
+        assertThat(affinityService.rank("0xviewer", authors, createdAt, 2, now)).containsExactly(0, 1);
+    }
+
+    @Test
+    void unlikeCancelsExactlyThatLike() {
+        affinityService.recordLike("0xviewer", AUTHOR, now - 10 * DAY);
+        affinityService.recordLike("0xviewer", AUTHOR, now - DAY);
+        affinityService.recordUnlike("0xviewer", AUTHOR, now - 10 * DAY);
+        affinityService.recordLike("0xreference", AUTHOR, now - DAY);
+
+        // Müəllif və yad postları növbə ilə; sıra affinity-nin dəqiq qiymətindən asılıdır
+        int count = 40;
+        long[] authors = new long[count];
+        long[] createdAt = new long[count];
+        for (int i = 0; i < count; i++) {
+            authors[i] = AffinityService.authorKey(i % 2 == 0 ? AUTHOR : STRANGER);
+            createdAt[i] = now - i * 15 * MINUTE;
+        }
+
+        int[] viewer = affinityService.rank("0xviewer", authors, createdAt, count, now);
+        assertThat(viewer).containsExactly(affinityService.rank("0xreference", authors, createdAt, count, now));
+        assertThat(viewer).isNotEqualTo(affinityService.rank(null, authors, createdAt, count, now));
+    }
+
+    @Test
+    void scoreNeverDropsBelowZero() {
+        affinityService.recordLike("0xviewer", AUTHOR, now - 30 * DAY);
+        affinityService.recordComment("0xviewer", STRANGER, now - DAY);
+        // Sonrakı vaxtla unlike like-dan çoxunu çıxmağa çalışır
+        affinityService.recordUnlike("0xviewer", AUTHOR, now);
+
+        long[] authors = keys(AUTHOR, "0xthird", AUTHOR, "0xthird");
+        long[] createdAt = {now - 10 * MINUTE, now - 20 * MINUTE, now - 30 * MINUTE, now - 40 * MINUTE};
+
+        assertThat(affinityService.rank("0xviewer", authors, createdAt, 4, now)).containsExactly(0, 1, 2, 3);
+    }
+
+    private static long[] keys(String... authors) {
+        long[] keys = new long[authors.length];
+        for (int i = 0; i < authors.length; i++) {
+            keys[i] = AffinityService.authorKey(authors[i]);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,97 @@
+package com.web3sosial.postservice.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Uzun çəkir və maşından asılıdır: yalnız -Pbenchmark ilə işləyir
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FeedRankingBenchmarkTest {
+
+    private static final int CANDIDATES = 500;
+    private static final int AUTHORS = 5_000;
+    private static final int VIEWERS = 2_000;
+
+    private AffinityService affinityService;
+    private String viewer;
+    private long[] authorKeys;
+    private long[] createdAt;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        // Snapshot faylı yoxdur, baza isə yalnız ApplicationReadyEvent-də oxunur
+        affinityService = new AffinityService(null, "target/feed-ranking/affinity.snap", Duration.ofDays(1),
+                Duration.ofDays(56), Duration.ofMinutes(5), Duration.ofDays(14), Duration.ofHours(6),
+                1.0f, 3.0f, 2.0f, 1000, 0.01f);
+        SplittableRandom random = new SplittableRandom(42);
+        now = System.currentTimeMillis();
+
+        // Hər izləyicinin bir neçə yüz müəlliflə əlaqəsi var; xəritələr limitə qədər dolur
+        for (int v = 0; v < VIEWERS; v++) {
+            String wallet = "0xviewer" + v;
+            for (int i = 0; i < 300; i++) {
+                String author = "0xauthor" + random.nextInt(AUTHORS);
+                long at = now - random.nextLong(Duration.ofDays(60).toMillis());
+                switch (random.nextInt(3)) {
+                    case 0 -> affinityService.recordLike(wallet, author, at);
+                    case 1 -> affinityService.recordComment(wallet, author, at);
+                    default -> affinityService.recordFollow(wallet, author, true, at);
+                }
+            }
+        }
+
+        viewer = "0xviewer0";
+        authorKeys = new long[CANDIDATES];
+        createdAt = new long[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            authorKeys[i] = AffinityService.authorKey("0xauthor" + random.nextInt(AUTHORS));
+            createdAt[i] = now - i * 60_000L;
+        }
+    }
+
+    @Benchmark
+    public int[] rank() {
+        return affinityService.rank(viewer, authorKeys, createdAt, CANDIDATES, now);
+    }
+
+    @Test
+    void rankingFiveHundredCandidatesStaysUnderTenMillisAtP99() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FeedRankingBenchmarkTest.class.getName() + ".rank")
+                .forks(0)
+                .threads(4)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).hasSize(1);
+        double p99 = results.iterator().next().getPrimaryResult().getStatistics().getPercentile(99);
+        assertThat(p99).isLessThan(10.0);
+    }
+}
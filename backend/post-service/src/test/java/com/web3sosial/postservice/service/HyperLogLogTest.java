@@ -0,0 +1,111 @@
+package com.web3sosial.postservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 13;
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    @Test
+    void sparseSketchSurvivesARoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 100);
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes[0]).isEqualTo(FORMAT_SPARSE);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void denseSketchSurvivesARoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 100_000);
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes[0]).isEqualTo(FORMAT_DENSE);
+        // 6 bit registr başına
+        assertThat(bytes).hasSize(2 + ((1 << PRECISION) * 6 + 7) / 8);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void switchesToDenseOnceSparseOutgrowsTheRegisters() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        int added = 0;
+        long before = 0;
+        while (sketch.toBytes()[0] == FORMAT_SPARSE) {
+            before = sketch.estimate();
+            sketch.add("wallet-" + added++);
+        }
+
+        // Sparse cüt ~4 bayt tutur: keçid registrlərin təxminən dörddə biri dolanda olur
+        assertThat(added).isBetween((1 << PRECISION) / 4, (1 << PRECISION) / 3);
+        // Keçid estimatoru dəyişir, amma təxmin sıçramır
+        assertThat((double) sketch.estimate()).isCloseTo(before, within(before * 0.02));
+        assertThat(HyperLogLog.fromBytes(sketch.toBytes()).toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void mergingSparseIntoDenseMatchesAddingDirectly() {
+        HyperLogLog dense = sketchOf(0, 50_000);
+        HyperLogLog sparse = sketchOf(49_900, 50_200);
+        assertThat(sparse.toBytes()[0]).isEqualTo(FORMAT_SPARSE);
+
+        dense.merge(sparse);
+
+        assertThat(dense.toBytes()).isEqualTo(sketchOf(0, 50_200).toBytes());
+    }
+
+    @Test
+    void mergingDenseIntoSparseSwitchesToDense() {
+        HyperLogLog sparse = sketchOf(0, 300);
+        sparse.merge(sketchOf(200, 60_000));
+
+        assertThat(sparse.toBytes()).isEqualTo(sketchOf(0, 60_000).toBytes());
+    }
+
+    @Test
+    void mergingSparseSketchesMatchesAddingDirectly() {
+        HyperLogLog sketch = sketchOf(0, 500);
+        sketch.merge(sketchOf(400, 900));
+
+        assertThat(sketch.toBytes()).isEqualTo(sketchOf(0, 900).toBytes());
+    }
+
+    @Test
+    void rejectsMergingDifferentPrecisions() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+
+        assertThatThrownBy(() -> sketch.merge(new HyperLogLog(PRECISION + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 10_000, 1_000_000})
+    void estimateStaysWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = sketchOf(0, distinct);
+        // Təkrar dəyərlər təxmini dəyişməməlidir
+        sketch.merge(sketchOf(0, Math.min(distinct, 1_000)));
+
+        double standardError = 1.04 / Math.sqrt(1 << PRECISION);
+        assertThat((double) sketch.estimate()).isCloseTo(distinct, within(3 * standardError * distinct));
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add("wallet-" + i);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,122 @@
+package com.web3sosial.postservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+    private static final int BANDS = 10;
+    private static final int ROWS = MinHash.SIZE / BANDS;
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    @Test
+    void findsANearDuplicateButNotUnrelatedText() {
+        NearDuplicateIndex index = new NearDuplicateIndex(64);
+        String original = "limited airdrop today connect your wallet at the link below and claim free tokens before midnight";
+        index.add(MinHash.of(original, 5), 1, 101, 1_000);
+        index.add(MinHash.of("the weather in baku was sunny and warm all week so we went to the seaside", 5), 2, 102, 1_000);
+
+        String copy = "limited airdrop today connect your wallet at the link below and claim free coins before midnight";
+        assertThat(posts(index, MinHash.of(copy, 5), 0.6, 0)).containsExactly(101L);
+
+        String unrelated = "new governance proposal would move treasury votes to a quarterly schedule";
+        assertThat(posts(index, MinHash.of(unrelated, 5), 0.6, 0)).isEmpty();
+    }
+
+    @Test
+    void anEntryMatchingInSeveralBandsIsVisitedOnce() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        index.add(signature(1), 1, 101, 1_000);
+
+        assertThat(posts(index, signature(1), 1.0, 0)).containsExactly(101L);
+    }
+
+    @Test
+    void anEntrySharingOnlyALaterBandIsStillFound() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        int[] stored = signature(1);
+        index.add(stored, 1, 101, 1_000);
+
+        // Yalnız 5-ci band (və band-lardan kənar son komponentlər) eynidir
+        int[] query = signature(2);
+        System.arraycopy(stored, 5 * ROWS, query, 5 * ROWS, ROWS);
+        System.arraycopy(stored, BANDS * ROWS, query, BANDS * ROWS, MinHash.SIZE - BANDS * ROWS);
+
+        assertThat(posts(index, query, 0.0, 0)).containsExactly(101L);
+        assertThat(posts(index, signature(3), 0.0, 0)).isEmpty();
+    }
+
+    @Test
+    void overwrittenEntriesLeaveTheRing() {
+        NearDuplicateIndex index = new NearDuplicateIndex(4);
+        for (int i = 1; i <= 6; i++) {
+            index.add(signature(1), i, 100 + i, 1_000);
+        }
+
+        assertThat(posts(index, signature(1), 1.0, 0)).containsExactly(106L, 105L, 104L, 103L);
+    }
+
+    @Test
+    void removedEntriesAreHiddenWithoutCuttingTheChain() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        index.add(signature(1), 1, 101, 1_000);
+        long middle = index.add(signature(1), 2, 102, 1_000);
+        index.add(signature(1), 3, 103, 1_000);
+
+        index.remove(middle);
+
+        assertThat(posts(index, signature(1), 1.0, 0)).containsExactly(103L, 101L);
+    }
+
+    @Test
+    void postHashCanBeSetAfterAdding() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        long entry = index.add(signature(1), 1, 0, 1_000);
+
+        index.setPostHash(entry, 101);
+
+        assertThat(posts(index, signature(1), 1.0, 0)).containsExactly(101L);
+    }
+
+    @Test
+    void anExpiredEntryDoesNotHideNewerOnesAddedBeforeIt() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        // Replay zamanı canlı hadisə köhnə hadisədən əvvəl əlavə oluna bilər
+        index.add(signature(1), 1, 101, 5_000);
+        index.add(signature(1), 2, 102, 100);
+        index.add(signature(1), 3, 103, 6_000);
+
+        assertThat(posts(index, signature(1), 1.0, 1_000)).containsExactly(103L, 101L);
+    }
+
+    @Test
+    void stopsAfterMaxVisits() {
+        NearDuplicateIndex index = new NearDuplicateIndex(16);
+        for (int i = 1; i <= 5; i++) {
+            index.add(signature(1), i, 100 + i, 1_000);
+        }
+
+        List<Long> found = new ArrayList<>();
+        index.forEachMatch(signature(1), 1.0, 0, 2, (wallet, post, similarity) -> found.add(post));
+
+        assertThat(found).containsExactly(105L, 104L);
+    }
+
+    private static List<Long> posts(NearDuplicateIndex index, int[] signature, double minSimilarity, long cutoff) {
+        List<Long> found = new ArrayList<>();
+        index.forEachMatch(signature, minSimilarity, cutoff, NO_LIMIT, (wallet, post, similarity) -> found.add(post));
+        return found;
+    }
+
+    private static int[] signature(int seed) {
+        int[] signature = new int[MinHash.SIZE];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = seed * 1_000 + i;
+        }
+        return signature;
+    }
+}
@@ -0,0 +1,81 @@
+package com.web3sosial.postservice.service;
+
+import com.web3sosial.postservice.dto.LikeEvent;
+import com.web3sosial.postservice.dto.NotificationEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationCoalescerTest {
+
+    private final NotificationCoalescer coalescer = new NotificationCoalescer();
+
+    NotificationCoalescerTest() {
+        ReflectionTestUtils.setField(coalescer, "sampleSize", 2);
+    }
+
+    @Test
+    void likesOnTheSamePostCollapseIntoTheSlotOfTheFirst() {
+        OutboxMessage likeEvent = new OutboxMessage("like-events", "post-1", new LikeEvent());
+        List<OutboxMessage> result = coalescer.coalesce(List.of(
+                notification("0xauthor", "0xa", "LIKE", "post-1"),
+                likeEvent,
+                notification("0xauthor", "0xb", "LIKE", "post-1"),
+                notification("0xauthor", "0xc", "LIKE", "post-1")));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(1)).isSameAs(likeEvent);
+        NotificationEvent merged = (NotificationEvent) result.get(0).event();
+        assertThat(merged.getCount()).isEqualTo(3);
+        assertThat(merged.getSampleSenders()).containsExactly("0xa", "0xb");
+        assertThat(merged.getMessage()).isEqualTo("0xa və daha 2 nəfər postunu bəyəndi");
+    }
+
+    @Test
+    void groupsAreSeparatedByRecipientPostAndType() {
+        List<OutboxMessage> result = coalescer.coalesce(List.of(
+                notification("0xauthor", "0xa", "LIKE", "post-1"),
+                notification("0xauthor", "0xb", "COMMENT", "post-1"),
+                notification("0xauthor", "0xc", "LIKE", "post-2"),
+                notification("0xother", "0xd", "LIKE", "post-1")));
+
+        assertThat(result).hasSize(4);
+        assertThat(result).allSatisfy(message -> assertThat(((NotificationEvent) message.event()).getCount()).isNull());
+    }
+
+    @Test
+    void alreadyMergedEventsKeepTheirCounts() {
+        NotificationEvent earlier = NotificationEvent.builder()
+                .recipientAddress("0xauthor").senderAddress("0xa").type("LIKE").referenceId("post-1")
+                .count(5).sampleSenders(List.of("0xa", "0xb")).build();
+        List<OutboxMessage> result = coalescer.coalesce(List.of(
+                new OutboxMessage("notifications", "0xauthor", earlier),
+                notification("0xauthor", "0xc", "LIKE", "post-1")));
+
+        NotificationEvent merged = (NotificationEvent) result.get(0).event();
+        assertThat(merged.getCount()).isEqualTo(6);
+        assertThat(merged.getSampleSenders()).containsExactly("0xa", "0xb");
+    }
+
+    @Test
+    void onlyLikeAndCommentNotificationsHaveAGroupKey() {
+        assertThat(NotificationCoalescer.groupKey("notifications",
+                notification("0xauthor", "0xa", "LIKE", "post-1").event())).isEqualTo("0xauthor|post-1|LIKE");
+        assertThat(NotificationCoalescer.groupKey("notifications",
+                notification("0xauthor", "0xa", "MENTION", "post-1").event())).isNull();
+        assertThat(NotificationCoalescer.groupKey("like-events", new LikeEvent())).isNull();
+    }
+
+    private static OutboxMessage notification(String recipient, String sender, String type, String postId) {
+        return new OutboxMessage("notifications", recipient, NotificationEvent.builder()
+                .recipientAddress(recipient)
+                .senderAddress(sender)
+                .type(type)
+                .referenceId(postId)
+                .message(sender + " " + type)
+                .build());
+    }
+}
@@ -0,0 +1,178 @@
+package com.web3sosial.postservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostCounterServiceTest {
+
+    private static final int POSTS = 5;
+    private static final int WALLETS = 200;
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 20_000;
+
+    // posts cədvəlinin likes_count / comments_count sütunları
+    private final Map<String, long[]> storedCounts = new ConcurrentHashMap<>();
+
+    @Test
+    void concurrentLikesAndCommentsMatchTablesAfterFlush() throws Exception {
+        PostCounterService counters = new PostCounterService(recordingJdbcTemplate(), mock(PostCacheService.class));
+
+        // likes cədvəli: (postId, walletAddress) cütləri; comments: hər post üçün sətir sayı
+        Set<String> likes = ConcurrentHashMap.newKeySet();
+        Map<String, Long> comments = new ConcurrentHashMap<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        pool.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                counters.flush();
+            }
+            return null;
+        });
+
+        CountDownLatch writers = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        String postId = "post-" + random.nextInt(POSTS);
+                        String key = postId + "|wallet-" + random.nextInt(WALLETS);
+                        int op = random.nextInt(3);
+                        if (op == 0 && likes.add(key)) {
+                            counters.addLikes(postId, 1);
+                        } else if (op == 1 && likes.remove(key)) {
+                            counters.addLikes(postId, -1);
+                        } else if (op == 2) {
+                            comments.merge(postId, 1L, Long::sum);
+                            counters.addComments(postId, 1);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    writers.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertThat(writers.await(60, TimeUnit.SECONDS)).isTrue();
+        writing.set(false);
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        counters.flushOnShutdown();
+
+        for (int p = 0; p < POSTS; p++) {
+            String postId = "post-" + p;
+            long expectedLikes = likes.stream().filter(k -> k.startsWith(postId + "|")).count();
+            long[] stored = storedCounts.getOrDefault(postId, new long[2]);
+
+            assertThat(stored[0]).as("likes_count of %s", postId).isEqualTo(expectedLikes);
+            assertThat(stored[1]).as("comments_count of %s", postId).isEqualTo(comments.getOrDefault(postId, 0L));
+            assertThat(counters.pendingLikes(postId)).isZero();
+            assertThat(counters.pendingComments(postId)).isZero();
+        }
+    }
+
+    @Test
+    void readsIncludeUnflushedDeltas() {
+        PostCounterService counters = new PostCounterService(recordingJdbcTemplate(), mock(PostCacheService.class));
+
+        counters.addLikes("post-1", 1);
+        counters.addLikes("post-1", 1);
+        counters.addComments("post-1", 1);
+
+        assertThat(counters.pendingLikes("post-1")).isEqualTo(2);
+        assertThat(counters.pendingComments("post-1")).isEqualTo(1);
+
+        counters.flush();
+
+        assertThat(counters.pendingLikes("post-1")).isZero();
+        assertThat(storedCounts.get("post-1")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void flushedDeltaIsNotPendingWhileTheBatchIsWritten() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PostCounterService counters = new PostCounterService(jdbcTemplate, mock(PostCacheService.class));
+        long[] pendingDuringWrite = new long[1];
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            // Batch commit olunan anda sətir artıq yeni sayğacı göstərir
+            pendingDuringWrite[0] = counters.pendingLikes("post-1");
+            return new int[1];
+        });
+
+        counters.addLikes("post-1", 3);
+        counters.flush();
+
+        assertThat(pendingDuringWrite[0]).isZero();
+    }
+
+    @Test
+    void deltasInsideATransactionCountOnlyAfterCommit() {
+        PostCounterService counters = new PostCounterService(recordingJdbcTemplate(), mock(PostCacheService.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counters.addLikes("post-1", 1);
+            counters.addComments("post-1", 1);
+            assertThat(counters.pendingLikes("post-1")).isZero();
+
+            // Rollback: afterCommit çağırılmır, sayğac dəyişmir
+            List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            rolledBack.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(counters.pendingLikes("post-1")).isZero();
+
+            TransactionSynchronizationManager.initSynchronization();
+            counters.addLikes("post-1", 1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(counters.pendingLikes("post-1")).isEqualTo(1);
+        assertThat(counters.pendingComments("post-1")).isZero();
+    }
+
+    private JdbcTemplate recordingJdbcTemplate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            for (Object[] row : batch) {
+                long[] counts = storedCounts.computeIfAbsent((String) row[2], k -> new long[2]);
+                synchronized (counts) {
+                    counts[0] += (Long) row[0];
+                    counts[1] += (Long) row[1];
+                }
+            }
+            return new int[batch.size()];
+        });
+        return jdbcTemplate;
+    }
+}
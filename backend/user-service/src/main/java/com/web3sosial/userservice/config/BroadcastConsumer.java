@@ -0,0 +1,50 @@
+package com.web3sosial.userservice.config;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base for listeners that keep per-instance state in step with a topic. Listeners use a
+ * {@code ${random.uuid}} group on {@code broadcastListenerContainerFactory}, and each
+ * partition is positioned at {@link #replayFromMillis()} less {@code broadcast.replay-margin}
+ * when first assigned, so a restart replays only what the rebuilt state is missing. A
+ * partition taken away and handed back resumes from the time it was revoked.
+ */
+public abstract class BroadcastConsumer implements ConsumerSeekAware {
+
+    @Value("${broadcast.replay-margin:5m}")
+    private Duration replayMargin;
+
+    private final Map<TopicPartition, Long> revokedAt = new ConcurrentHashMap<>();
+
+    /** Time from which events are not yet reflected in the state this listener feeds. */
+    protected abstract long replayFromMillis();
+
+    /** Per-topic override for listeners whose topics are rebuilt differently; 0 replays the whole topic. */
+    protected long replayFromMillis(String topic) {
+        return replayFromMillis();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            Long revoked = revokedAt.remove(partition);
+            long from = revoked != null ? revoked : replayFromMillis(partition.topic());
+            callback.seekToTimestamp(partition.topic(), partition.partition(), Math.max(0, from - replayMargin.toMillis()));
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        long now = System.currentTimeMillis();
+        for (TopicPartition partition : partitions) {
+            revokedAt.put(partition, now);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.web3sosial.userservice.config;
+
+import com.web3sosial.userservice.dto.FollowEvent;
+import com.web3sosial.userservice.service.FollowGraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class FollowGraphConsumer extends BroadcastConsumer {
+
+    private final FollowGraphService followGraphService;
+
+    // Hər instans öz qrafını saxlayır, ona görə qrup id-si unikaldır
+    @KafkaListener(topics = "follow-events", groupId = "user-follow-graph-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(FollowEvent event) {
+        followGraphService.apply(event);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        // Snapshot (və ya baza) anından; təkrar tətbiq zərərsizdir
+        return followGraphService.replayFromMillis();
+    }
+}
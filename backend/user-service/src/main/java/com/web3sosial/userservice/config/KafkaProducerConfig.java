@@ -0,0 +1,23 @@
+package com.web3sosial.userservice.config;
+
+import com.web3sosial.userservice.dto.TimelineFanoutEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Bean
+    public KafkaTemplate<String, Object> outboxKafkaTemplate(
+            ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public KafkaTemplate<String, TimelineFanoutEvent> timelineKafkaTemplate(
+            ProducerFactory<String, TimelineFanoutEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+}
@@ -0,0 +1,22 @@
+package com.web3sosial.userservice.config;
+
+import com.web3sosial.userservice.dto.PostCountEvent;
+import com.web3sosial.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostCountConsumer {
+
+    private final UserService userService;
+
+    @KafkaListener(topics = "post-count-events", groupId = "user-post-count-group")
+    public void consume(PostCountEvent event) {
+        log.debug("Received post count event: {}", event);
+        userService.applyPostCount(event);
+    }
+}
@@ -0,0 +1,22 @@
+package com.web3sosial.userservice.config;
+
+import com.web3sosial.userservice.dto.PostCreatedEvent;
+import com.web3sosial.userservice.service.TimelineFanoutService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostEventConsumer {
+
+    private final TimelineFanoutService timelineFanoutService;
+
+    @KafkaListener(topics = "post-events", groupId = "user-timeline-group")
+    public void consume(PostCreatedEvent event) {
+        log.debug("Received post event: {}", event);
+        timelineFanoutService.fanOut(event);
+    }
+}
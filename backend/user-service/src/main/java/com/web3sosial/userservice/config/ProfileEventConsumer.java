@@ -0,0 +1,26 @@
+package com.web3sosial.userservice.config;
+
+import com.web3sosial.userservice.dto.ProfileUpdatedEvent;
+import com.web3sosial.userservice.service.UsernameIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ProfileEventConsumer extends BroadcastConsumer {
+
+    private final UsernameIndexService usernameIndexService;
+
+    // Hər instans öz indeksini saxlayır, ona görə qrup id-si unikaldır
+    @KafkaListener(topics = "profile-events", groupId = "user-username-index-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory")
+    public void consume(ProfileUpdatedEvent event) {
+        usernameIndexService.apply(event);
+    }
+
+    @Override
+    protected long replayFromMillis() {
+        return usernameIndexService.replayFromMillis();
+    }
+}
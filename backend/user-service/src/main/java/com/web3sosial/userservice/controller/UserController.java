@@ -1,15 +1,26 @@
 package com.web3sosial.userservice.controller;
 
+import com.web3sosial.userservice.dto.CursorPage;
+import com.web3sosial.userservice.dto.FollowIntersectionDto;
+import com.web3sosial.userservice.dto.FollowPage;
 import com.web3sosial.userservice.dto.FollowRequest;
+import com.web3sosial.userservice.dto.RelationshipDto;
+import com.web3sosial.userservice.dto.SuggestionDto;
 import com.web3sosial.userservice.dto.UpdateProfileRequest;
 import com.web3sosial.userservice.dto.UserProfileDto;
+import com.web3sosial.userservice.service.ActivityRecord;
+import com.web3sosial.userservice.service.FollowGraphService;
+import com.web3sosial.userservice.service.TimelineFanoutService;
 import com.web3sosial.userservice.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,6 +28,29 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final TimelineFanoutService timelineFanoutService;
+    private final FollowGraphService followGraphService;
+
+    @GetMapping("/activity")
+    public ResponseEntity<CursorPage<ActivityRecord>> getActivity(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getActivity(cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<UserProfileDto>> searchUsers(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.searchUsers(prefix, size));
+    }
+
+    @GetMapping("/usernames/{username}/availability")
+    public ResponseEntity<Map<String, Boolean>> checkUsernameAvailability(
+            @PathVariable String username,
+            @RequestParam(required = false) String walletAddress) {
+        return ResponseEntity.ok(userService.checkUsernameAvailability(username, walletAddress));
+    }
 
     @GetMapping("/{walletAddress}")
     public ResponseEntity<UserProfileDto> getProfile(@PathVariable String walletAddress) {
@@ -48,12 +82,72 @@ public class UserController {
     }
 
     @GetMapping("/{walletAddress}/followers")
-    public ResponseEntity<List<UserProfileDto>> getFollowers(@PathVariable String walletAddress) {
-        return ResponseEntity.ok(userService.getFollowers(walletAddress));
+    public ResponseEntity<FollowPage> getFollowers(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getFollowers(walletAddress, cursor, size));
     }
 
     @GetMapping("/{walletAddress}/following")
-    public ResponseEntity<List<UserProfileDto>> getFollowing(@PathVariable String walletAddress) {
-        return ResponseEntity.ok(userService.getFollowing(walletAddress));
+    public ResponseEntity<FollowPage> getFollowing(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getFollowing(walletAddress, cursor, size));
+    }
+
+    @GetMapping("/{walletAddress}/followers/export")
+    public ResponseEntity<StreamingResponseBody> exportFollowers(@PathVariable String walletAddress) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService.streamFollowers(walletAddress));
+    }
+
+    @GetMapping("/{walletAddress}/following/export")
+    public ResponseEntity<StreamingResponseBody> exportFollowing(@PathVariable String walletAddress) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService.streamFollowing(walletAddress));
+    }
+
+    @GetMapping("/{walletAddress}/relationship/{otherAddress}")
+    public ResponseEntity<RelationshipDto> getRelationship(
+            @PathVariable String walletAddress,
+            @PathVariable String otherAddress) {
+        return ResponseEntity.ok(followGraphService.relationship(walletAddress, otherAddress));
+    }
+
+    @GetMapping("/{walletAddress}/followers-in-common/{otherAddress}")
+    public ResponseEntity<FollowIntersectionDto> getFollowersInCommon(
+            @PathVariable String walletAddress,
+            @PathVariable String otherAddress,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(followGraphService.followersInCommon(walletAddress, otherAddress, size));
+    }
+
+    @GetMapping("/{walletAddress}/known-followers/{targetAddress}")
+    public ResponseEntity<FollowIntersectionDto> getKnownFollowers(
+            @PathVariable String walletAddress,
+            @PathVariable String targetAddress,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(followGraphService.knownFollowers(walletAddress, targetAddress, size));
+    }
+
+    @GetMapping("/{walletAddress}/suggestions")
+    public ResponseEntity<List<SuggestionDto>> getSuggestions(
+            @PathVariable String walletAddress,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getSuggestions(walletAddress, size));
+    }
+
+    @PostMapping("/usernames/resolve")
+    public ResponseEntity<Map<String, String>> resolveUsernames(@RequestBody List<String> usernames) {
+        return ResponseEntity.ok(userService.resolveUsernames(usernames));
+    }
+
+    @GetMapping("/{walletAddress}/following/high-fanout")
+    public ResponseEntity<List<String>> getHighFanoutFollowing(@PathVariable String walletAddress) {
+        return ResponseEntity.ok(timelineFanoutService.getHighFanoutFollowing(walletAddress));
     }
 }
\ No newline at end of file
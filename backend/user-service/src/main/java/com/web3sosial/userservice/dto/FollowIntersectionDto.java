@@ -0,0 +1,18 @@
+package com.web3sosial.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FollowIntersectionDto {
+    private Integer count;
+    // Yalnız ilk `size` ünvan qaytarılır
+    private List<String> walletAddresses;
+}
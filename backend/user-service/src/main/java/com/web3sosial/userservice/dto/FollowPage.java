@@ -0,0 +1,20 @@
+package com.web3sosial.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FollowPage {
+    private List<UserProfileDto> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    // Profildəki sayğacdan gəlir, COUNT(*) edilmir
+    private Integer totalCount;
+}
@@ -0,0 +1,17 @@
+package com.web3sosial.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostCountEvent {
+    private String authorAddress;
+    private String postId;
+    // Yaradılanda +1, silinəndə -1
+    private Integer delta;
+}
@@ -0,0 +1,18 @@
+package com.web3sosial.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelationshipDto {
+    private String walletAddress;
+    private String otherAddress;
+    private Boolean following;
+    private Boolean followedBy;
+    private Boolean mutual;
+}
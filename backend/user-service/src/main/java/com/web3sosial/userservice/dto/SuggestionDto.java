@@ -0,0 +1,16 @@
+package com.web3sosial.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto {
+    private UserProfileDto profile;
+    // İstifadəçinin izlədiyi neçə hesab bu hesabı izləyir
+    private Integer connections;
+}
@@ -10,7 +10,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "follows")
+// Unikal constraint follower → following axtarışlarının indeksi kimi də işləyir; V2 miqrasiyası onu yaradır
+@Table(name = "follows", indexes = {
+        @Index(name = "idx_follows_following_follower", columnList = "followingAddress, followerAddress"),
+        @Index(name = "idx_follows_following_created", columnList = "followingAddress, createdAt DESC, id DESC"),
+        @Index(name = "idx_follows_follower_created", columnList = "followerAddress, createdAt DESC, id DESC")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_follows_follower_following", columnNames = {"followerAddress", "followingAddress"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,13 +37,14 @@ public class UserProfile {
     @Column
     private String coverUrl;
 
-    @Column
+    // Sayğaclar yalnız yerində artırılır (UserProfileRepository); profil save-i onları yazmır
+    @Column(updatable = false)
     private Integer followersCount = 0;
 
-    @Column
+    @Column(updatable = false)
     private Integer followingCount = 0;
 
-    @Column
+    @Column(updatable = false)
     private Integer postsCount = 0;
 
     @CreationTimestamp
@@ -1,16 +1,91 @@
 package com.web3sosial.userservice.repository;
 
 import com.web3sosial.userservice.entity.Follow;
+import com.web3sosial.userservice.entity.UserProfile;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface FollowRepository extends JpaRepository<Follow, String> {
-    boolean existsByFollowerAddressAndFollowingAddress(String followerAddress, String followingAddress);
-    Optional<Follow> findByFollowerAddressAndFollowingAddress(String followerAddress, String followingAddress);
-    List<Follow> findByFollowerAddress(String followerAddress);
-    List<Follow> findByFollowingAddress(String followingAddress);
-}
\ No newline at end of file
+
+    // Profillər join ilə bir sorğuda gəlir və kursorla oxunur (hər izləyici üçün ayrıca sorğu yoxdur)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Follow f, UserProfile p WHERE p.walletAddress = f.followerAddress " +
+            "AND f.followingAddress = :walletAddress ORDER BY f.createdAt DESC")
+    Stream<UserProfile> streamFollowerProfiles(@Param("walletAddress") String walletAddress);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Follow f, UserProfile p WHERE p.walletAddress = f.followingAddress " +
+            "AND f.followerAddress = :walletAddress ORDER BY f.createdAt DESC")
+    Stream<UserProfile> streamFollowingProfiles(@Param("walletAddress") String walletAddress);
+
+    // Follow qrafı startda bütün cütləri kursorla bir dəfə oxuyur
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT f.followerAddress, f.followingAddress FROM Follow f")
+    Stream<Object[]> streamAllPairs();
+
+    // Keyset səhifələr: (createdAt, id) üzrə indeksdən oxunur, OFFSET yoxdur
+    @Query("SELECT f FROM Follow f WHERE f.followingAddress = :walletAddress " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowersFirstPage(@Param("walletAddress") String walletAddress, Pageable pageable);
+
+    @Query("SELECT f FROM Follow f WHERE f.followingAddress = :walletAddress " +
+            "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowersPageAfter(@Param("walletAddress") String walletAddress,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    @Query("SELECT f FROM Follow f WHERE f.followerAddress = :walletAddress " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowingFirstPage(@Param("walletAddress") String walletAddress, Pageable pageable);
+
+    @Query("SELECT f FROM Follow f WHERE f.followerAddress = :walletAddress " +
+            "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowingPageAfter(@Param("walletAddress") String walletAddress,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    // Tək statement: cüt artıq varsa heç nə yazılmır və 0 qayıdır
+    @Modifying
+    @Query(value = "INSERT INTO follows (id, follower_address, following_address, created_at) " +
+            "VALUES (:id, :followerAddress, :followingAddress, now()) ON CONFLICT (follower_address, following_address) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("followerAddress") String followerAddress,
+                       @Param("followingAddress") String followingAddress);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerAddress = :followerAddress AND f.followingAddress = :followingAddress")
+    int deletePair(@Param("followerAddress") String followerAddress,
+                   @Param("followingAddress") String followingAddress);
+
+    @Query("SELECT f.followerAddress FROM Follow f " +
+            "WHERE f.followingAddress = :followingAddress AND f.followerAddress > :after " +
+            "ORDER BY f.followerAddress")
+    List<String> findFollowerAddressesAfter(@Param("followingAddress") String followingAddress,
+                                            @Param("after") String after,
+                                            Pageable pageable);
+
+    @Query("SELECT f.followingAddress FROM Follow f, UserProfile p " +
+            "WHERE p.walletAddress = f.followingAddress AND f.followerAddress = :followerAddress " +
+            "AND p.followersCount >= :threshold")
+    List<String> findFollowingWithFollowersAtLeast(@Param("followerAddress") String followerAddress,
+                                                   @Param("threshold") int threshold);
+}
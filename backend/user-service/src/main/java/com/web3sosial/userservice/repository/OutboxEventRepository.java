@@ -0,0 +1,9 @@
+package com.web3sosial.userservice.repository;
+
+import com.web3sosial.userservice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
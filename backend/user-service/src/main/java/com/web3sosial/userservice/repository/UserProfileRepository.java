@@ -1,15 +1,67 @@
 package com.web3sosial.userservice.repository;
 
 import com.web3sosial.userservice.entity.UserProfile;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserProfileRepository extends JpaRepository<UserProfile, String> {
     Optional<UserProfile> findByWalletAddress(String walletAddress);
     Optional<UserProfile> findByUsername(String username);
+
+    // uk_user_profiles_username_lower indeksindən oxunur
+    @Query("SELECT p FROM UserProfile p WHERE lower(p.username) = lower(:username)")
+    Optional<UserProfile> findByUsernameIgnoringCase(@Param("username") String username);
     boolean existsByWalletAddress(String walletAddress);
     boolean existsByUsername(String username);
+    List<UserProfile> findByUsernameIn(Collection<String> usernames);
+    List<UserProfile> findByWalletAddressIn(Collection<String> walletAddresses);
+
+    // İstifadəçi adı indeksi startda və periodik olaraq kursorla oxunur
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.walletAddress, p.username, p.followersCount FROM UserProfile p WHERE p.username IS NOT NULL")
+    Stream<Object[]> streamUsernames();
+
+    // Hər iki profil bir statement-də, yerində artırılır; sətir oxunmur
+    @Modifying
+    @Query(value = "UPDATE user_profiles SET " +
+            "following_count = CASE WHEN wallet_address = :followerAddress " +
+            "THEN GREATEST(COALESCE(following_count, 0) + :delta, 0) ELSE following_count END, " +
+            "followers_count = CASE WHEN wallet_address = :followingAddress " +
+            "THEN GREATEST(COALESCE(followers_count, 0) + :delta, 0) ELSE followers_count END " +
+            "WHERE wallet_address IN (:followerAddress, :followingAddress)",
+            nativeQuery = true)
+    int addFollowCounts(@Param("followerAddress") String followerAddress,
+                        @Param("followingAddress") String followingAddress,
+                        @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE user_profiles SET posts_count = GREATEST(COALESCE(posts_count, 0) + :delta, 0) " +
+            "WHERE wallet_address = :walletAddress",
+            nativeQuery = true)
+    int addPostsCount(@Param("walletAddress") String walletAddress, @Param("delta") int delta);
+
+    // (post, delta) applied_post_counts-a yazıla bilmirsə, event artıq tətbiq olunub və sayğac dəyişmir
+    @Modifying
+    @Query(value = "WITH applied AS (INSERT INTO applied_post_counts (post_id, delta) VALUES (:postId, :delta) " +
+            "ON CONFLICT (post_id, delta) DO NOTHING RETURNING post_id) " +
+            "UPDATE user_profiles SET posts_count = GREATEST(COALESCE(posts_count, 0) + :delta, 0) " +
+            "WHERE wallet_address = :walletAddress AND EXISTS (SELECT 1 FROM applied)",
+            nativeQuery = true)
+    int addPostsCountOnce(@Param("walletAddress") String walletAddress,
+                          @Param("postId") String postId,
+                          @Param("delta") int delta);
 }
\ No newline at end of file
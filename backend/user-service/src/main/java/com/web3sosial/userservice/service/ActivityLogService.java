@@ -0,0 +1,253 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.dto.CursorPage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Per-replica audit trail of the activity this replica handled (see
+ * {@link ActivityRecord.Type}), kept on memory-mapped segment files under
+ * {@code activity-log.directory}. Every record gets a sequential offset; a segment is named
+ * after the offset of its first record and rolls once {@code activity-log.segment-size} is
+ * full, and only the newest {@code activity-log.retention-segments} segments are kept.
+ *
+ * <p>It is best-effort and not a source of truth: records are appended after the
+ * surrounding transaction commits, so rolled-back writes never show up, but a crash between
+ * commit and append loses that record, and each replica only sees its own requests. Nothing
+ * may be rebuilt from it; counters and read models come from the database and the outbox.
+ * The page cache is forced to disk every {@code activity-log.flush-interval-ms}.
+ *
+ * <p>Offsets mean nothing on another replica. Each log directory gets a random id on
+ * creation and {@link #page} cursors carry it; a cursor from another log is rejected rather
+ * than read at the wrong position.
+ *
+ * <p>The same class lives in post-service and user-service; the copies must stay identical
+ * apart from the service package, which post-service's {@code SharedSourcesTest} checks.
+ */
+@Service
+@Slf4j
+public class ActivityLogService {
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final int retentionSegments;
+    private volatile String logId;
+
+    private final ConcurrentSkipListMap<Long, ActivityLogSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile ActivityLogSegment active;
+    private boolean dirty;
+
+    public ActivityLogService(@Value("${activity-log.directory:data/activity}") String directory,
+                              @Value("${activity-log.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${activity-log.index-interval:4KB}") DataSize indexInterval,
+                              @Value("${activity-log.retention-segments:16}") int retentionSegments) {
+        if (retentionSegments < 1) {
+            throw new RuntimeException("activity-log.retention-segments must be at least 1");
+        }
+        this.directory = Paths.get(directory);
+        this.segmentBytes = toBytes(segmentSize, "activity-log.segment-size");
+        this.indexIntervalBytes = toBytes(indexInterval, "activity-log.index-interval");
+        this.retentionSegments = retentionSegments;
+        open();
+    }
+
+    /** Records an activity once the current transaction commits, or right away outside one. */
+    public void append(ActivityRecord.Type type, String actor, String target, String reference) {
+        long timestamp = System.currentTimeMillis();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(type, timestamp, actor, target, reference);
+                }
+            });
+        } else {
+            write(type, timestamp, actor, target, reference);
+        }
+    }
+
+    /** Offset of the oldest retained record. */
+    public long startOffset() {
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    /** Offset the next record will get. */
+    public long endOffset() {
+        ActivityLogSegment current = active;
+        return current == null ? 0 : current.nextOffset();
+    }
+
+    /**
+     * Visits up to {@code maxRecords} records starting at {@code fromOffset} (or the oldest
+     * retained one, if that is later) and returns the offset to continue from.
+     */
+    private long read(long fromOffset, int maxRecords, Consumer<ActivityRecord> visitor) {
+        long offset = Math.max(fromOffset, startOffset());
+        int remaining = maxRecords;
+        while (remaining > 0 && offset < endOffset()) {
+            Map.Entry<Long, ActivityLogSegment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            ActivityLogSegment segment = entry.getValue();
+            int[] visited = new int[1];
+            long next = segment.read(offset, remaining, record -> {
+                visitor.accept(record);
+                visited[0]++;
+            });
+            remaining -= visited[0];
+            if (next >= segment.nextOffset() && segment != active) {
+                // Seqment bitib, növbətisindən davam edirik
+                next = segment.nextOffset();
+            } else if (visited[0] == 0) {
+                break;
+            }
+            offset = next;
+        }
+        return offset;
+    }
+
+    /**
+     * One page of records for out-of-process consumers. The cursor is {@code logId:offset};
+     * readers must keep paging against the same replica, a cursor from another one fails.
+     */
+    public CursorPage<ActivityRecord> page(String cursor, Integer size) {
+        String id = logId;
+        if (id == null) {
+            throw new RuntimeException("Activity log is not available");
+        }
+        long from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf(':');
+            if (separator < 0 || !cursor.substring(0, separator).equals(id)) {
+                throw new RuntimeException("Cursor belongs to another activity log, start again without a cursor");
+            }
+            try {
+                from = Long.parseLong(cursor.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        List<ActivityRecord> records = new ArrayList<>();
+        long next = read(from, PageCursor.clampPageSize(size), records::add);
+        return CursorPage.<ActivityRecord>builder()
+                .items(records)
+                .nextCursor(id + ':' + next)
+                .hasMore(next < endOffset())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${activity-log.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (dirty && active != null) {
+            active.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private synchronized void write(ActivityRecord.Type type, long timestamp,
+                                    String actor, String target, String reference) {
+        if (active == null) {
+            return;
+        }
+        String[] fields = {actor, target, reference};
+        try {
+            long offset = active.append(type.code(), timestamp, fields);
+            if (offset < 0) {
+                roll();
+                offset = active.append(type.code(), timestamp, fields);
+            }
+            if (offset < 0) {
+                log.warn("Activity record {} for {} does not fit in a segment, skipped", type, target);
+            }
+            dirty = true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Activity record {} for {} could not be written", type, target, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        ActivityLogSegment previous = active;
+        previous.force();
+        ActivityLogSegment next = ActivityLogSegment.open(directory, previous.nextOffset(), segmentBytes, indexIntervalBytes);
+        segments.put(next.baseOffset(), next);
+        active = next;
+        dropExpiredSegments();
+    }
+
+    private void dropExpiredSegments() throws IOException {
+        while (segments.size() > retentionSegments) {
+            ActivityLogSegment oldest = segments.pollFirstEntry().getValue();
+            oldest.delete();
+            log.info("Activity log dropped segment starting at offset {}", oldest.baseOffset());
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            String id = readOrCreateLogId();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+                for (Path file : files) {
+                    long baseOffset = ActivityLogSegment.parseBaseOffset(file);
+                    segments.put(baseOffset, ActivityLogSegment.open(directory, baseOffset, segmentBytes, indexIntervalBytes));
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.put(0L, ActivityLogSegment.open(directory, 0, segmentBytes, indexIntervalBytes));
+            }
+            active = segments.lastEntry().getValue();
+            // Əvvəllər limitsiz saxlanmış log-lar da startda limitə salınır
+            dropExpiredSegments();
+            logId = id;
+            log.info("Activity log {} opened with {} segments, offsets {}..{}",
+                    id, segments.size(), startOffset(), endOffset());
+        } catch (IOException | RuntimeException e) {
+            // Log olmadan da yazılar davam edir, sadəcə tarixçə qeyd olunmur
+            log.error("Activity log could not be opened, activity is not recorded", e);
+        }
+    }
+
+    // Id qovluqla birlikdə yaşayır: qovluq silinib yenidən yaranarsa köhnə kursorlar etibarsız olur
+    private String readOrCreateLogId() throws IOException {
+        Path file = directory.resolve("log.id");
+        if (Files.exists(file)) {
+            return Files.readString(file).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id);
+        return id;
+    }
+
+    private static int toBytes(DataSize size, String property) {
+        long bytes = size.toBytes();
+        if (bytes < 1 || bytes > Integer.MAX_VALUE) {
+            throw new RuntimeException(property + " must be between 1B and 2GB, was " + size);
+        }
+        return Math.toIntExact(bytes);
+    }
+}
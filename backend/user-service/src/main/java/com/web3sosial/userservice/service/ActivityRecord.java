@@ -0,0 +1,36 @@
+package com.web3sosial.userservice.service;
+
+/**
+ * One entry of the {@link ActivityLogService} log. {@code actor} is the wallet that acted,
+ * {@code target} what it acted on and {@code reference} an optional related id; see
+ * {@link Type} for what each holds.
+ */
+public record ActivityRecord(long offset, Type type, long timestampMillis,
+                             String actor, String target, String reference) {
+
+    /** Record types; the code is what is stored on disk and must never be reused. */
+    public enum Type {
+        // actor = izləyən, target = izlənən
+        FOLLOW(1),
+        UNFOLLOW(2);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        static Type fromCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown activity type " + code);
+        }
+    }
+}
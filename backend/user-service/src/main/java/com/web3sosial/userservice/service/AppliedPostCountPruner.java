@@ -0,0 +1,58 @@
+package com.web3sosial.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Deletes {@code applied_post_counts} rows older than {@code post-counts.dedupe-retention}.
+ * A row only has to outlive every redelivery of its event, and post-count-events cannot be
+ * redelivered once Kafka has dropped it, so the retention must stay above the topic's
+ * retention (7 days by default). Rows go in batches of {@code post-counts.prune-batch-size},
+ * each its own statement, so the table is never locked for long.
+ */
+@Service
+@Slf4j
+public class AppliedPostCountPruner {
+
+    private static final String DELETE_BATCH =
+            "DELETE FROM applied_post_counts WHERE (post_id, delta) IN (" +
+            "SELECT post_id, delta FROM applied_post_counts WHERE applied_at < now() - ? * interval '1 millisecond' LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public AppliedPostCountPruner(JdbcTemplate jdbcTemplate,
+                                  @Value("${post-counts.dedupe-retention:8d}") Duration retention,
+                                  @Value("${post-counts.prune-batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${post-counts.prune-interval-ms:3600000}",
+            initialDelayString = "${post-counts.prune-initial-delay-ms:600000}")
+    public void prune() {
+        long removed = 0;
+        try {
+            int deleted;
+            do {
+                // applied_at DB saatı ilə yazılır, sərhəd də orada hesablanır
+                deleted = jdbcTemplate.update(DELETE_BATCH, retention.toMillis(), batchSize);
+                removed += deleted;
+            } while (deleted == batchSize);
+        } catch (DataAccessException e) {
+            log.warn("Pruning applied post counts stopped after {} rows: {}", removed, e.getMessage());
+            return;
+        }
+        if (removed > 0) {
+            log.info("Pruned {} applied post counts older than {}", removed, retention);
+        }
+    }
+}
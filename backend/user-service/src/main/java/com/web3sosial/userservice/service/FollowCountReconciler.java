@@ -0,0 +1,121 @@
+package com.web3sosial.userservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Repairs drift in {@code followers_count} / {@code following_count}. Follow writes keep
+ * the counters with in-place increments; this job recounts them from {@code follows} for
+ * ranges of wallet addresses, {@code counters.reconcile.parallelism} ranges at a time,
+ * and only rewrites rows whose stored value differs.
+ *
+ * <p>Each range is one short transaction guarded by a transaction-level advisory lock on
+ * its index, so replicas that run at the same time split the ranges between them. A
+ * follow that commits while its range is being recounted can leave that row off by one
+ * until the next run.
+ */
+@Service
+@Slf4j
+public class FollowCountReconciler {
+
+    private static final int RECONCILE_LOCK_CLASS = 0x75736572;
+
+    private static final String CHUNK_BOUNDARIES =
+            "SELECT wallet_address FROM (" +
+            "SELECT wallet_address, row_number() OVER (ORDER BY wallet_address) AS rn FROM user_profiles) t " +
+            "WHERE rn % ? = 0 ORDER BY wallet_address";
+
+    private static final String RECOUNT =
+            "UPDATE user_profiles p SET followers_count = c.followers, following_count = c.following " +
+            "FROM (SELECT u.wallet_address, " +
+            "(SELECT count(*) FROM follows f WHERE f.following_address = u.wallet_address) AS followers, " +
+            "(SELECT count(*) FROM follows f WHERE f.follower_address = u.wallet_address) AS following " +
+            "FROM user_profiles u WHERE u.wallet_address > ? %s) c " +
+            "WHERE p.wallet_address = c.wallet_address " +
+            "AND (p.followers_count IS DISTINCT FROM c.followers OR p.following_count IS DISTINCT FROM c.following)";
+    private static final String RECOUNT_RANGE = String.format(RECOUNT, "AND u.wallet_address <= ?");
+    private static final String RECOUNT_TAIL = String.format(RECOUNT, "");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public FollowCountReconciler(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${counters.reconcile.chunk-size:5000}") int chunkSize,
+                                 @Value("${counters.reconcile.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "follow-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${counters.reconcile.interval-ms:3600000}",
+            initialDelayString = "${counters.reconcile.initial-delay-ms:300000}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        List<String> boundaries;
+        try {
+            boundaries = jdbcTemplate.queryForList(CHUNK_BOUNDARIES, String.class, chunkSize);
+        } catch (DataAccessException e) {
+            log.warn("Follow count reconciliation skipped: {}", e.getMessage());
+            return;
+        }
+
+        // Aralıqlar: ('', b1], (b1, b2], ..., (bn, son)
+        AtomicInteger repaired = new AtomicInteger();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>(boundaries.size() + 1);
+        for (int i = 0; i <= boundaries.size(); i++) {
+            int chunk = i;
+            String from = i == 0 ? "" : boundaries.get(i - 1);
+            String to = i < boundaries.size() ? boundaries.get(i) : null;
+            chunks.add(CompletableFuture.runAsync(() -> repaired.addAndGet(recount(chunk, from, to)), executor));
+        }
+        try {
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException e) {
+            log.warn("Follow count reconciliation finished with errors: {}", e.getMessage());
+        }
+        if (repaired.get() > 0) {
+            log.info("Follow count reconciliation repaired {} profiles in {} ms",
+                    repaired.get(), System.currentTimeMillis() - started);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private int recount(int chunk, String from, String to) {
+        Integer updated = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?, ?)", Boolean.class, RECONCILE_LOCK_CLASS, chunk);
+            if (!Boolean.TRUE.equals(locked)) {
+                return 0;
+            }
+            return to != null
+                    ? jdbcTemplate.update(RECOUNT_RANGE, from, to)
+                    : jdbcTemplate.update(RECOUNT_TAIL, from);
+        });
+        return updated == null ? 0 : updated;
+    }
+}
@@ -0,0 +1,129 @@
+package com.web3sosial.userservice.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable follow graph in compressed sparse row form, one per direction: the accounts
+ * node {@code u} follows are {@code outTargets[outOffsets[u] .. outOffsets[u + 1])} and its
+ * followers the same range of the {@code in} arrays, both sorted by node id so any two
+ * lists intersect with a single merge. Nodes are dense int ids assigned by
+ * {@link FollowGraphService}.
+ */
+final class FollowGraph {
+
+    static final FollowGraph EMPTY = new FollowGraph(0, new int[1], new int[0], new int[1], new int[0]);
+
+    private static final int MAGIC = 0x46474348;
+    private static final int VERSION = 1;
+
+    private final int nodeCount;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+
+    private FollowGraph(int nodeCount, int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inTargets) {
+        this.nodeCount = nodeCount;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inTargets = inTargets;
+    }
+
+    /**
+     * Builds both directions from an edge list (follower → following, no duplicates). The
+     * two directions are built concurrently and adjacency lists are sorted in parallel.
+     */
+    static FollowGraph build(int nodeCount, int[] followers, int[] followings, int edgeCount) {
+        ForkJoinTask<int[][]> in = ForkJoinPool.commonPool().submit(() -> csr(nodeCount, followings, followers, edgeCount));
+        int[][] out = csr(nodeCount, followers, followings, edgeCount);
+        int[][] inverse = in.join();
+        return new FollowGraph(nodeCount, out[0], out[1], inverse[0], inverse[1]);
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int edgeCount() {
+        return outTargets.length;
+    }
+
+    int[] following(int node) {
+        return slice(outOffsets, outTargets, node);
+    }
+
+    int[] followers(int node) {
+        return slice(inOffsets, inTargets, node);
+    }
+
+    boolean follows(int follower, int following) {
+        if (follower >= nodeCount) {
+            return false;
+        }
+        return Arrays.binarySearch(outTargets, outOffsets[follower], outOffsets[follower + 1], following) >= 0;
+    }
+
+    /** Writes the outgoing direction only; {@link #readFrom} rebuilds the other one. */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(nodeCount);
+        out.writeInt(outTargets.length);
+        for (int offset : outOffsets) {
+            out.writeInt(offset);
+        }
+        for (int target : outTargets) {
+            out.writeInt(target);
+        }
+    }
+
+    static FollowGraph readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a follow graph snapshot");
+        }
+        int nodeCount = in.readInt();
+        int edgeCount = in.readInt();
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i <= nodeCount; i++) {
+            offsets[i] = in.readInt();
+        }
+        int[] followings = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            followings[i] = in.readInt();
+        }
+        int[] followers = new int[edgeCount];
+        IntStream.range(0, nodeCount).parallel()
+                .forEach(u -> Arrays.fill(followers, offsets[u], offsets[u + 1], u));
+        return build(nodeCount, followers, followings, edgeCount);
+    }
+
+    private int[] slice(int[] offsets, int[] targets, int node) {
+        if (node >= nodeCount) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+    }
+
+    private static int[][] csr(int nodeCount, int[] from, int[] to, int edgeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[from[i] + 1]++;
+        }
+        Arrays.parallelPrefix(offsets, Integer::sum);
+        int[] targets = new int[edgeCount];
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            targets[cursor[from[i]]++] = to[i];
+        }
+        IntStream.range(0, nodeCount).parallel()
+                .forEach(u -> Arrays.sort(targets, offsets[u], offsets[u + 1]));
+        return new int[][]{offsets, targets};
+    }
+}
@@ -0,0 +1,557 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.dto.FollowEvent;
+import com.web3sosial.userservice.dto.FollowIntersectionDto;
+import com.web3sosial.userservice.dto.RelationshipDto;
+import com.web3sosial.userservice.repository.FollowRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory follow graph for relationship queries. Wallets map to dense int ids and the
+ * edges live in a {@link FollowGraph} (CSR, both directions) plus a small delta of edges
+ * added or removed since it was built; the delta is folded into a new CSR once it grows
+ * past {@code follow-graph.compact-threshold}. Queries intersect sorted id arrays.
+ *
+ * <p>Updates come from {@code follow-events}, which every replica reads. On startup the
+ * graph is loaded from the snapshot file, or rebuilt from {@code follows} if there is no
+ * usable one, and the topic is replayed from shortly before that point. Replaying an
+ * event twice is harmless because follow and unfollow are set operations and events of
+ * one follower stay ordered on their partition.
+ */
+@Service
+@Slf4j
+public class FollowGraphService {
+
+    private final FollowRepository followRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path snapshotFile;
+    private final int compactThreshold;
+    private final long replayFromMillis;
+    private final boolean useSnapshot;
+
+    // Yazanlar (Kafka, kompaktlaşdırma, snapshot) bir-birini gözləyir; oxuyanlar yalnız lock-u
+    private final Object writeMonitor = new Object();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> wallets = new ArrayList<>();
+    private FollowGraph graph = FollowGraph.EMPTY;
+    private final Map<Integer, int[]> addedOut = new HashMap<>();
+    private final Map<Integer, int[]> addedIn = new HashMap<>();
+    private final Map<Integer, int[]> removedOut = new HashMap<>();
+    private final Map<Integer, int[]> removedIn = new HashMap<>();
+    private int deltaEdges;
+
+    private final List<FollowEvent> bufferedEvents = new ArrayList<>();
+    private volatile boolean ready;
+
+    public FollowGraphService(FollowRepository followRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${follow-graph.snapshot-file:data/follow-graph.snap}") String snapshotFile,
+                              @Value("${follow-graph.snapshot-max-age:1d}") Duration snapshotMaxAge,
+                              @Value("${follow-graph.compact-threshold:100000}") int compactThreshold) {
+        this.followRepository = followRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.compactThreshold = compactThreshold;
+
+        // Topic-in haradan oxunacağı consumer qoşulmamışdan əvvəl bilinməlidir
+        long now = System.currentTimeMillis();
+        long snapshotMillis = readSnapshotTimestamp();
+        this.useSnapshot = snapshotMillis > 0 && now - snapshotMillis <= snapshotMaxAge.toMillis();
+        this.replayFromMillis = useSnapshot ? snapshotMillis : now;
+    }
+
+    /**
+     * Time the loaded graph reflects {@code follow-events} up to; the consumer replays from
+     * there less {@code broadcast.replay-margin}.
+     */
+    public long replayFromMillis() {
+        return replayFromMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openOnStartup() {
+        Thread open = new Thread(this::open, "follow-graph-open");
+        open.setDaemon(true);
+        open.start();
+    }
+
+    void open() {
+        long started = System.currentTimeMillis();
+        synchronized (writeMonitor) {
+            try {
+                if (!useSnapshot || !loadSnapshot()) {
+                    buildFromDatabase();
+                }
+            } catch (RuntimeException e) {
+                log.error("Follow graph could not be built, relationship queries stay unavailable", e);
+                return;
+            }
+        }
+        synchronized (bufferedEvents) {
+            bufferedEvents.forEach(this::applyNow);
+            bufferedEvents.clear();
+            ready = true;
+        }
+        log.info("Follow graph ready with {} wallets and {} edges in {} ms",
+                wallets.size(), graph.edgeCount(), System.currentTimeMillis() - started);
+    }
+
+    public void apply(FollowEvent event) {
+        synchronized (bufferedEvents) {
+            if (!ready) {
+                bufferedEvents.add(event);
+                return;
+            }
+        }
+        applyNow(event);
+    }
+
+    public RelationshipDto relationship(String walletAddress, String otherAddress) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            int a = idOf(walletAddress);
+            int b = idOf(otherAddress);
+            boolean following = a >= 0 && b >= 0 && follows(a, b);
+            boolean followedBy = a >= 0 && b >= 0 && follows(b, a);
+            return RelationshipDto.builder()
+                    .walletAddress(walletAddress)
+                    .otherAddress(otherAddress)
+                    .following(following)
+                    .followedBy(followedBy)
+                    .mutual(following && followedBy)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Accounts that follow both {@code walletAddress} and {@code otherAddress}. */
+    public FollowIntersectionDto followersInCommon(String walletAddress, String otherAddress, Integer size) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            int a = idOf(walletAddress);
+            int b = idOf(otherAddress);
+            if (a < 0 || b < 0) {
+                return emptyIntersection();
+            }
+            return intersection(followersOf(a), followersOf(b), PageCursor.clampPageSize(size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Accounts {@code walletAddress} follows that also follow {@code targetAddress}. */
+    public FollowIntersectionDto knownFollowers(String walletAddress, String targetAddress, Integer size) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            int viewer = idOf(walletAddress);
+            int target = idOf(targetAddress);
+            if (viewer < 0 || target < 0) {
+                return emptyIntersection();
+            }
+            return intersection(followingOf(viewer), followersOf(target), PageCursor.clampPageSize(size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code query} against a consistent view of the graph, for callers in this package
+     * that combine several adjacency lists. Follow events wait until it returns, so the
+     * query has to be bounded in time.
+     */
+    <T> T read(Supplier<T> query) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Folds the delta into a new CSR. Queries keep running on the old one while it is
+     * built; only follow events wait.
+     */
+    @Scheduled(fixedDelayString = "${follow-graph.compact-interval-ms:60000}")
+    public void compactIfNeeded() {
+        if (ready && deltaEdges >= compactThreshold) {
+            synchronized (writeMonitor) {
+                compact();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${follow-graph.snapshot-interval-ms:600000}",
+            initialDelayString = "${follow-graph.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!ready) {
+            return;
+        }
+        synchronized (writeMonitor) {
+            compact();
+            try {
+                writeSnapshot();
+            } catch (IOException e) {
+                log.warn("Follow graph snapshot failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private void applyNow(FollowEvent event) {
+        String follower = event.getFollowerAddress();
+        String following = event.getFollowingAddress();
+        if (follower == null || following == null) {
+            return;
+        }
+        synchronized (writeMonitor) {
+            lock.writeLock().lock();
+            try {
+                if (Boolean.TRUE.equals(event.getFollowing())) {
+                    addEdge(idFor(follower), idFor(following));
+                } else {
+                    int u = idOf(follower);
+                    int v = idOf(following);
+                    if (u >= 0 && v >= 0) {
+                        removeEdge(u, v);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void addEdge(int u, int v) {
+        if (graph.follows(u, v)) {
+            if (removeSorted(removedOut, u, v)) {
+                removeSorted(removedIn, v, u);
+                deltaEdges--;
+            }
+        } else if (insertSorted(addedOut, u, v)) {
+            insertSorted(addedIn, v, u);
+            deltaEdges++;
+        }
+    }
+
+    private void removeEdge(int u, int v) {
+        if (graph.follows(u, v)) {
+            if (insertSorted(removedOut, u, v)) {
+                insertSorted(removedIn, v, u);
+                deltaEdges++;
+            }
+        } else if (removeSorted(addedOut, u, v)) {
+            removeSorted(addedIn, v, u);
+            deltaEdges--;
+        }
+    }
+
+    boolean follows(int u, int v) {
+        int[] added = addedOut.get(u);
+        if (added != null && Arrays.binarySearch(added, v) >= 0) {
+            return true;
+        }
+        int[] removed = removedOut.get(u);
+        return graph.follows(u, v) && (removed == null || Arrays.binarySearch(removed, v) < 0);
+    }
+
+    int[] followingOf(int node) {
+        return merge(graph.following(node), addedOut.get(node), removedOut.get(node));
+    }
+
+    int[] followersOf(int node) {
+        return merge(graph.followers(node), addedIn.get(node), removedIn.get(node));
+    }
+
+    private FollowIntersectionDto intersection(int[] a, int[] b, int limit) {
+        int[] common = intersect(a, b);
+        List<String> sample = new ArrayList<>(Math.min(limit, common.length));
+        for (int i = 0; i < common.length && i < limit; i++) {
+            sample.add(wallets.get(common[i]));
+        }
+        return FollowIntersectionDto.builder()
+                .count(common.length)
+                .walletAddresses(sample)
+                .build();
+    }
+
+    private void compact() {
+        if (deltaEdges == 0) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        FollowGraph next;
+        lock.readLock().lock();
+        try {
+            int nodeCount = wallets.size();
+            int[][] lists = IntStream.range(0, nodeCount).parallel()
+                    .mapToObj(this::followingOf)
+                    .toArray(int[][]::new);
+            next = fromAdjacency(nodeCount, lists);
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            graph = next;
+            addedOut.clear();
+            addedIn.clear();
+            removedOut.clear();
+            removedIn.clear();
+            deltaEdges = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Follow graph compacted to {} edges in {} ms", next.edgeCount(), System.currentTimeMillis() - started);
+    }
+
+    private void buildFromDatabase() {
+        int[][] edges = {new int[1 << 16], new int[1 << 16]};
+        int[] edgeCount = new int[1];
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = followRepository.streamAllPairs()) {
+                rows.forEach(row -> {
+                    if (edgeCount[0] == edges[0].length) {
+                        edges[0] = Arrays.copyOf(edges[0], edgeCount[0] * 2);
+                        edges[1] = Arrays.copyOf(edges[1], edgeCount[0] * 2);
+                    }
+                    edges[0][edgeCount[0]] = idFor((String) row[0]);
+                    edges[1][edgeCount[0]] = idFor((String) row[1]);
+                    edgeCount[0]++;
+                });
+            }
+        });
+        graph = FollowGraph.build(wallets.size(), edges[0], edges[1], edgeCount[0]);
+    }
+
+    private boolean loadSnapshot() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            in.readLong();
+            int walletCount = in.readInt();
+            for (int i = 0; i < walletCount; i++) {
+                idFor(in.readUTF());
+            }
+            graph = FollowGraph.readFrom(in);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Follow graph snapshot could not be read, rebuilding from the database: {}", e.getMessage());
+            ids.clear();
+            wallets.clear();
+            return false;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        long started = System.currentTimeMillis();
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = directory.resolve(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeLong(started);
+            out.writeInt(wallets.size());
+            for (String wallet : wallets) {
+                out.writeUTF(wallet);
+            }
+            graph.writeTo(out);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Follow graph snapshot written in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private long readSnapshotTimestamp() {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotFile))) {
+            return in.readLong();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private int idFor(String wallet) {
+        Integer id = ids.get(wallet);
+        if (id == null) {
+            id = wallets.size();
+            ids.put(wallet, id);
+            wallets.add(wallet);
+        }
+        return id;
+    }
+
+    int idOf(String wallet) {
+        Integer id = ids.get(wallet);
+        return id == null ? -1 : id;
+    }
+
+    String walletOf(int id) {
+        return wallets.get(id);
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            throw new RuntimeException("Follow graph is not ready");
+        }
+    }
+
+    private static FollowIntersectionDto emptyIntersection() {
+        return FollowIntersectionDto.builder().count(0).walletAddresses(List.of()).build();
+    }
+
+    private static FollowGraph fromAdjacency(int nodeCount, int[][] lists) {
+        int edgeCount = 0;
+        for (int[] list : lists) {
+            edgeCount += list.length;
+        }
+        int[] followers = new int[edgeCount];
+        int[] followings = new int[edgeCount];
+        int position = 0;
+        for (int u = 0; u < nodeCount; u++) {
+            Arrays.fill(followers, position, position + lists[u].length, u);
+            System.arraycopy(lists[u], 0, followings, position, lists[u].length);
+            position += lists[u].length;
+        }
+        return FollowGraph.build(nodeCount, followers, followings, edgeCount);
+    }
+
+    /** (base − removed) ∪ added; all three sorted. */
+    private static int[] merge(int[] base, int[] added, int[] removed) {
+        if (added == null && removed == null) {
+            return base;
+        }
+        int[] result = new int[base.length + (added == null ? 0 : added.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < base.length || (added != null && j < added.length)) {
+            int next;
+            if (added == null || j >= added.length || (i < base.length && base[i] < added[j])) {
+                next = base[i++];
+                while (removed != null && k < removed.length && removed[k] < next) {
+                    k++;
+                }
+                if (removed != null && k < removed.length && removed[k] == next) {
+                    continue;
+                }
+            } else {
+                next = added[j++];
+            }
+            result[size++] = next;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Sorted-array intersection. When one side is much shorter its elements are looked up
+     * in the other by binary search instead of a linear merge.
+     */
+    static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] result = new int[a.length];
+        int size = 0;
+        if ((long) a.length * 16 < b.length) {
+            int from = 0;
+            for (int value : a) {
+                int found = Arrays.binarySearch(b, from, b.length, value);
+                if (found >= 0) {
+                    result[size++] = value;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[size++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean insertSorted(Map<Integer, int[]> lists, int node, int value) {
+        int[] list = lists.getOrDefault(node, new int[0]);
+        int position = Arrays.binarySearch(list, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        int[] grown = new int[list.length + 1];
+        System.arraycopy(list, 0, grown, 0, position);
+        grown[position] = value;
+        System.arraycopy(list, position, grown, position + 1, list.length - position);
+        lists.put(node, grown);
+        return true;
+    }
+
+    private static boolean removeSorted(Map<Integer, int[]> lists, int node, int value) {
+        int[] list = lists.get(node);
+        int position = list == null ? -1 : Arrays.binarySearch(list, value);
+        if (position < 0) {
+            return false;
+        }
+        if (list.length == 1) {
+            lists.remove(node);
+            return true;
+        }
+        int[] shrunk = new int[list.length - 1];
+        System.arraycopy(list, 0, shrunk, 0, position);
+        System.arraycopy(list, position + 1, shrunk, position, list.length - position - 1);
+        lists.put(node, shrunk);
+        return true;
+    }
+}
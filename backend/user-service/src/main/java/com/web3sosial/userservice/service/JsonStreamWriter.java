@@ -0,0 +1,82 @@
+package com.web3sosial.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a query result as a JSON array straight to the response. Rows are pulled through
+ * a forward-only cursor inside a read-only transaction, each one is serialized with the
+ * streaming generator and then detached, so heap per request stays flat whatever the
+ * number of rows.
+ *
+ * <p>The transaction holds a pooled connection for as long as the client keeps reading, so
+ * it is capped at {@code streaming.max-duration}: the transaction timeout bounds the query,
+ * the row loop gives up once the deadline passes, and
+ * {@code idle_in_transaction_session_timeout} lets Postgres end the session if a client that
+ * stopped reading blocks the writer. {@code spring.mvc.async.request-timeout} must stay
+ * above this cap.
+ *
+ * <p>The same class lives in post-service, user-service and notification-service, which
+ * are built and shipped separately; the copies must stay identical apart from the package
+ * line, and post-service's {@code SharedSourcesTest} fails the build when they drift.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonStreamWriter {
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${streaming.max-duration:60s}")
+    private Duration maxDuration;
+
+    public <E> StreamingResponseBody array(Supplier<Stream<E>> query, Function<E, ?> mapper) {
+        return out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            // Postgres fetch size yalnız autocommit söndürüləndə kursorla oxuyur
+            transaction.setReadOnly(true);
+            transaction.setTimeout((int) maxDuration.toSeconds());
+            long deadline = System.nanoTime() + maxDuration.toNanos();
+            transaction.executeWithoutResult(status -> {
+                // Yavaş klient bağlantını limitsiz saxlamasın: Postgres boş tranzaksiyanı özü bağlayır
+                entityManager.createNativeQuery("SELECT set_config('idle_in_transaction_session_timeout', :ms, true)")
+                        .setParameter("ms", String.valueOf(maxDuration.toMillis()))
+                        .getSingleResult();
+                try (Stream<E> rows = query.get();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    Iterator<E> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        if (System.nanoTime() - deadline > 0) {
+                            throw new RuntimeException("Stream exceeded " + maxDuration + ", aborting");
+                        }
+                        E row = iterator.next();
+                        generator.writeObject(mapper.apply(row));
+                        // Persistence context sətirləri saxlamasın
+                        entityManager.detach(row);
+                    }
+                    generator.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.web3sosial.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@code outbox_events} in id order and publishes each batch before deleting it.
+ * A transaction-scoped advisory lock keeps a single relay active across replicas, which
+ * preserves per-aggregate ordering; delivery is at-least-once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final long RELAY_LOCK_KEY = 0x757365726f7574L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final KafkaTemplate<String, Object> outboxKafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms:200}")
+    @Transactional
+    public void relay() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        List<OutboxRow> rows = jdbcTemplate.query(
+                "SELECT id, topic, aggregate_key, event_type, payload FROM outbox_events ORDER BY id LIMIT ?",
+                (rs, i) -> new OutboxRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5)),
+                batchSize);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            ids.add(row.id());
+            Object event = deserialize(row);
+            if (event != null) {
+                sends.add(outboxKafkaTemplate.send(row.topic(), row.aggregateKey(), event));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Outbox relay interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Tranzaksiya geri qaytarılır, sətirlər növbəti dövrdə yenidən göndərilir
+            log.warn("Outbox relay of {} events failed: {}", rows.size(), e.getMessage());
+            throw new RuntimeException("Outbox relay failed", e);
+        }
+
+        namedParameterJdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+        log.debug("Relayed {} outbox events", rows.size());
+    }
+
+    private Object deserialize(OutboxRow row) {
+        try {
+            return objectMapper.readValue(row.payload(), Class.forName(row.eventType()));
+        } catch (Exception e) {
+            // Oxunmayan sətir relay-i bloklamasın deyə atılır
+            log.error("Dropping unreadable outbox event {} ({})", row.id(), row.eventType(), e);
+            return null;
+        }
+    }
+
+    private record OutboxRow(long id, String topic, String aggregateKey, String eventType, String payload) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.web3sosial.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "Who to follow" from the in-memory follow graph: every account followed by someone the
+ * viewer follows is a candidate, scored by how many of the viewer's followings follow it.
+ * The viewer and accounts they already follow are excluded.
+ *
+ * <p>The followings' adjacency lists are counted with fork/join, each leaf producing a
+ * sorted (id, count) run that is merged on the way up. Work is bounded by
+ * {@code suggestions.time-budget}: viewers with very large followings and high-degree
+ * neighbours are sampled with an even stride, and leaves that start after the deadline
+ * are skipped, so the result gets coarser rather than slower. Results are cached per
+ * viewer for {@code suggestions.cache-ttl}.
+ */
+@Service
+@Slf4j
+public class SuggestionService {
+
+    private static final int MAX_CACHED_VIEWERS = 50_000;
+    private static final int LEAF_NEIGHBOURS = 32;
+
+    private final FollowGraphService followGraphService;
+    private final long cacheTtlMillis;
+    private final long timeBudgetNanos;
+    private final int maxNeighbours;
+    private final int maxNeighbourFanout;
+    private final Map<String, CachedSuggestions> cache = new ConcurrentHashMap<>();
+
+    public SuggestionService(FollowGraphService followGraphService,
+                             @Value("${suggestions.cache-ttl:5m}") Duration cacheTtl,
+                             @Value("${suggestions.time-budget:200ms}") Duration timeBudget,
+                             @Value("${suggestions.max-neighbours:2000}") int maxNeighbours,
+                             @Value("${suggestions.max-neighbour-fanout:5000}") int maxNeighbourFanout) {
+        this.followGraphService = followGraphService;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.maxNeighbours = maxNeighbours;
+        this.maxNeighbourFanout = maxNeighbourFanout;
+    }
+
+    /**
+     * Up to {@code limit} suggestions, best first. Accounts followed since the list was
+     * cached are filtered out on the way out.
+     */
+    public List<Suggestion> suggest(String walletAddress, int limit) {
+        long now = System.currentTimeMillis();
+        CachedSuggestions cached = cache.get(walletAddress);
+        List<Suggestion> ranked;
+        if (cached != null && cached.expiresAt() > now) {
+            ranked = cached.suggestions();
+        } else {
+            ranked = compute(walletAddress);
+            if (cache.size() >= MAX_CACHED_VIEWERS) {
+                cache.values().removeIf(c -> c.expiresAt() <= now);
+            }
+            if (cache.size() < MAX_CACHED_VIEWERS) {
+                cache.put(walletAddress, new CachedSuggestions(ranked, now + cacheTtlMillis));
+            }
+        }
+
+        return followGraphService.read(() -> {
+            int viewer = followGraphService.idOf(walletAddress);
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (Suggestion suggestion : ranked) {
+                if (result.size() == limit) {
+                    break;
+                }
+                int candidate = followGraphService.idOf(suggestion.walletAddress());
+                if (viewer < 0 || candidate < 0 || !followGraphService.follows(viewer, candidate)) {
+                    result.add(suggestion);
+                }
+            }
+            return result;
+        });
+    }
+
+    private List<Suggestion> compute(String walletAddress) {
+        long started = System.nanoTime();
+        long deadline = started + timeBudgetNanos;
+        AtomicBoolean truncated = new AtomicBoolean();
+
+        List<Suggestion> ranked = followGraphService.read(() -> {
+            int viewer = followGraphService.idOf(walletAddress);
+            if (viewer < 0) {
+                return List.of();
+            }
+            int[] following = followGraphService.followingOf(viewer);
+            int[] neighbours = sample(following, maxNeighbours);
+            if (neighbours.length < following.length) {
+                truncated.set(true);
+            }
+
+            Scores scores = ForkJoinPool.commonPool()
+                    .invoke(new CountTask(neighbours, 0, neighbours.length, deadline, truncated));
+            return top(viewer, following, scores, PageCursor.MAX_PAGE_SIZE);
+        });
+
+        if (truncated.get()) {
+            log.debug("Suggestions for {} sampled to fit the time budget ({} ms)",
+                    walletAddress, (System.nanoTime() - started) / 1_000_000);
+        }
+        return ranked;
+    }
+
+    /** Highest scores first, ties to the older account; skips the viewer and their followings. */
+    private List<Suggestion> top(int viewer, int[] following, Scores scores, int limit) {
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> scores.counts[a] != scores.counts[b]
+                ? Integer.compare(scores.counts[a], scores.counts[b])
+                : Integer.compare(scores.ids[b], scores.ids[a]));
+        int f = 0;
+        for (int i = 0; i < scores.size; i++) {
+            int candidate = scores.ids[i];
+            // Hər iki massiv sıralıdır, ona görə followings üzərində irəli gedirik
+            while (f < following.length && following[f] < candidate) {
+                f++;
+            }
+            if (candidate == viewer || (f < following.length && following[f] == candidate)) {
+                continue;
+            }
+            best.add(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        Suggestion[] result = new Suggestion[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            int index = best.poll();
+            result[i] = new Suggestion(followGraphService.walletOf(scores.ids[index]), scores.counts[index]);
+        }
+        return List.of(result);
+    }
+
+    /** Every {@code length / max}-th element when there are more than {@code max}. */
+    private static int[] sample(int[] ids, int max) {
+        if (ids.length <= max) {
+            return ids;
+        }
+        int[] sampled = new int[max];
+        for (int i = 0; i < max; i++) {
+            sampled[i] = ids[(int) ((long) i * ids.length / max)];
+        }
+        return sampled;
+    }
+
+    /** Candidate ids in ascending order with their counts; the first {@code size} entries are used. */
+    private record Scores(int[] ids, int[] counts, int size) {
+
+        static final Scores EMPTY = new Scores(new int[0], new int[0], 0);
+
+        static Scores merge(Scores a, Scores b) {
+            int[] ids = new int[a.size + b.size];
+            int[] counts = new int[ids.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                if (j >= b.size || (i < a.size && a.ids[i] < b.ids[j])) {
+                    ids[size] = a.ids[i];
+                    counts[size++] = a.counts[i++];
+                } else if (i >= a.size || b.ids[j] < a.ids[i]) {
+                    ids[size] = b.ids[j];
+                    counts[size++] = b.counts[j++];
+                } else {
+                    ids[size] = a.ids[i];
+                    counts[size++] = a.counts[i++] + b.counts[j++];
+                }
+            }
+            return new Scores(ids, counts, size);
+        }
+    }
+
+    private final class CountTask extends RecursiveTask<Scores> {
+
+        private final int[] neighbours;
+        private final int from;
+        private final int to;
+        private final long deadline;
+        private final AtomicBoolean truncated;
+
+        CountTask(int[] neighbours, int from, int to, long deadline, AtomicBoolean truncated) {
+            this.neighbours = neighbours;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+            this.truncated = truncated;
+        }
+
+        @Override
+        protected Scores compute() {
+            if (to - from > LEAF_NEIGHBOURS) {
+                int middle = (from + to) >>> 1;
+                CountTask left = new CountTask(neighbours, from, middle, deadline, truncated);
+                left.fork();
+                Scores right = new CountTask(neighbours, middle, to, deadline, truncated).compute();
+                return Scores.merge(left.join(), right);
+            }
+            if (System.nanoTime() > deadline) {
+                truncated.set(true);
+                return Scores.EMPTY;
+            }
+
+            // Qonşuların follow siyahılarını birləşdirib sıralayırıq, sonra təkrarları sayırıq
+            int[][] lists = new int[to - from][];
+            int total = 0;
+            for (int i = from; i < to; i++) {
+                int[] list = followGraphService.followingOf(neighbours[i]);
+                if (list.length > maxNeighbourFanout) {
+                    list = sample(list, maxNeighbourFanout);
+                    truncated.set(true);
+                }
+                lists[i - from] = list;
+                total += list.length;
+            }
+            int[] all = new int[total];
+            int position = 0;
+            for (int[] list : lists) {
+                System.arraycopy(list, 0, all, position, list.length);
+                position += list.length;
+            }
+            Arrays.sort(all);
+
+            int[] ids = new int[total];
+            int[] counts = new int[total];
+            int size = 0;
+            for (int i = 0; i < total; i++) {
+                if (size > 0 && ids[size - 1] == all[i]) {
+                    counts[size - 1]++;
+                } else {
+                    ids[size] = all[i];
+                    counts[size++] = 1;
+                }
+            }
+            return new Scores(ids, counts, size);
+        }
+    }
+
+    public record Suggestion(String walletAddress, int connections) {
+    }
+
+    private record CachedSuggestions(List<Suggestion> suggestions, long expiresAt) {
+    }
+}
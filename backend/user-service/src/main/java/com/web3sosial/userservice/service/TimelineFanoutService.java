@@ -0,0 +1,78 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.dto.PostCreatedEvent;
+import com.web3sosial.userservice.dto.TimelineFanoutEvent;
+import com.web3sosial.userservice.repository.FollowRepository;
+import com.web3sosial.userservice.repository.UserProfileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes new posts into follower timelines kept by post-service. Authors at or above
+ * the high-fanout threshold are only pushed to themselves; post-service pulls their
+ * posts at read time.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineFanoutService {
+
+    private final FollowRepository followRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final KafkaTemplate<String, TimelineFanoutEvent> timelineKafkaTemplate;
+
+    @Value("${timeline.high-fanout-threshold:10000}")
+    private int highFanoutThreshold;
+
+    @Value("${timeline.fanout-batch-size:1000}")
+    private int batchSize;
+
+    public void fanOut(PostCreatedEvent event) {
+        String author = event.getAuthorAddress();
+
+        // Müəllif öz postunu həmişə öz timeline-ında görür
+        send(event, List.of(author));
+
+        if (isHighFanout(author)) {
+            return;
+        }
+
+        String after = "";
+        while (true) {
+            List<String> followers = followRepository.findFollowerAddressesAfter(
+                    author, after, PageRequest.of(0, batchSize));
+            if (followers.isEmpty()) {
+                return;
+            }
+            send(event, followers);
+            if (followers.size() < batchSize) {
+                return;
+            }
+            after = followers.get(followers.size() - 1);
+        }
+    }
+
+    public boolean isHighFanout(String walletAddress) {
+        return userProfileRepository.findByWalletAddress(walletAddress)
+                .map(p -> p.getFollowersCount() != null && p.getFollowersCount() >= highFanoutThreshold)
+                .orElse(false);
+    }
+
+    public List<String> getHighFanoutFollowing(String walletAddress) {
+        return followRepository.findFollowingWithFollowersAtLeast(walletAddress, highFanoutThreshold);
+    }
+
+    private void send(PostCreatedEvent event, List<String> recipients) {
+        timelineKafkaTemplate.send("timeline-fanout", event.getAuthorAddress(), TimelineFanoutEvent.builder()
+                .postId(event.getPostId())
+                .authorAddress(event.getAuthorAddress())
+                .createdAt(event.getCreatedAt())
+                .recipientAddresses(new ArrayList<>(recipients))
+                .build());
+    }
+}
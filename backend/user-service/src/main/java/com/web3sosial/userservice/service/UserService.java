@@ -1,7 +1,13 @@
 package com.web3sosial.userservice.service;
 
+import com.web3sosial.userservice.dto.CursorPage;
+import com.web3sosial.userservice.dto.FollowEvent;
+import com.web3sosial.userservice.dto.FollowPage;
 import com.web3sosial.userservice.dto.FollowRequest;
 import com.web3sosial.userservice.dto.NotificationEvent;
+import com.web3sosial.userservice.dto.PostCountEvent;
+import com.web3sosial.userservice.dto.ProfileUpdatedEvent;
+import com.web3sosial.userservice.dto.SuggestionDto;
 import com.web3sosial.userservice.dto.UpdateProfileRequest;
 import com.web3sosial.userservice.dto.UserProfileDto;
 import com.web3sosial.userservice.entity.Follow;
@@ -9,21 +15,37 @@ import com.web3sosial.userservice.entity.UserProfile;
 import com.web3sosial.userservice.repository.FollowRepository;
 import com.web3sosial.userservice.repository.UserProfileRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    // Yalnız boşluqsuz ASCII: Java və Postgres lower() eyni cür kiçildir
+    private static final Pattern USERNAME = Pattern.compile("[\\x21-\\x7E]+");
+
     private final UserProfileRepository userProfileRepository;
     private final FollowRepository followRepository;
-    private final KafkaTemplate<String, NotificationEvent> kafkaTemplate;
-
+    private final OutboxService outboxService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final ActivityLogService activityLogService;
+    private final SuggestionService suggestionService;
+    private final UsernameIndexService usernameIndexService;
 
     public UserProfileDto getProfile(String walletAddress) {
         UserProfile profile = userProfileRepository.findByWalletAddress(walletAddress)
@@ -46,12 +68,16 @@ public class UserService {
         return mapToDto(userProfileRepository.save(profile));
     }
 
+    @Transactional
     public UserProfileDto updateProfile(String walletAddress, UpdateProfileRequest request) {
         UserProfile profile = userProfileRepository.findByWalletAddress(walletAddress)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (request.getUsername() != null) {
-            if (userProfileRepository.existsByUsername(request.getUsername())) {
+        boolean usernameChanged = request.getUsername() != null && !request.getUsername().equals(profile.getUsername());
+        if (usernameChanged) {
+            requireValidUsername(request.getUsername());
+            // Yaddaşdakı indeks bazaya getmədən yoxlayır; eyni anda iki iddianı unikal indeks həll edir
+            if (!usernameIndexService.isAvailable(request.getUsername(), walletAddress)) {
                 throw new RuntimeException("Username already taken");
             }
             profile.setUsername(request.getUsername());
@@ -61,40 +87,66 @@ public class UserService {
         if (request.getAvatarUrl() != null) profile.setAvatarUrl(request.getAvatarUrl());
         if (request.getCoverUrl() != null) profile.setCoverUrl(request.getCoverUrl());
 
-        return mapToDto(userProfileRepository.save(profile));
+        UserProfile saved;
+        try {
+            saved = userProfileRepository.saveAndFlush(profile);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Username already taken");
+        }
+
+        if (usernameChanged) {
+            usernameIndexService.recordChange(walletAddress, saved.getUsername());
+            outboxService.enqueue("profile-events", walletAddress, ProfileUpdatedEvent.builder()
+                    .walletAddress(walletAddress)
+                    .username(saved.getUsername())
+                    .build());
+        }
+        return mapToDto(saved);
+    }
+
+    public Map<String, Boolean> checkUsernameAvailability(String username, String walletAddress) {
+        if (username == null || username.isBlank()) {
+            throw new RuntimeException("Username is required");
+        }
+        requireValidUsername(username);
+        return Map.of("available", usernameIndexService.isAvailable(username, walletAddress));
+    }
+
+    /** Username autocomplete from the in-memory index, hydrated with one IN query. */
+    public List<UserProfileDto> searchUsers(String prefix, Integer size) {
+        List<UsernameIndexService.Entry> matches = usernameIndexService.search(prefix, PageCursor.clampPageSize(size));
+        Map<String, UserProfile> profiles = userProfileRepository.findByWalletAddressIn(
+                        matches.stream().map(UsernameIndexService.Entry::walletAddress).toList())
+                .stream()
+                .collect(Collectors.toMap(UserProfile::getWalletAddress, Function.identity()));
+
+        // Sıra indeksdən gəlir; bu arada silinmiş profillər atlanır
+        return matches.stream()
+                .map(m -> profiles.get(m.walletAddress()))
+                .filter(Objects::nonNull)
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
     }
 
+    @Transactional
     public void follow(FollowRequest request) {
         if (request.getFollowerAddress().equals(request.getFollowingAddress())) {
             throw new RuntimeException("Cannot follow yourself");
         }
 
-        if (followRepository.existsByFollowerAddressAndFollowingAddress(
-                request.getFollowerAddress(), request.getFollowingAddress())) {
-            throw new RuntimeException("Already following");
+        // İdempotent: təkrar follow heç nəyi dəyişmir, sayğac və bildiriş yalnız yeni sətirdə
+        int inserted = followRepository.insertIfAbsent(UUID.randomUUID().toString(),
+                request.getFollowerAddress(), request.getFollowingAddress());
+        if (inserted == 0) {
+            return;
         }
+        enqueueFollowEvent(request, true);
+        activityLogService.append(ActivityRecord.Type.FOLLOW, request.getFollowerAddress(), request.getFollowingAddress(), null);
 
-        Follow follow = Follow.builder()
-                .followerAddress(request.getFollowerAddress())
-                .followingAddress(request.getFollowingAddress())
-                .build();
-
-        followRepository.save(follow);
-
-        userProfileRepository.findByWalletAddress(request.getFollowerAddress())
-                .ifPresent(p -> {
-                    p.setFollowingCount(p.getFollowingCount() + 1);
-                    userProfileRepository.save(p);
-                });
+        userProfileRepository.addFollowCounts(request.getFollowerAddress(), request.getFollowingAddress(), 1);
 
-        userProfileRepository.findByWalletAddress(request.getFollowingAddress())
-                .ifPresent(p -> {
-                    p.setFollowersCount(p.getFollowersCount() + 1);
-                    userProfileRepository.save(p);
-                });
-
-        // Kafka event göndər
-        kafkaTemplate.send("notifications", NotificationEvent.builder()
+        // Kafka event outbox vasitəsilə göndərilir
+        outboxService.enqueue("notifications", request.getFollowingAddress(), NotificationEvent.builder()
                 .recipientAddress(request.getFollowingAddress())
                 .senderAddress(request.getFollowerAddress())
                 .type("FOLLOW")
@@ -103,44 +155,154 @@ public class UserService {
                 .build());
     }
 
+    @Transactional
     public void unfollow(FollowRequest request) {
-        Follow follow = followRepository.findByFollowerAddressAndFollowingAddress(
-                        request.getFollowerAddress(), request.getFollowingAddress())
-                .orElseThrow(() -> new RuntimeException("Not following"));
+        int deleted = followRepository.deletePair(request.getFollowerAddress(), request.getFollowingAddress());
+        if (deleted == 0) {
+            return;
+        }
+        enqueueFollowEvent(request, false);
+        activityLogService.append(ActivityRecord.Type.UNFOLLOW, request.getFollowerAddress(), request.getFollowingAddress(), null);
+
+        userProfileRepository.addFollowCounts(request.getFollowerAddress(), request.getFollowingAddress(), -1);
+    }
+
+    /**
+     * Applies a post's +1/-1 to its author's {@code posts_count}. post-count-events is
+     * delivered at least once, so each (post, delta) is applied only the first time it is seen.
+     */
+    @Transactional
+    public void applyPostCount(PostCountEvent event) {
+        if (event.getAuthorAddress() == null || event.getDelta() == null) {
+            return;
+        }
+        if (event.getPostId() == null) {
+            userProfileRepository.addPostsCount(event.getAuthorAddress(), event.getDelta());
+            return;
+        }
+        userProfileRepository.addPostsCountOnce(event.getAuthorAddress(), event.getPostId(), Integer.signum(event.getDelta()));
+    }
+
+    // post-service lent sıralaması üçün izləmə əlaqələrini bu topic-dən oxuyur
+    private void enqueueFollowEvent(FollowRequest request, boolean following) {
+        outboxService.enqueue("follow-events", request.getFollowerAddress(), FollowEvent.builder()
+                .followerAddress(request.getFollowerAddress())
+                .followingAddress(request.getFollowingAddress())
+                .following(following)
+                .build());
+    }
+
+    /**
+     * username → walletAddress for the given usernames; unknown names are left out.
+     */
+    public Map<String, String> resolveUsernames(List<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        if (usernames.size() > 100) {
+            throw new RuntimeException("Too many usernames");
+        }
+        return userProfileRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(UserProfile::getUsername, UserProfile::getWalletAddress));
+    }
+
+    public FollowPage getFollowers(String walletAddress, String cursor, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<Follow> rows = after == null
+                ? followRepository.findFollowersFirstPage(walletAddress, page)
+                : followRepository.findFollowersPageAfter(walletAddress, after.createdAt(), after.id(), page);
+        return toFollowPage(walletAddress, rows, pageSize, Follow::getFollowerAddress, UserProfile::getFollowersCount);
+    }
 
-        followRepository.delete(follow);
+    public FollowPage getFollowing(String walletAddress, String cursor, Integer size) {
+        int pageSize = PageCursor.clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<Follow> rows = after == null
+                ? followRepository.findFollowingFirstPage(walletAddress, page)
+                : followRepository.findFollowingPageAfter(walletAddress, after.createdAt(), after.id(), page);
+        return toFollowPage(walletAddress, rows, pageSize, Follow::getFollowingAddress, UserProfile::getFollowingCount);
+    }
 
-        userProfileRepository.findByWalletAddress(request.getFollowerAddress())
-                .ifPresent(p -> {
-                    p.setFollowingCount(Math.max(0, p.getFollowingCount() - 1));
-                    userProfileRepository.save(p);
-                });
+    public StreamingResponseBody streamFollowers(String walletAddress) {
+        return jsonStreamWriter.array(() -> followRepository.streamFollowerProfiles(walletAddress), this::mapToDto);
+    }
 
-        userProfileRepository.findByWalletAddress(request.getFollowingAddress())
-                .ifPresent(p -> {
-                    p.setFollowersCount(Math.max(0, p.getFollowersCount() - 1));
-                    userProfileRepository.save(p);
-                });
+    public StreamingResponseBody streamFollowing(String walletAddress) {
+        return jsonStreamWriter.array(() -> followRepository.streamFollowingProfiles(walletAddress), this::mapToDto);
     }
 
-    public List<UserProfileDto> getFollowers(String walletAddress) {
-        return followRepository.findByFollowingAddress(walletAddress)
+    public List<SuggestionDto> getSuggestions(String walletAddress, Integer size) {
+        List<SuggestionService.Suggestion> suggestions =
+                suggestionService.suggest(walletAddress, PageCursor.clampPageSize(size));
+        Map<String, UserProfile> profiles = userProfileRepository.findByWalletAddressIn(
+                        suggestions.stream().map(SuggestionService.Suggestion::walletAddress).toList())
                 .stream()
-                .map(f -> userProfileRepository.findByWalletAddress(f.getFollowerAddress())
-                        .map(this::mapToDto)
-                        .orElse(null))
-                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(UserProfile::getWalletAddress, Function.identity()));
+
+        return suggestions.stream()
+                .map(s -> {
+                    UserProfile profile = profiles.get(s.walletAddress());
+                    return SuggestionDto.builder()
+                            .profile(profile != null ? mapToDto(profile) : placeholderDto(s.walletAddress()))
+                            .connections(s.connections())
+                            .build();
+                })
                 .collect(Collectors.toList());
     }
 
-    public List<UserProfileDto> getFollowing(String walletAddress) {
-        return followRepository.findByFollowerAddress(walletAddress)
-                .stream()
-                .map(f -> userProfileRepository.findByWalletAddress(f.getFollowingAddress())
-                        .map(this::mapToDto)
-                        .orElse(null))
-                .filter(Objects::nonNull)
+    public CursorPage<ActivityRecord> getActivity(String cursor, Integer size) {
+        return activityLogService.page(cursor, size);
+    }
+
+    /**
+     * Hydrates one page of follow rows with a single IN query, which also fetches the
+     * owner's profile for the total count.
+     */
+    private FollowPage toFollowPage(String walletAddress, List<Follow> rows, int pageSize,
+                                    Function<Follow, String> other, Function<UserProfile, Integer> counter) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Follow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Set<String> wallets = new HashSet<>();
+        wallets.add(walletAddress);
+        page.forEach(f -> wallets.add(other.apply(f)));
+        Map<String, UserProfile> profiles = userProfileRepository.findByWalletAddressIn(wallets).stream()
+                .collect(Collectors.toMap(UserProfile::getWalletAddress, Function.identity()));
+
+        // Profili olmayan ünvanlar yalnız wallet ilə qaytarılır
+        List<UserProfileDto> items = page.stream()
+                .map(f -> {
+                    UserProfile profile = profiles.get(other.apply(f));
+                    return profile != null ? mapToDto(profile) : placeholderDto(other.apply(f));
+                })
                 .collect(Collectors.toList());
+
+        UserProfile owner = profiles.get(walletAddress);
+        Follow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return FollowPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? new PageCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .totalCount(owner != null && counter.apply(owner) != null ? counter.apply(owner) : 0)
+                .build();
+    }
+
+    private static void requireValidUsername(String username) {
+        if (!USERNAME.matcher(username).matches()) {
+            throw new RuntimeException("Username may only contain ASCII letters, digits and symbols");
+        }
+    }
+
+    private UserProfileDto placeholderDto(String walletAddress) {
+        return UserProfileDto.builder()
+                .walletAddress(walletAddress)
+                .followersCount(0)
+                .followingCount(0)
+                .postsCount(0)
+                .build();
     }
 
     private UserProfileDto mapToDto(UserProfile profile) {
@@ -0,0 +1,246 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.dto.ProfileUpdatedEvent;
+import com.web3sosial.userservice.repository.UserProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory username index for autocomplete and availability checks. Usernames are
+ * case-folded and kept in a sorted map keyed by {@code folded name + '\0' + wallet}, so a
+ * prefix is one contiguous range and a name's holders sit next to each other.
+ *
+ * <p>The index is loaded from {@code user_profiles} at startup and re-read every
+ * {@code username-index.refresh-interval-ms}, which also refreshes the follower counts
+ * used for ranking. Username changes are applied on commit locally and on every other
+ * replica through {@code profile-events}, replayed from the index's creation on startup.
+ * The index only answers "probably free"; the unique index on {@code lower(username)}
+ * still decides concurrent claims.
+ *
+ * <p>Prefix search needs at least {@code username-index.min-prefix-length} characters and
+ * looks at no more than {@code username-index.max-scan} names, so a very common prefix
+ * ranks a subset of its matches instead of walking the whole index.
+ */
+@Service
+@Slf4j
+public class UsernameIndexService {
+
+    private final UserProfileRepository userProfileRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int minPrefixLength;
+    private final int maxScan;
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    private final ConcurrentSkipListMap<String, Entry> byName = new ConcurrentSkipListMap<>();
+    private final Map<String, Entry> byWallet = new ConcurrentHashMap<>();
+    // Hər dəyişiklik yeni versiya alır; refresh ondan sonra dəyişənlərə toxunmur
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean ready;
+
+    public UsernameIndexService(UserProfileRepository userProfileRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${username-index.min-prefix-length:2}") int minPrefixLength,
+                                @Value("${username-index.max-scan:10000}") int maxScan) {
+        this.userProfileRepository = userProfileRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.minPrefixLength = minPrefixLength;
+        this.maxScan = maxScan;
+    }
+
+    /** The index is loaded after it is created, so only changes from then on need replaying. */
+    public long replayFromMillis() {
+        return createdAtMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openOnStartup() {
+        Thread open = new Thread(this::refresh, "username-index-open");
+        open.setDaemon(true);
+        open.start();
+    }
+
+    /**
+     * Re-reads all usernames. Entries changed while the scan runs keep their newer value,
+     * and wallets that no longer have a username are dropped.
+     */
+    @Scheduled(fixedDelayString = "${username-index.refresh-interval-ms:300000}",
+            initialDelayString = "${username-index.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reload();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void reload() {
+        long started = System.currentTimeMillis();
+        long version = versions.incrementAndGet();
+        Set<String> seen = new HashSet<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userProfileRepository.streamUsernames()) {
+                    rows.forEach(row -> {
+                        String wallet = (String) row[0];
+                        Integer followers = (Integer) row[2];
+                        seen.add(wallet);
+                        load(wallet, (String) row[1], followers == null ? 0 : followers, version);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Username index refresh failed: {}", e.getMessage());
+            return;
+        }
+        for (Entry entry : byWallet.values()) {
+            if (entry.version() <= version && !seen.contains(entry.walletAddress())) {
+                remove(entry);
+            }
+        }
+        if (!ready) {
+            ready = true;
+            log.info("Username index ready with {} names in {} ms", byWallet.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    /** Applies a username change once the current transaction commits. */
+    public void recordChange(String walletAddress, String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(walletAddress, username);
+                }
+            });
+        } else {
+            apply(walletAddress, username);
+        }
+    }
+
+    public void apply(ProfileUpdatedEvent event) {
+        if (event.getWalletAddress() != null) {
+            apply(event.getWalletAddress(), event.getUsername());
+        }
+    }
+
+    /**
+     * Whether nobody but {@code walletAddress} holds {@code username}, ignoring case.
+     * Falls back to an exact database check until the index is loaded.
+     */
+    public boolean isAvailable(String username, String walletAddress) {
+        if (!ready) {
+            return userProfileRepository.findByUsernameIgnoringCase(username)
+                    .map(p -> p.getWalletAddress().equals(walletAddress))
+                    .orElse(true);
+        }
+        String folded = fold(username);
+        for (Entry holder : byName.subMap(folded + '\0', folded + '\1').values()) {
+            if (!holder.walletAddress().equals(walletAddress)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Up to {@code limit} names starting with {@code prefix}, most followed first among the
+     * first {@code max-scan} matches in name order.
+     */
+    public List<Entry> search(String prefix, int limit) {
+        if (!ready) {
+            throw new RuntimeException("Username index is not ready");
+        }
+        if (prefix == null || prefix.trim().length() < minPrefixLength) {
+            throw new RuntimeException("Prefix must be at least " + minPrefixLength + " characters");
+        }
+        String folded = fold(prefix.trim());
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, (a, b) -> a.followersCount() != b.followersCount()
+                ? Integer.compare(a.followersCount(), b.followersCount())
+                : b.key().compareTo(a.key()));
+        int scanned = 0;
+        for (Entry entry : byName.subMap(folded, folded + Character.MAX_VALUE).values()) {
+            if (++scanned > maxScan) {
+                break;
+            }
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Entry> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private synchronized void apply(String walletAddress, String username) {
+        Entry previous = byWallet.get(walletAddress);
+        if (username == null) {
+            if (previous != null) {
+                remove(previous);
+            }
+            return;
+        }
+        put(new Entry(walletAddress, username, fold(username) + '\0' + walletAddress,
+                previous == null ? 0 : previous.followersCount(), versions.incrementAndGet()));
+    }
+
+    private synchronized void load(String walletAddress, String username, int followersCount, long version) {
+        Entry previous = byWallet.get(walletAddress);
+        if (previous != null && previous.version() > version) {
+            return;
+        }
+        put(new Entry(walletAddress, username, fold(username) + '\0' + walletAddress, followersCount, version));
+    }
+
+    private void put(Entry entry) {
+        Entry previous = byWallet.put(entry.walletAddress(), entry);
+        if (previous != null && !previous.key().equals(entry.key())) {
+            byName.remove(previous.key());
+        }
+        byName.put(entry.key(), entry);
+    }
+
+    private synchronized void remove(Entry entry) {
+        if (byWallet.remove(entry.walletAddress(), entry)) {
+            byName.remove(entry.key());
+        }
+    }
+
+    // Adlar ASCII-dir (UserService və V6 yoxlayır), ona görə bu lower(username) ilə eynidir
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    public record Entry(String walletAddress, String username, String key, int followersCount, long version) {
+    }
+}
@@ -0,0 +1,34 @@
+-- Hibernate ddl-auto ilə yaradılmış sxemin başlanğıc halı (mövcud bazalarda heç nə dəyişmir)
+
+CREATE TABLE IF NOT EXISTS user_profiles (
+    id              VARCHAR(255) PRIMARY KEY,
+    wallet_address  VARCHAR(255) NOT NULL UNIQUE,
+    username        VARCHAR(255) UNIQUE,
+    bio             VARCHAR(255),
+    avatar_url      VARCHAR(255),
+    cover_url       VARCHAR(255),
+    followers_count INTEGER,
+    following_count INTEGER,
+    posts_count     INTEGER,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS follows (
+    id                VARCHAR(255) PRIMARY KEY,
+    follower_address  VARCHAR(255) NOT NULL,
+    following_address VARCHAR(255) NOT NULL,
+    created_at        TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_follows_following_follower ON follows (following_address, follower_address);
+CREATE INDEX IF NOT EXISTS idx_follows_following_created ON follows (following_address, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_follows_follower_created ON follows (follower_address, created_at DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topic         VARCHAR(255) NOT NULL,
+    aggregate_key VARCHAR(255) NOT NULL,
+    event_type    VARCHAR(255) NOT NULL,
+    payload       TEXT NOT NULL,
+    created_at    TIMESTAMP(6)
+);
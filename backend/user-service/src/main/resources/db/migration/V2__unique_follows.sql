@@ -0,0 +1,25 @@
+-- Hər (follower, following) cütü bir dəfə; follow yazışı ON CONFLICT DO NOTHING ilə tək statement-dir
+
+-- Təkrarlar ən köhnə sətri saxlayır; hər təkrar sayğacları artırmışdı, ona görə toxunulan profillər yenidən sayılır
+CREATE TEMPORARY TABLE removed_follows ON COMMIT DROP AS
+WITH removed AS (
+    DELETE FROM follows WHERE id IN (
+        SELECT id FROM (
+            SELECT id, row_number() OVER (PARTITION BY follower_address, following_address
+                                          ORDER BY created_at, id) AS rn
+            FROM follows
+        ) ranked WHERE rn > 1
+    )
+    RETURNING follower_address, following_address
+)
+SELECT follower_address AS wallet_address FROM removed
+UNION
+SELECT following_address FROM removed;
+
+UPDATE user_profiles p SET
+    followers_count = (SELECT count(*) FROM follows f WHERE f.following_address = p.wallet_address),
+    following_count = (SELECT count(*) FROM follows f WHERE f.follower_address = p.wallet_address)
+WHERE p.wallet_address IN (SELECT wallet_address FROM removed_follows);
+
+-- Hibernate-in əvvəl yaratdığı eyni adlı constraint-in indeksi varsa toxunulmur
+CREATE UNIQUE INDEX IF NOT EXISTS uk_follows_follower_following ON follows (follower_address, following_address);
@@ -0,0 +1,7 @@
+-- Tətbiq olunmuş post sayğacı hadisələri: təkrar çatdırılan hadisə posts_count-u ikinci dəfə dəyişmir
+CREATE TABLE IF NOT EXISTS applied_post_counts (
+    post_id    VARCHAR(255) NOT NULL,
+    delta      SMALLINT NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (post_id, delta)
+);
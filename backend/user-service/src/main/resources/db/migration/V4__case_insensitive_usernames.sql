@@ -0,0 +1,16 @@
+-- Username-lər hərf registrinə baxmadan unikaldır, username indeksi buna arxalanır.
+-- Toqquşan adlar avtomatik dəyişdirilmir: miqrasiya onları sadalayıb dayanır, əl ilə düzəldilməlidir.
+DO $$
+DECLARE
+    clashes TEXT;
+BEGIN
+    SELECT string_agg(folded, ', ') INTO clashes FROM (
+        SELECT lower(username) AS folded FROM user_profiles WHERE username IS NOT NULL
+        GROUP BY lower(username) HAVING count(*) > 1 ORDER BY 1 LIMIT 10
+    ) c;
+    IF clashes IS NOT NULL THEN
+        RAISE EXCEPTION 'Usernames differ only by case, rename them first: %', clashes;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_profiles_username_lower ON user_profiles (lower(username));
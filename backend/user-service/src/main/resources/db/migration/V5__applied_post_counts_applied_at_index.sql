@@ -0,0 +1,2 @@
+-- Köhnə dedupe sətirləri applied_at üzrə batch-larla silinir
+CREATE INDEX IF NOT EXISTS idx_applied_post_counts_applied_at ON applied_post_counts (applied_at);
@@ -0,0 +1,15 @@
+-- Username-lər boşluqsuz ASCII-dir: yaddaşdakı indeksin Java kiçiltməsi lower() ilə üst-üstə düşür.
+-- Uyğun gəlməyən adlar avtomatik dəyişdirilmir: miqrasiya onları sadalayıb dayanır, əl ilə düzəldilməlidir.
+DO $$
+DECLARE
+    invalid TEXT;
+BEGIN
+    SELECT string_agg(username, ', ') INTO invalid FROM (
+        SELECT username FROM user_profiles WHERE username !~ '^[\x21-\x7E]+$' ORDER BY 1 LIMIT 10
+    ) u;
+    IF invalid IS NOT NULL THEN
+        RAISE EXCEPTION 'Usernames must be ASCII without spaces, rename them first: %', invalid;
+    END IF;
+END $$;
+
+ALTER TABLE user_profiles ADD CONSTRAINT ck_user_profiles_username_ascii CHECK (username ~ '^[\x21-\x7E]+$');
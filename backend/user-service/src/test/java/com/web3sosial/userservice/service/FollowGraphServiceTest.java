@@ -0,0 +1,205 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.dto.FollowEvent;
+import com.web3sosial.userservice.dto.FollowIntersectionDto;
+import com.web3sosial.userservice.dto.RelationshipDto;
+import com.web3sosial.userservice.repository.FollowRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the in-memory graph against a plain map of {@link TreeSet}s through every stage:
+ * built from the database, with a delta of follows and unfollows on top, compacted, and
+ * reloaded from its snapshot.
+ */
+class FollowGraphServiceTest {
+
+    private static final int WALLETS = 80;
+
+    @TempDir
+    Path directory;
+
+    private final SplittableRandom random = new SplittableRandom(17);
+    private final Map<String, TreeSet<String>> following = new TreeMap<>();
+
+    @Test
+    void graphMatchesTheEdgeSetThroughDeltaCompactionAndSnapshot() {
+        for (int i = 0; i < 900; i++) {
+            follow(wallet(random.nextInt(WALLETS)), wallet(random.nextInt(WALLETS)));
+        }
+        Path snapshot = directory.resolve("follow-graph.snap");
+        FollowRepository database = repositoryWith(following);
+        FollowGraphService service = service(database, snapshot);
+        service.open();
+        assertMatches(service);
+
+        // Delta: yeni, təkrar, bazadakı kənarın silinib yenidən əlavəsi və yeni cüzdanlar
+        for (int i = 0; i < 600; i++) {
+            String follower = wallet(random.nextInt(WALLETS + 10));
+            String target = wallet(random.nextInt(WALLETS + 10));
+            // Özünü izləmək UserService-də rədd edilir, belə hadisə gəlmir
+            if (follower.equals(target)) {
+                continue;
+            }
+            boolean follows = random.nextInt(3) > 0;
+            if (follows) {
+                follow(follower, target);
+            } else if (following.containsKey(follower)) {
+                following.get(follower).remove(target);
+            }
+            service.apply(FollowEvent.builder()
+                    .followerAddress(follower)
+                    .followingAddress(target)
+                    .following(follows)
+                    .build());
+        }
+        assertMatches(service);
+
+        service.compactIfNeeded();
+        assertMatches(service);
+
+        service.apply(FollowEvent.builder().followerAddress(wallet(1)).followingAddress(wallet(2)).following(true).build());
+        follow(wallet(1), wallet(2));
+        service.snapshot();
+
+        FollowRepository emptyDatabase = repositoryWith(Map.of());
+        FollowGraphService reloaded = service(emptyDatabase, snapshot);
+        reloaded.open();
+        verify(emptyDatabase, never()).streamAllPairs();
+        assertMatches(reloaded);
+    }
+
+    @Test
+    void suggestionsCountFollowingsThatFollowEachCandidate() {
+        for (int i = 0; i < 700; i++) {
+            follow(wallet(random.nextInt(WALLETS)), wallet(random.nextInt(WALLETS)));
+        }
+        FollowGraphService graph = service(repositoryWith(following), directory.resolve("none.snap"));
+        graph.open();
+        SuggestionService suggestions = new SuggestionService(graph, Duration.ZERO, Duration.ofSeconds(30), 2_000, 5_000);
+
+        for (int v = 0; v < WALLETS; v++) {
+            String viewer = wallet(v);
+            Map<String, Integer> expected = new HashMap<>();
+            for (String friend : following.getOrDefault(viewer, new TreeSet<>())) {
+                for (String candidate : following.getOrDefault(friend, new TreeSet<>())) {
+                    if (!candidate.equals(viewer) && !following.get(viewer).contains(candidate)) {
+                        expected.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<SuggestionService.Suggestion> result = suggestions.suggest(viewer, PageCursor.MAX_PAGE_SIZE);
+            Map<String, Integer> actual = new HashMap<>();
+            result.forEach(s -> actual.put(s.walletAddress(), s.connections()));
+            assertThat(actual).as("suggestions for %s", viewer).isEqualTo(expected);
+            for (int i = 1; i < result.size(); i++) {
+                assertThat(result.get(i).connections()).isLessThanOrEqualTo(result.get(i - 1).connections());
+            }
+        }
+    }
+
+    private void assertMatches(FollowGraphService service) {
+        List<String> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS + 10; i++) {
+            wallets.add(wallet(i));
+        }
+        for (String a : wallets) {
+            int id = service.idOf(a);
+            if (id >= 0) {
+                assertThat(names(service, service.followingOf(id))).as("following of %s", a)
+                        .containsExactlyInAnyOrderElementsOf(followingOf(a));
+                assertThat(names(service, service.followersOf(id))).as("followers of %s", a)
+                        .containsExactlyInAnyOrderElementsOf(followersOf(a));
+            } else {
+                assertThat(followingOf(a)).isEmpty();
+                assertThat(followersOf(a)).isEmpty();
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            String a = wallets.get(random.nextInt(wallets.size()));
+            String b = wallets.get(random.nextInt(wallets.size()));
+
+            RelationshipDto relationship = service.relationship(a, b);
+            assertThat(relationship.getFollowing()).isEqualTo(followingOf(a).contains(b));
+            assertThat(relationship.getFollowedBy()).isEqualTo(followingOf(b).contains(a));
+
+            Set<String> inCommon = new TreeSet<>(followersOf(a));
+            inCommon.retainAll(followersOf(b));
+            assertIntersection(service.followersInCommon(a, b, PageCursor.MAX_PAGE_SIZE), inCommon);
+
+            Set<String> known = new TreeSet<>(followingOf(a));
+            known.retainAll(followersOf(b));
+            assertIntersection(service.knownFollowers(a, b, PageCursor.MAX_PAGE_SIZE), known);
+        }
+    }
+
+    private static void assertIntersection(FollowIntersectionDto dto, Set<String> expected) {
+        assertThat(dto.getCount()).isEqualTo(expected.size());
+        assertThat(dto.getWalletAddresses()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private Set<String> followingOf(String wallet) {
+        return following.getOrDefault(wallet, new TreeSet<>());
+    }
+
+    private Set<String> followersOf(String wallet) {
+        Set<String> followers = new TreeSet<>();
+        following.forEach((follower, targets) -> {
+            if (targets.contains(wallet)) {
+                followers.add(follower);
+            }
+        });
+        return followers;
+    }
+
+    private void follow(String follower, String target) {
+        if (!follower.equals(target)) {
+            following.computeIfAbsent(follower, k -> new TreeSet<>()).add(target);
+        }
+    }
+
+    private static List<String> names(FollowGraphService service, int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(service.walletOf(id));
+        }
+        return names;
+    }
+
+    private static FollowRepository repositoryWith(Map<String, TreeSet<String>> edges) {
+        List<Object[]> pairs = new ArrayList<>();
+        edges.forEach((follower, targets) -> targets.forEach(target -> pairs.add(new Object[]{follower, target})));
+        FollowRepository repository = mock(FollowRepository.class);
+        when(repository.streamAllPairs()).thenAnswer(invocation -> pairs.stream());
+        return repository;
+    }
+
+    private static FollowGraphService service(FollowRepository repository, Path snapshot) {
+        // compact-threshold 1: compactIfNeeded hər deltanı CSR-ə köçürür
+        return new FollowGraphService(repository, mock(PlatformTransactionManager.class),
+                snapshot.toString(), Duration.ofDays(1), 1);
+    }
+
+    private static String wallet(int i) {
+        return "0xwallet" + i;
+    }
+}
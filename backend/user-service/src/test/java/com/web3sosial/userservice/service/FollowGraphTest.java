@@ -0,0 +1,125 @@
+package com.web3sosial.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowGraphTest {
+
+    private static final int NODES = 200;
+
+    @Test
+    void csrListsMatchTheEdgeSetInBothDirections() {
+        List<Set<Integer>> following = randomGraph(new SplittableRandom(7), NODES, 3_000);
+        FollowGraph graph = build(following);
+
+        assertGraph(graph, following);
+    }
+
+    @Test
+    void snapshotRoundTripRebuildsBothDirections() throws IOException {
+        List<Set<Integer>> following = randomGraph(new SplittableRandom(11), NODES, 3_000);
+        FollowGraph graph = build(following);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        graph.writeTo(new DataOutputStream(bytes));
+        FollowGraph copy = FollowGraph.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertGraph(copy, following);
+    }
+
+    @Test
+    void nodesOutsideTheGraphHaveNoEdges() {
+        FollowGraph graph = build(randomGraph(new SplittableRandom(3), 10, 20));
+
+        assertThat(graph.following(10)).isEmpty();
+        assertThat(graph.followers(10)).isEmpty();
+        assertThat(graph.follows(10, 0)).isFalse();
+        assertThat(FollowGraph.EMPTY.following(0)).isEmpty();
+    }
+
+    @Test
+    void intersectMatchesSetIntersection() {
+        SplittableRandom random = new SplittableRandom(5);
+        // Bərabər ölçülər merge-i, çox fərqli ölçülər binary search yolunu yoxlayır
+        int[][] sizes = {{0, 10}, {50, 60}, {500, 400}, {3, 2_000}, {2_000, 5}, {40, 40}};
+        for (int[] size : sizes) {
+            TreeSet<Integer> a = randomSet(random, size[0], 5_000);
+            TreeSet<Integer> b = randomSet(random, size[1], 5_000);
+            TreeSet<Integer> expected = new TreeSet<>(a);
+            expected.retainAll(b);
+
+            assertThat(FollowGraphService.intersect(toArray(a), toArray(b))).containsExactly(toArray(expected));
+        }
+    }
+
+    static List<Set<Integer>> randomGraph(SplittableRandom random, int nodes, int edges) {
+        List<Set<Integer>> following = new ArrayList<>(nodes);
+        for (int u = 0; u < nodes; u++) {
+            following.add(new TreeSet<>());
+        }
+        for (int i = 0; i < edges; i++) {
+            int u = random.nextInt(nodes);
+            int v = random.nextInt(nodes);
+            if (u != v) {
+                following.get(u).add(v);
+            }
+        }
+        return following;
+    }
+
+    private static FollowGraph build(List<Set<Integer>> following) {
+        int edgeCount = following.stream().mapToInt(Set::size).sum();
+        int[] followers = new int[edgeCount];
+        int[] followings = new int[edgeCount];
+        int i = 0;
+        // Kənarlar qarışıq ardıcıllıqla verilir: sıralama build-in işidir
+        for (int u = following.size() - 1; u >= 0; u--) {
+            for (int v : ((TreeSet<Integer>) following.get(u)).descendingSet()) {
+                followers[i] = u;
+                followings[i++] = v;
+            }
+        }
+        return FollowGraph.build(following.size(), followers, followings, edgeCount);
+    }
+
+    private static void assertGraph(FollowGraph graph, List<Set<Integer>> following) {
+        int nodes = following.size();
+        assertThat(graph.nodeCount()).isEqualTo(nodes);
+        assertThat(graph.edgeCount()).isEqualTo(following.stream().mapToInt(Set::size).sum());
+        for (int u = 0; u < nodes; u++) {
+            assertThat(graph.following(u)).containsExactly(toArray(following.get(u)));
+            TreeSet<Integer> followers = new TreeSet<>();
+            for (int v = 0; v < nodes; v++) {
+                if (following.get(v).contains(u)) {
+                    followers.add(v);
+                }
+                assertThat(graph.follows(u, v)).isEqualTo(following.get(u).contains(v));
+            }
+            assertThat(graph.followers(u)).containsExactly(toArray(followers));
+        }
+    }
+
+    private static TreeSet<Integer> randomSet(SplittableRandom random, int size, int bound) {
+        TreeSet<Integer> set = new TreeSet<>();
+        while (set.size() < size) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    static int[] toArray(Set<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,136 @@
+package com.web3sosial.userservice.service;
+
+import com.web3sosial.userservice.entity.UserProfile;
+import com.web3sosial.userservice.repository.UserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameIndexServiceTest {
+
+    private final UserProfileRepository repository = mock(UserProfileRepository.class);
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.streamUsernames()).thenAnswer(invocation -> new ArrayList<>(rows).stream());
+    }
+
+    @Test
+    void availabilityIgnoresCaseAndTheHoldersOwnName() {
+        row("0xalice", "Alice", 10);
+        row("0xalicia", "alice_2", 3);
+        UsernameIndexService index = loaded(10_000);
+
+        assertThat(index.isAvailable("ALICE", "0xbob")).isFalse();
+        assertThat(index.isAvailable("alice", "0xalice")).isTrue();
+        // "alice" başqa adın prefiksidir, amma həmin adı tutmur
+        assertThat(index.isAvailable("alic", "0xbob")).isTrue();
+        assertThat(index.isAvailable("Alice_2", "0xalicia")).isTrue();
+    }
+
+    @Test
+    void fallsBackToTheDatabaseUntilLoaded() {
+        UsernameIndexService index = service(10_000);
+        UserProfile alice = UserProfile.builder().walletAddress("0xalice").username("Alice").build();
+        when(repository.findByUsernameIgnoringCase("alice")).thenReturn(Optional.of(alice));
+
+        assertThat(index.isAvailable("alice", "0xbob")).isFalse();
+        assertThat(index.isAvailable("alice", "0xalice")).isTrue();
+        assertThat(index.isAvailable("carol", "0xbob")).isTrue();
+        assertThatThrownBy(() -> index.search("al", 5)).hasMessage("Username index is not ready");
+    }
+
+    @Test
+    void searchRanksPrefixMatchesByFollowers() {
+        row("0xbo", "bo", 500);
+        row("0xbob", "bob", 5);
+        row("0xbobby", "Bobby", 50);
+        row("0xbobcat", "bobcat", 20);
+        row("0xbobo", "BOBO", 20);
+        row("0xboc", "boc", 900);
+        row("0xcarl", "carl", 1_000);
+        UsernameIndexService index = loaded(10_000);
+
+        // Bərabər say: ad sırası
+        assertThat(names(index.search("BOB", 10))).containsExactly("Bobby", "bobcat", "BOBO", "bob");
+        assertThat(names(index.search(" bob ", 2))).containsExactly("Bobby", "bobcat");
+        assertThat(names(index.search("bobx", 10))).isEmpty();
+        assertThatThrownBy(() -> index.search("b", 10)).hasMessage("Prefix must be at least 2 characters");
+    }
+
+    @Test
+    void searchRanksOnlyTheFirstMaxScanMatches() {
+        row("0xa", "bob_a", 1);
+        row("0xb", "bob_b", 2);
+        row("0xc", "bob_c", 300);
+        UsernameIndexService index = loaded(2);
+
+        assertThat(names(index.search("bob", 10))).containsExactly("bob_b", "bob_a");
+    }
+
+    @Test
+    void renamesFreeTheOldNameAndKeepFollowers() {
+        row("0xalice", "alice", 40);
+        row("0xcarol", "carol", 1);
+        UsernameIndexService index = loaded(10_000);
+
+        index.recordChange("0xalice", "Alicia");
+
+        assertThat(index.isAvailable("alice", "0xbob")).isTrue();
+        assertThat(index.isAvailable("alicia", "0xbob")).isFalse();
+        assertThat(index.search("al", 5)).extracting(UsernameIndexService.Entry::followersCount).containsExactly(40);
+
+        index.recordChange("0xalice", null);
+        assertThat(index.search("al", 5)).isEmpty();
+    }
+
+    @Test
+    void refreshKeepsChangesMadeWhileItScans() {
+        row("0xalice", "alice", 1);
+        row("0xdave", "dave", 1);
+        UsernameIndexService index = loaded(10_000);
+
+        // Skan başlayandan sonra gələn dəyişikliklər köhnə sətirlərdən yenidir
+        rows.removeIf(row -> row[0].equals("0xdave"));
+        when(repository.streamUsernames()).thenAnswer(invocation -> {
+            index.recordChange("0xalice", "alicia");
+            index.recordChange("0xerin", "erin");
+            return new ArrayList<>(rows).stream();
+        });
+        index.refresh();
+
+        assertThat(index.isAvailable("alicia", "0xbob")).isFalse();
+        assertThat(index.isAvailable("alice", "0xbob")).isTrue();
+        assertThat(index.isAvailable("erin", "0xbob")).isFalse();
+        // Bazada artıq olmayan köhnə ad silinir
+        assertThat(index.isAvailable("dave", "0xbob")).isTrue();
+    }
+
+    private void row(String wallet, String username, int followers) {
+        rows.add(new Object[]{wallet, username, followers});
+    }
+
+    private UsernameIndexService loaded(int maxScan) {
+        UsernameIndexService index = service(maxScan);
+        index.refresh();
+        return index;
+    }
+
+    private UsernameIndexService service(int maxScan) {
+        return new UsernameIndexService(repository, mock(PlatformTransactionManager.class), 2, maxScan);
+    }
+
+    private static List<String> names(List<UsernameIndexService.Entry> entries) {
+        return entries.stream().map(UsernameIndexService.Entry::username).toList();
+    }
+}
@@ -5,7 +5,7 @@ import { postService } from '../services/api'
 
 const PostCard = ({ post, onUpdate }) => {
   const { account } = useWeb3()
-  const [liked, setLiked] = useState(false)
+  const [liked, setLiked] = useState(!!post.likedByViewer)
   const [showComments, setShowComments] = useState(false)
   const [comment, setComment] = useState('')
   const [comments, setComments] = useState([])
@@ -40,7 +40,7 @@ const PostCard = ({ post, onUpdate }) => {
       setLoadingComments(true)
       try {
         const res = await postService.getComments(post.id)
-        setComments(res.data)
+        setComments(res.data.items)
       } catch (err) {
         console.error(err)
       } finally {
@@ -110,6 +110,11 @@ const PostCard = ({ post, onUpdate }) => {
           <span>🔁</span>
           <span className="font-display text-xs">{post.repostsCount}</span>
         </span>
+
+        <span className="flex items-center gap-1.5 text-sm text-[#64748b]" title="Unique views">
+          <span>👁</span>
+          <span className="font-display text-xs">{post.uniqueViews ?? 0}</span>
+        </span>
       </div>
 
       {showComments && (
@@ -139,6 +144,15 @@ const PostCard = ({ post, onUpdate }) => {
                   <span className="text-xs text-[#64748b]">{formatDate(c.createdAt)}</span>
                 </div>
                 <p className="text-sm text-[#e2e8f0]">{c.content}</p>
+                {c.replies?.map(r => (
+                  <div key={r.id} className="ml-4 mt-2 pl-3 border-l border-[#1e1e2e]">
+                    <div className="flex items-center gap-2 mb-1">
+                      <span className="font-display text-xs text-[#00ff88]">{shortAddress(r.walletAddress)}</span>
+                      <span className="text-xs text-[#64748b]">{formatDate(r.createdAt)}</span>
+                    </div>
+                    <p className="text-sm text-[#e2e8f0]">{r.content}</p>
+                  </div>
+                ))}
               </div>
             ))
           )}
@@ -15,7 +15,7 @@ const Feed = () => {
 
   const { data, isLoading, refetch } = useQuery({
     queryKey: ['posts'],
-    queryFn: () => postService.getAll().then(r => r.data)
+    queryFn: () => postService.getAll(account).then(r => r.data.items)
   })
 
   const handlePost = async () => {
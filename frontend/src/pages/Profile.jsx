@@ -22,7 +22,7 @@ const Profile = () => {
 
   const { data: posts, refetch: refetchPosts } = useQuery({
     queryKey: ['userPosts', wallet],
-    queryFn: () => postService.getUserPosts(wallet).then(r => r.data)
+    queryFn: () => postService.getUserPosts(wallet, account).then(r => r.data.items)
   })
 
   const handleFollow = async () => {
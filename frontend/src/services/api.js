@@ -13,22 +13,38 @@ api.interceptors.request.use((config) => {
 })
 
 export const postService = {
-  getAll: () => api.get('/posts'),
-  getUserPosts: (wallet) => api.get(`/posts/user/${wallet}`),
+  getAll: (viewer, cursor, size) => api.get('/posts', { params: { viewer, cursor, size } }),
+  getTimeline: (wallet, cursor, size) => api.get(`/posts/timeline/${wallet}`, { params: { cursor, size } }),
+  getRankedTimeline: (wallet, size) => api.get(`/posts/timeline/${wallet}/ranked`, { params: { size } }),
+  getTrending: (viewer, size) => api.get('/posts/trending', { params: { viewer, size } }),
+  getTrendingTags: (size) => api.get('/posts/trending/tags', { params: { size } }),
+  getTagPosts: (tag, viewer, cursor, size) => api.get(`/posts/tags/${encodeURIComponent(tag)}`, { params: { viewer, cursor, size } }),
+  search: (q, viewer, size) => api.get('/posts/search', { params: { q, viewer, size } }),
+  getBatch: (ids, viewer) => api.post('/posts/batch', { ids, viewer }),
+  recordImpressions: (viewer, postIds) => api.post('/posts/impressions', { viewer, postIds }),
+  getImpressions: (wallet, days) => api.get(`/posts/user/${wallet}/impressions`, { params: { days } }),
+  getUserPosts: (wallet, viewer, cursor, size) => api.get(`/posts/user/${wallet}`, { params: { viewer, cursor, size } }),
   create: (data) => api.post('/posts', data),
   like: (postId, wallet) => api.post(`/posts/${postId}/like/${wallet}`),
   unlike: (postId, wallet) => api.delete(`/posts/${postId}/like/${wallet}`),
-  getComments: (postId) => api.get(`/posts/${postId}/comments`),
+  getComments: (postId, cursor, size) => api.get(`/posts/${postId}/comments`, { params: { cursor, size } }),
+  getReplies: (commentId, cursor, size) => api.get(`/posts/comments/${commentId}/replies`, { params: { cursor, size } }),
   addComment: (postId, data) => api.post(`/posts/${postId}/comments`, data),
 }
 
 export const userService = {
   getProfile: (wallet) => api.get(`/users/${wallet}`),
+  searchUsers: (prefix, size) => api.get('/users/search', { params: { prefix, size } }),
+  checkUsername: (username, walletAddress) => api.get(`/users/usernames/${encodeURIComponent(username)}/availability`, { params: { walletAddress } }),
   updateProfile: (wallet, data) => api.put(`/users/${wallet}`, data),
   follow: (data) => api.post('/users/follow', data),
   unfollow: (data) => api.post('/users/unfollow', data),
-  getFollowers: (wallet) => api.get(`/users/${wallet}/followers`),
-  getFollowing: (wallet) => api.get(`/users/${wallet}/following`),
+  getFollowers: (wallet, cursor, size) => api.get(`/users/${wallet}/followers`, { params: { cursor, size } }),
+  getFollowing: (wallet, cursor, size) => api.get(`/users/${wallet}/following`, { params: { cursor, size } }),
+  getRelationship: (wallet, other) => api.get(`/users/${wallet}/relationship/${other}`),
+  getFollowersInCommon: (wallet, other, size) => api.get(`/users/${wallet}/followers-in-common/${other}`, { params: { size } }),
+  getKnownFollowers: (wallet, target, size) => api.get(`/users/${wallet}/known-followers/${target}`, { params: { size } }),
+  getSuggestions: (wallet, size) => api.get(`/users/${wallet}/suggestions`, { params: { size } }),
 }
 
 export const notificationService = {